@@ -0,0 +1,116 @@
+package com.example.benchmarks;
+
+import com.example.benchmarks.support.NoOpTransactionManager;
+import com.example.benchmarks.support.RepositoryStub;
+import com.example.order.cache.OrderReadCache;
+import com.example.order.client.AvailabilityBatcher;
+import com.example.order.client.PaymentClient;
+import com.example.order.client.ProductClient;
+import com.example.order.client.RequestHedger;
+import com.example.order.config.AvailabilityBatchProperties;
+import com.example.order.config.HedgingProperties;
+import com.example.order.config.OrderReadCacheProperties;
+import com.example.order.config.OrderTopicsProperties;
+import com.example.order.config.ResilienceProperties;
+import com.example.order.dto.OrderDtos.CreateOrderItemRequest;
+import com.example.order.dto.OrderDtos.CreateOrderRequest;
+import com.example.order.dto.OrderDtos.OrderResponse;
+import com.example.order.entity.Order;
+import com.example.order.events.OrderEventPublisher;
+import com.example.order.repository.OrderRepository;
+import com.example.order.repository.OutboxEventRepository;
+import com.example.order.resilience.DependencyGuard;
+import com.example.order.service.OrderService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link OrderService#createOrder} with the remote checks, the repository and the outbox
+ * replaced by in-memory stand-ins: what is left is request mapping, entity and event
+ * building, and the JSON serialization of the outbox payload.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderCreationBenchmark {
+
+    @Param({"1", "10", "50"})
+    public int items;
+
+    private OrderService orderService;
+    private CreateOrderRequest request;
+
+    @Setup
+    public void setUp() {
+        AtomicLong ids = new AtomicLong();
+        OrderRepository orderRepository = RepositoryStub.of(OrderRepository.class)
+                .on("save", args -> {
+                    Order order = (Order) args[0];
+                    order.setId(ids.incrementAndGet());
+                    return order;
+                })
+                .build();
+        OutboxEventRepository outboxRepository = RepositoryStub.of(OutboxEventRepository.class)
+                .on("save", args -> args[0])
+                .build();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderTopicsProperties topics = new OrderTopicsProperties();
+        topics.setCreated("ORDER_CREATED");
+        topics.setRejected("ORDER_REJECTED");
+        OrderEventPublisher eventPublisher = new OrderEventPublisher(outboxRepository, topics, new ObjectMapper(),
+                Tracer.NOOP, Propagator.NOOP);
+
+        ProductClient productClient = checks -> checks.stream()
+                .map(c -> new ProductClient.AvailabilityResponse(c.productId(), true, 1_000, new BigDecimal("9.99"), 1L))
+                .toList();
+        PaymentClient paymentClient = new PaymentClient() {
+            @Override
+            public AccountBalance balance(Long customerId) {
+                return new AccountBalance(customerId, new BigDecimal("1000000"));
+            }
+
+            @Override
+            public List<AccountBalance> balances(Collection<Long> customerIds) {
+                return customerIds.stream()
+                        .map(id -> new AccountBalance(id, new BigDecimal("1000000")))
+                        .toList();
+            }
+        };
+
+        // A single benchmark thread would only ever wait out the batching window
+        AvailabilityBatchProperties batchProperties = new AvailabilityBatchProperties();
+        batchProperties.setEnabled(false);
+        RequestHedger hedger = new RequestHedger(new HedgingProperties(), Runnable::run, meterRegistry);
+        DependencyGuard dependencyGuard = new DependencyGuard(new ResilienceProperties(), meterRegistry);
+        orderService = new OrderService(orderRepository,
+                new AvailabilityBatcher(productClient, hedger, dependencyGuard, batchProperties, meterRegistry),
+                paymentClient, hedger, dependencyGuard, eventPublisher, new TransactionTemplate(new NoOpTransactionManager()), Runnable::run,
+                new OrderReadCache(new OrderReadCacheProperties(), meterRegistry), meterRegistry);
+
+        List<CreateOrderItemRequest> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new CreateOrderItemRequest((long) i + 1, 1 + i % 3));
+        }
+        request = new CreateOrderRequest(42L, lines);
+    }
+
+    @Benchmark
+    public OrderResponse createOrder() {
+        return orderService.createOrder(request);
+    }
+}
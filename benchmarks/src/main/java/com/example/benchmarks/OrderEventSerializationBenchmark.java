@@ -0,0 +1,124 @@
+package com.example.benchmarks;
+
+import com.example.order.events.OrderEvents;
+import com.example.order.events.codec.OrderEventDeserializer;
+import com.example.order.events.codec.OrderEventSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trip of the order events in JSON, as written to the outbox and formerly to Kafka,
+ * and in the binary Kafka format. {@link #compressBinaryBatch} also reports the encoded
+ * sizes, alone and per lz4-compressed batch of 100, as secondary results.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderEventSerializationBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int items;
+
+    private ObjectMapper objectMapper;
+    private OrderEvents.OrderCreatedEvent createdEvent;
+    private OrderEvents.OrderRejectedEvent rejectedEvent;
+    private byte[] createdJson;
+    private OrderEventSerializer binarySerializer;
+    private OrderEventDeserializer binaryDeserializer;
+    private byte[] createdBinary;
+    private LZ4Compressor lz4;
+    private byte[] binaryBatch;
+    private long jsonBatchLz4Bytes;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = new ObjectMapper();
+        List<OrderEvents.OrderItemEvent> lines = new ArrayList<>(items);
+        for (int i = 0; i < items; i++) {
+            lines.add(new OrderEvents.OrderItemEvent((long) i + 1, 1 + i % 3));
+        }
+        createdEvent = new OrderEvents.OrderCreatedEvent(1_000_001L, 42L, lines, new BigDecimal("129.90"));
+        rejectedEvent = new OrderEvents.OrderRejectedEvent(1_000_002L, 42L, "INSUFFICIENT_STOCK", lines);
+        createdJson = objectMapper.writeValueAsBytes(createdEvent);
+        binarySerializer = new OrderEventSerializer();
+        binaryDeserializer = new OrderEventDeserializer();
+        createdBinary = binarySerializer.serialize("ORDER_CREATED", createdEvent);
+        lz4 = LZ4Factory.fastestInstance().fastCompressor();
+        ByteArrayOutputStream jsonBatch = new ByteArrayOutputStream();
+        ByteArrayOutputStream binaryBatch = new ByteArrayOutputStream();
+        for (int i = 0; i < 100; i++) {
+            OrderEvents.OrderCreatedEvent event = new OrderEvents.OrderCreatedEvent(
+                    createdEvent.orderId() + i, createdEvent.customerId() + i % 7, createdEvent.items(), createdEvent.amount());
+            jsonBatch.write(objectMapper.writeValueAsBytes(event));
+            binaryBatch.write(binarySerializer.serialize("ORDER_CREATED", event));
+        }
+        this.binaryBatch = binaryBatch.toByteArray();
+        jsonBatchLz4Bytes = lz4.compress(jsonBatch.toByteArray()).length;
+    }
+
+    @Benchmark
+    public byte[] serializeCreated() throws IOException {
+        return objectMapper.writeValueAsBytes(createdEvent);
+    }
+
+    @Benchmark
+    public byte[] serializeRejected() throws IOException {
+        return objectMapper.writeValueAsBytes(rejectedEvent);
+    }
+
+    @Benchmark
+    public OrderEvents.OrderCreatedEvent deserializeCreated() throws IOException {
+        return objectMapper.readValue(createdJson, OrderEvents.OrderCreatedEvent.class);
+    }
+
+    @Benchmark
+    public byte[] serializeCreatedBinary() {
+        return binarySerializer.serialize("ORDER_CREATED", createdEvent);
+    }
+
+    @Benchmark
+    public byte[] serializeRejectedBinary() {
+        return binarySerializer.serialize("ORDER_REJECTED", rejectedEvent);
+    }
+
+    @Benchmark
+    public Object deserializeCreatedBinary() {
+        return binaryDeserializer.deserialize("ORDER_CREATED", null, createdBinary);
+    }
+
+    // What the producer does to a batch of 100 binary records with compression-type lz4
+    @Benchmark
+    public byte[] compressBinaryBatch(EncodedSizes sizes) {
+        byte[] compressed = lz4.compress(binaryBatch);
+        sizes.jsonBytes = createdJson.length;
+        // JsonSerializer also sent the class name in the __TypeId__ header of every record
+        sizes.jsonTypeHeaderBytes = OrderEvents.OrderCreatedEvent.class.getName().length();
+        sizes.binaryBytes = createdBinary.length;
+        sizes.jsonBatchLz4Bytes = jsonBatchLz4Bytes;
+        sizes.binaryBatchLz4Bytes = compressed.length;
+        return compressed;
+    }
+
+    /** Encoded sizes of an OrderCreatedEvent in bytes, listed by JMH under the benchmark's results. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class EncodedSizes {
+        public long jsonBytes;
+        public long jsonTypeHeaderBytes;
+        public long binaryBytes;
+        public long jsonBatchLz4Bytes;
+        public long binaryBatchLz4Bytes;
+    }
+}
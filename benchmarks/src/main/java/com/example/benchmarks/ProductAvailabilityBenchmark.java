@@ -0,0 +1,129 @@
+package com.example.benchmarks;
+
+import com.example.benchmarks.support.InMemoryRedisTemplate;
+import com.example.benchmarks.support.PerEntryWriteBackCache;
+import com.example.benchmarks.support.RepositoryStub;
+import com.example.product.cache.ProductPriceCache;
+import com.example.product.cache.ProductQuantityCache;
+import com.example.product.config.ProductCacheProperties;
+import com.example.product.dto.PriceSnapshot;
+import com.example.product.dto.ProductAvailabilityResponse;
+import com.example.product.dto.request.ProductQuantityCheckRequest;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.repository.ProductRepository;
+import com.example.product.service.ProductService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ProductService#checkQuantities} against an in-memory Redis and database.
+ * <ul>
+ *     <li>{@code warm}: every product is in the near cache and Redis.</li>
+ *     <li>{@code cold}: near cache disabled and Redis drops writes, so every call misses,
+ *     loads from the database stand-in and writes back.</li>
+ *     <li>{@code redisOnly}: near cache disabled, Redis holds everything (one multiGet).</li>
+ * </ul>
+ * {@code writeBack} picks how misses are written back to Redis:
+ * <ul>
+ *     <li>{@code pipelined}: the loaded misses only, in one pipeline (current code).</li>
+ *     <li>{@code perEntry}: every entry, hits included, one {@code SET} each, as before
+ *     the write-back was pipelined.</li>
+ * </ul>
+ * {@code duplicatePercent} repeats that share of the lines with an id already in the basket.
+ * {@code roundTripMicros=100} puts a realistic network round trip on every Redis call; with 0
+ * the numbers are pure CPU and allocation. The {@code redisRoundTrips} secondary result is
+ * the number of Redis round trips per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductAvailabilityBenchmark {
+
+    @Param({"1", "10", "100", "500"})
+    public int basketSize;
+
+    @Param({"0", "50"})
+    public int duplicatePercent;
+
+    @Param({"warm", "cold", "redisOnly"})
+    public String cache;
+
+    @Param({"0", "100"})
+    public long roundTripMicros;
+
+    @Param({"pipelined", "perEntry"})
+    public String writeBack;
+
+    private InMemoryRedisTemplate redis;
+    private ProductService productService;
+    private List<ProductQuantityCheckRequest> basket;
+
+    @Setup
+    public void setUp() {
+        boolean warm = "warm".equals(cache);
+        redis = new InMemoryRedisTemplate(!"cold".equals(cache),
+                TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+        ProductCacheProperties properties = new ProductCacheProperties();
+        properties.getNear().setEnabled(warm);
+        properties.getNear().setTtl(Duration.ofHours(1));
+        properties.getPrice().setEnabled(warm);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductQuantityCache quantityCache = "perEntry".equals(writeBack)
+                ? new PerEntryWriteBackCache(redis, properties, meterRegistry)
+                : new ProductQuantityCache(redis, properties, meterRegistry);
+
+        // Every tenth product does not exist, which exercises the negative cache
+        ProductRepository repository = RepositoryStub.of(ProductRepository.class)
+                .on("findQuantitiesByIds", args -> {
+                    @SuppressWarnings("unchecked")
+                    List<Long> ids = (List<Long>) args[0];
+                    List<ProductQuantityCheckRequest> rows = new ArrayList<>(ids.size());
+                    for (Long id : ids) {
+                        if (id % 10 != 0) {
+                            rows.add(new ProductQuantityCheckRequest(id, 1_000));
+                        }
+                    }
+                    return rows;
+                })
+                .on("findPriceSnapshotsByIds", args -> {
+                    @SuppressWarnings("unchecked")
+                    Collection<Long> ids = (Collection<Long>) args[0];
+                    return ids.stream().map(id -> new PriceSnapshot(id, 9.99, 1L)).toList();
+                })
+                .build();
+        productService = new ProductService(repository, new ProductMapper(), quantityCache,
+                new ProductPriceCache(properties, meterRegistry), meterRegistry);
+
+        basket = new ArrayList<>(basketSize);
+        int distinct = Math.max(1, basketSize - basketSize * duplicatePercent / 100);
+        for (int i = 0; i < basketSize; i++) {
+            basket.add(new ProductQuantityCheckRequest((long) (i % distinct) + 1, 2));
+        }
+        // Populate the tiers that are meant to be warm; cold Redis drops this write
+        productService.checkQuantities(basket);
+    }
+
+    @Benchmark
+    public List<ProductAvailabilityResponse> checkQuantities(RedisCalls calls) {
+        long before = redis.roundTrips();
+        List<ProductAvailabilityResponse> result = productService.checkQuantities(basket);
+        calls.redisRoundTrips = redis.roundTrips() - before;
+        return result;
+    }
+
+    /** Redis round trips of the last call, listed by JMH under the benchmark's results. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class RedisCalls {
+        public long redisRoundTrips;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.benchmarks;
+
+import com.example.benchmarks.support.InMemoryRedisTemplate;
+import com.example.benchmarks.support.NoOpTransactionManager;
+import com.example.benchmarks.support.RepositoryStub;
+import com.example.order.cache.OrderReadCache;
+import com.example.order.client.AvailabilityBatcher;
+import com.example.order.client.PaymentClient;
+import com.example.order.client.ProductClient;
+import com.example.order.client.RequestHedger;
+import com.example.order.config.AsyncConfig;
+import com.example.order.config.AvailabilityBatchProperties;
+import com.example.order.config.HedgingProperties;
+import com.example.order.config.OrderReadCacheProperties;
+import com.example.order.config.OrderTopicsProperties;
+import com.example.order.config.RemoteCallProperties;
+import com.example.order.config.ResilienceProperties;
+import com.example.order.dto.OrderDtos.CreateOrderItemRequest;
+import com.example.order.dto.OrderDtos.CreateOrderRequest;
+import com.example.order.entity.Order;
+import com.example.order.events.OrderEventPublisher;
+import com.example.order.repository.OrderRepository;
+import com.example.order.repository.OutboxEventRepository;
+import com.example.order.resilience.DependencyGuard;
+import com.example.order.service.OrderService;
+import com.example.product.cache.ProductPriceCache;
+import com.example.product.cache.ProductQuantityCache;
+import com.example.product.config.ProductCacheProperties;
+import com.example.product.dto.PriceSnapshot;
+import com.example.product.dto.request.ProductQuantityCheckRequest;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.repository.ProductRepository;
+import com.example.product.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Load test for the virtual-threads profile: requests per second of {@link OrderService#createOrder}
+ * and {@link ProductService#checkQuantities} when far more requests arrive than Tomcat has
+ * threads, and every request spends most of its time blocked.
+ * <ul>
+ *     <li>{@code platform}: requests run on 200 pooled platform threads, Tomcat's default, and
+ *     the order service's remote checks on its 64-thread remote-call pool.</li>
+ *     <li>{@code virtual}: a virtual thread per request and per remote check, as with
+ *     {@code spring.threads.virtual.enabled}.</li>
+ * </ul>
+ * Feign calls and Redis round trips sleep {@code ioMillis}; database work sleeps
+ * {@code dbMillis} while holding one of {@code poolSize} connections, as HikariCP would lend
+ * them. With virtual threads the connection pool, not the thread count, becomes the limit
+ * once {@code REQUESTS * dbMillis / poolSize} exceeds the I/O time.
+ *
+ * <p>The virtual mode needs a Java 21 runtime. Add {@code -jvmArgsAppend -Djdk.tracePinnedThreads=short}
+ * to have the JVM report every virtual thread that blocks while pinned to its carrier.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+public class VirtualThreadThroughputBenchmark {
+
+    // Requests in flight per invocation, ten times Tomcat's thread pool
+    private static final int REQUESTS = 2_000;
+    private static final int TOMCAT_MAX_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"10"})
+    public int ioMillis;
+
+    @Param({"2"})
+    public int dbMillis;
+
+    @Param({"50"})
+    public int poolSize;
+
+    private Executor requestThreads;
+    private final List<ThreadPoolTaskExecutor> pools = new ArrayList<>();
+    private OrderService orderService;
+    private ProductService productService;
+    private CreateOrderRequest order;
+    private List<ProductQuantityCheckRequest> basket;
+
+    @Setup
+    public void setUp() {
+        Executor remoteCallExecutor;
+        AsyncConfig asyncConfig = new AsyncConfig();
+        if ("virtual".equals(threads)) {
+            SimpleAsyncTaskExecutor requests = new SimpleAsyncTaskExecutor("request-");
+            requests.setVirtualThreads(true);
+            requestThreads = requests;
+            remoteCallExecutor = asyncConfig.virtualRemoteCallExecutor();
+        } else {
+            ThreadPoolTaskExecutor requests = new ThreadPoolTaskExecutor();
+            requests.setCorePoolSize(TOMCAT_MAX_THREADS);
+            requests.setMaxPoolSize(TOMCAT_MAX_THREADS);
+            requests.setThreadNamePrefix("request-");
+            requests.initialize();
+            ThreadPoolTaskExecutor remoteCalls = asyncConfig.platformRemoteCallExecutor(new RemoteCallProperties());
+            remoteCalls.initialize();
+            pools.add(requests);
+            pools.add(remoteCalls);
+            requestThreads = requests;
+            remoteCallExecutor = remoteCalls;
+        }
+        orderService = orderService(remoteCallExecutor);
+        productService = productService();
+
+        List<CreateOrderItemRequest> lines = new ArrayList<>();
+        basket = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            lines.add(new CreateOrderItemRequest((long) i + 1, 1));
+            basket.add(new ProductQuantityCheckRequest((long) i + 1, 1));
+        }
+        order = new CreateOrderRequest(42L, lines);
+        // Loads prices and quantities into the caches that are meant to be warm
+        productService.checkQuantities(basket);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pools.forEach(ThreadPoolTaskExecutor::shutdown);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void createOrder() {
+        serve(() -> orderService.createOrder(order));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(REQUESTS)
+    public void checkQuantities() {
+        serve(() -> productService.checkQuantities(basket));
+    }
+
+    private void serve(Supplier<?> request) {
+        CompletableFuture<?>[] inFlight = new CompletableFuture<?>[REQUESTS];
+        for (int i = 0; i < REQUESTS; i++) {
+            inFlight[i] = CompletableFuture.supplyAsync(request, requestThreads);
+        }
+        CompletableFuture.allOf(inFlight).join();
+    }
+
+    private OrderService orderService(Executor remoteCallExecutor) {
+        Semaphore connections = new Semaphore(poolSize);
+        AtomicLong ids = new AtomicLong();
+        OrderRepository orderRepository = RepositoryStub.of(OrderRepository.class)
+                .on("save", args -> {
+                    Order saved = (Order) args[0];
+                    database(connections);
+                    saved.setId(ids.incrementAndGet());
+                    return saved;
+                })
+                .build();
+        OutboxEventRepository outboxRepository = RepositoryStub.of(OutboxEventRepository.class)
+                .on("save", args -> args[0])
+                .build();
+
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        OrderTopicsProperties topics = new OrderTopicsProperties();
+        topics.setCreated("ORDER_CREATED");
+        topics.setRejected("ORDER_REJECTED");
+        OrderEventPublisher eventPublisher = new OrderEventPublisher(outboxRepository, topics, new ObjectMapper(),
+                Tracer.NOOP, Propagator.NOOP);
+
+        ProductClient productClient = checks -> {
+            sleep(ioMillis);
+            return checks.stream()
+                    .map(c -> new ProductClient.AvailabilityResponse(c.productId(), true, 1_000, new BigDecimal("9.99"), 1L))
+                    .toList();
+        };
+        PaymentClient paymentClient = new PaymentClient() {
+            @Override
+            public AccountBalance balance(Long customerId) {
+                sleep(ioMillis);
+                return new AccountBalance(customerId, new BigDecimal("1000000"));
+            }
+
+            @Override
+            public List<AccountBalance> balances(Collection<Long> customerIds) {
+                sleep(ioMillis);
+                return customerIds.stream()
+                        .map(id -> new AccountBalance(id, new BigDecimal("1000000")))
+                        .toList();
+            }
+        };
+
+        // Measures threading alone: no batching, and dependency limits fixed at the burst size.
+        // Left adaptive they shrink as soon as the CPU queue shows up in response times.
+        AvailabilityBatchProperties batchProperties = new AvailabilityBatchProperties();
+        batchProperties.setEnabled(false);
+        ResilienceProperties resilience = new ResilienceProperties();
+        resilience.setInitialLimit(REQUESTS);
+        resilience.setMinLimit(REQUESTS);
+        resilience.setMaxLimit(REQUESTS);
+        RequestHedger hedger = new RequestHedger(new HedgingProperties(), remoteCallExecutor, meterRegistry);
+        DependencyGuard dependencyGuard = new DependencyGuard(resilience, meterRegistry);
+        return new OrderService(orderRepository,
+                new AvailabilityBatcher(productClient, hedger, dependencyGuard, batchProperties, meterRegistry),
+                paymentClient, hedger, dependencyGuard, eventPublisher, new TransactionTemplate(new NoOpTransactionManager()),
+                remoteCallExecutor, new OrderReadCache(new OrderReadCacheProperties(), meterRegistry), meterRegistry);
+    }
+
+    // Quantities come from Redis (near cache off) and prices from the in-process cache
+    private ProductService productService() {
+        Semaphore connections = new Semaphore(poolSize);
+        ProductRepository repository = RepositoryStub.of(ProductRepository.class)
+                .on("findQuantitiesByIds", args -> {
+                    @SuppressWarnings("unchecked")
+                    List<Long> ids = (List<Long>) args[0];
+                    database(connections);
+                    return ids.stream().map(id -> new ProductQuantityCheckRequest(id, 1_000)).toList();
+                })
+                .on("findPriceSnapshotsByIds", args -> {
+                    @SuppressWarnings("unchecked")
+                    Collection<Long> ids = (Collection<Long>) args[0];
+                    database(connections);
+                    return ids.stream().map(id -> new PriceSnapshot(id, 9.99, 1L)).toList();
+                })
+                .build();
+        ProductCacheProperties properties = new ProductCacheProperties();
+        properties.getNear().setEnabled(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryRedisTemplate redis = new InMemoryRedisTemplate(true, TimeUnit.MILLISECONDS.toNanos(ioMillis), true);
+        return new ProductService(repository, new ProductMapper(), new ProductQuantityCache(redis, properties, meterRegistry),
+                new ProductPriceCache(properties, meterRegistry), meterRegistry);
+    }
+
+    private void database(Semaphore connections) {
+        connections.acquireUninterruptibly();
+        try {
+            sleep(dbMillis);
+        } finally {
+            connections.release();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
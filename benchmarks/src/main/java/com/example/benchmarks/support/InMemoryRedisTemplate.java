@@ -0,0 +1,132 @@
+package com.example.benchmarks.support;
+
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Stand-in for the Redis-backed template used by {@code ProductQuantityCache}. Values live in
+ * a map and every round trip (a {@code multiGet}, a plain {@code set} or a whole pipeline)
+ * costs {@code roundTripNanos} of busy-waiting, so results show how a change moves the
+ * number of round trips rather than the speed of the loopback interface. A blocking template
+ * sleeps through the round trip instead, for benchmarks about the threads that wait on it.
+ */
+public class InMemoryRedisTemplate extends RedisTemplate<String, Integer> {
+
+    private final Map<String, Integer> store = new ConcurrentHashMap<>();
+    private final boolean retainWrites;
+    private final long roundTripNanos;
+    private final boolean blocking;
+    private final ValueOperations<String, Integer> valueOperations;
+    private final ValueOperations<String, Integer> pipelinedOperations;
+    private final PipelineView pipelineView = new PipelineView();
+    private final LongAdder roundTrips = new LongAdder();
+
+    /**
+     * @param retainWrites   {@code false} drops every write, so each lookup misses (cold cache)
+     * @param roundTripNanos simulated network round trip
+     */
+    public InMemoryRedisTemplate(boolean retainWrites, long roundTripNanos) {
+        this(retainWrites, roundTripNanos, false);
+    }
+
+    /**
+     * @param blocking {@code true} sleeps through each round trip rather than spinning
+     */
+    public InMemoryRedisTemplate(boolean retainWrites, long roundTripNanos, boolean blocking) {
+        this.retainWrites = retainWrites;
+        this.roundTripNanos = roundTripNanos;
+        this.blocking = blocking;
+        this.valueOperations = operations(true);
+        this.pipelinedOperations = operations(false);
+    }
+
+    @Override
+    public ValueOperations<String, Integer> opsForValue() {
+        return valueOperations;
+    }
+
+    @Override
+    public List<Object> executePipelined(SessionCallback<?> session) {
+        roundTrip();
+        session.execute(pipelineView);
+        return List.of();
+    }
+
+    /** Round trips paid so far; benchmarks report the difference per operation. */
+    public long roundTrips() {
+        return roundTrips.sum();
+    }
+
+    private void roundTrip() {
+        roundTrips.increment();
+        if (roundTripNanos > 0 && blocking) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(roundTripNanos);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (roundTripNanos > 0) {
+            long until = System.nanoTime() + roundTripNanos;
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    private void write(String key, Integer value) {
+        if (retainWrites) {
+            store.put(key, value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private ValueOperations<String, Integer> operations(boolean direct) {
+        return (ValueOperations<String, Integer>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ValueOperations.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "multiGet" -> {
+                            roundTrip();
+                            Collection<String> keys = (Collection<String>) args[0];
+                            List<Integer> values = new ArrayList<>(keys.size());
+                            for (String key : keys) {
+                                values.add(store.get(key));
+                            }
+                            return values;
+                        }
+                        case "get" -> {
+                            roundTrip();
+                            return store.get((String) args[0]);
+                        }
+                        case "set" -> {
+                            if (direct) {
+                                roundTrip();
+                            }
+                            write((String) args[0], (Integer) args[1]);
+                            return null;
+                        }
+                        case "getOperations" -> {
+                            return InMemoryRedisTemplate.this;
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /** Operations handed to a pipeline: writes are queued, the round trip is paid once. */
+    private class PipelineView extends RedisTemplate<String, Integer> {
+        @Override
+        public ValueOperations<String, Integer> opsForValue() {
+            return pipelinedOperations;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.benchmarks.support;
+
+import com.example.product.cache.ProductQuantityCache;
+import com.example.product.config.ProductCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The write-back {@code checkQuantities} did before it was pipelined: once anything missed,
+ * every entry of the basket, hits included, was written back with its own {@code SET} and
+ * so its own round trip. Reads are unchanged. Only meant for one benchmark thread.
+ */
+public class PerEntryWriteBackCache extends ProductQuantityCache {
+
+    private final RedisTemplate<String, Integer> redisTemplate;
+    private final Map<Long, Integer> hits = new HashMap<>();
+
+    public PerEntryWriteBackCache(RedisTemplate<String, Integer> redisTemplate,
+                                  ProductCacheProperties properties,
+                                  MeterRegistry meterRegistry) {
+        super(redisTemplate, properties, meterRegistry);
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public StockLevels getAll(Collection<Long> productIds) {
+        StockLevels found = super.getAll(productIds);
+        hits.clear();
+        hits.putAll(found.quantities());
+        return found;
+    }
+
+    @Override
+    public void putAll(Map<Long, Integer> quantities) {
+        Map<Long, Integer> all = new HashMap<>(hits);
+        all.putAll(quantities);
+        all.forEach((id, qty) -> redisTemplate.opsForValue().set(CACHE_PREFIX + id, qty,
+                (Objects.equals(qty, NOT_FOUND_SENTINEL) ? NEGATIVE_TTL : POSITIVE_TTL).toSeconds(), TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.benchmarks.support;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Builds an in-memory implementation of a Spring Data repository interface from the handful
+ * of methods a benchmark actually calls; any other call fails loudly.
+ */
+public final class RepositoryStub<T> {
+
+    private final Class<T> type;
+    private final Map<String, Function<Object[], Object>> handlers = new HashMap<>();
+
+    private RepositoryStub(Class<T> type) {
+        this.type = type;
+    }
+
+    public static <T> RepositoryStub<T> of(Class<T> type) {
+        return new RepositoryStub<>(type);
+    }
+
+    public RepositoryStub<T> on(String method, Function<Object[], Object> handler) {
+        handlers.put(method, handler);
+        return this;
+    }
+
+    public T build() {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> type.getSimpleName() + "Stub";
+                };
+            }
+            Function<Object[], Object> handler = handlers.get(method.getName());
+            if (handler == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+            }
+            return handler.apply(args);
+        }));
+    }
+}
@@ -3,11 +3,15 @@ package com.example.customer.controller;
 import com.example.customer.dto.request.CustomerCreateRequest;
 import com.example.customer.dto.request.CustomerUpdateRequest;
 import com.example.customer.dto.response.CustomerResponse;
+import com.example.customer.pagination.CursorPage;
 import com.example.customer.service.CustomerService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -34,6 +38,19 @@ public class CustomerController {
         return customerService.findAll(pageable);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<CustomerResponse>> scroll(@RequestParam(defaultValue = "20") @Min(1) @Max(1000) int size,
+                                                               @RequestParam(defaultValue = "id") String sort,
+                                                               @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                                               @RequestParam(required = false) String cursor,
+                                                               @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(customerService.scroll(size, sort, direction, cursor, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<CustomerResponse> findById(@PathVariable Long id) {
         Optional<CustomerResponse> customer = customerService.findById(id);
@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "customers")
+// Keyset pagination seeks on (sort column, id); see CustomerKeysetRepository
+@Table(name = "customers", indexes = {
+        @Index(name = "idx_customers_lastname_id", columnList = "lastname, id"),
+        @Index(name = "idx_customers_email_id", columnList = "email, id")
+})
 @Getter
 @Setter
 @Builder
@@ -16,7 +20,9 @@ public class Customer {
     private Long id;
 
     private String firstname;
+    @Column(nullable = false)
     private String lastname;
+    @Column(nullable = false)
     private String email;
 
     @OneToOne(cascade = CascadeType.ALL)
@@ -0,0 +1,67 @@
+package com.example.customer.mapper;
+
+import com.example.customer.dto.request.AddressCreateRequest;
+import com.example.customer.dto.request.CustomerCreateRequest;
+import com.example.customer.dto.request.CustomerUpdateRequest;
+import com.example.customer.dto.response.CustomerResponse;
+import com.example.customer.entity.Address;
+import com.example.customer.entity.Customer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plain field-by-field mapping between customer requests, the entities and the response.
+ * Read endpoints use the repository projections instead and never load the entities.
+ */
+@Component
+public class CustomerMapper {
+
+    public Customer toEntity(CustomerCreateRequest request) {
+        return Customer.builder()
+                .firstname(request.firstname())
+                .lastname(request.lastname())
+                .email(request.email())
+                .address(toEntity(request.address()))
+                .build();
+    }
+
+    public void updateEntity(CustomerUpdateRequest request, Customer customer) {
+        customer.setFirstname(request.firstname());
+        customer.setLastname(request.lastname());
+        customer.setEmail(request.email());
+        if (request.address() == null) {
+            return;
+        }
+        Address address = customer.getAddress();
+        if (address == null) {
+            address = new Address();
+            customer.setAddress(address);
+        }
+        address.setStreet(request.address().street());
+        address.setHouseNumber(request.address().houseNumber());
+        address.setZipCode(request.address().zipCode());
+    }
+
+    public CustomerResponse toResponse(Customer customer) {
+        return new CustomerResponse(customer.getId(), customer.getFirstname(), customer.getLastname(),
+                customer.getEmail(), formatAddress(customer.getAddress()));
+    }
+
+    // Same format as the CONCAT in ICustomerRepository's projections
+    private static String formatAddress(Address address) {
+        if (address == null) {
+            return null;
+        }
+        return address.getHouseNumber() + ", " + address.getStreet() + ", " + address.getZipCode();
+    }
+
+    private static Address toEntity(AddressCreateRequest request) {
+        if (request == null) {
+            return null;
+        }
+        return Address.builder()
+                .street(request.street())
+                .houseNumber(request.houseNumber())
+                .zipCode(request.zipCode())
+                .build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.customer.pagination;
+
+import java.util.List;
+
+/**
+ * One page of a keyset scroll. {@code nextCursor} is {@code null} on the last page and
+ * {@code totalElements} is only filled when the caller asked for it.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        String nextCursor,
+        Long totalElements
+) {}
@@ -0,0 +1,43 @@
+package com.example.customer.pagination;
+
+import com.example.customer.dto.response.CustomerResponse;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/** Columns customers can be scrolled by; every key is backed by a {@code (column, id)} index. */
+public enum CustomerSortKey {
+    ID("id", CustomerResponse::id, Long::valueOf),
+    LASTNAME("lastname", CustomerResponse::lastname, value -> value),
+    EMAIL("email", CustomerResponse::email, value -> value);
+
+    private final String attribute;
+    private final Function<CustomerResponse, Object> extractor;
+    private final Function<String, Comparable<?>> parser;
+
+    CustomerSortKey(String attribute, Function<CustomerResponse, Object> extractor, Function<String, Comparable<?>> parser) {
+        this.attribute = attribute;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public String valueOf(CustomerResponse customer) {
+        return String.valueOf(extractor.apply(customer));
+    }
+
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static CustomerSortKey from(String sort) {
+        try {
+            return valueOf(sort.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort key: " + sort, e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.customer.pagination;
+
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position after the last row of a page: the sort it was read with, that row's sort value
+ * and its id (the tie-breaker). Handed to clients as an opaque URL-safe token; a cursor
+ * carries its own sort so follow-up requests cannot mix orderings.
+ */
+public record KeysetCursor(String sort, Sort.Direction direction, String value, long id) {
+
+    private static final String SEPARATOR = "\n";
+
+    public String encode() {
+        String raw = sort + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new KeysetCursor(parts[0], Sort.Direction.valueOf(parts[1]), parts[3], Long.parseLong(parts[2]));
+        } catch (IllegalArgumentException e) {
+            // Also covers bad Base64, unknown directions and non-numeric ids
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
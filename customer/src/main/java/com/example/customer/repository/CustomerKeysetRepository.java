@@ -0,0 +1,19 @@
+package com.example.customer.repository;
+
+import com.example.customer.dto.response.CustomerResponse;
+import com.example.customer.pagination.CustomerSortKey;
+import com.example.customer.pagination.KeysetCursor;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface CustomerKeysetRepository {
+
+    /**
+     * Reads up to {@code limit} customers ordered by {@code (sortKey, id)} that come strictly
+     * after {@code after}, or from the start when it is {@code null}. No offset and no count:
+     * the cost of a page does not depend on how deep into the listing it is.
+     */
+    List<CustomerResponse> findCustomerResponsesAfter(CustomerSortKey sortKey, Sort.Direction direction,
+                                                      KeysetCursor after, int limit);
+}
@@ -0,0 +1,62 @@
+package com.example.customer.repository;
+
+import com.example.customer.dto.response.CustomerResponse;
+import com.example.customer.entity.Address;
+import com.example.customer.entity.Customer;
+import com.example.customer.pagination.CustomerSortKey;
+import com.example.customer.pagination.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+class CustomerKeysetRepositoryImpl implements CustomerKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<CustomerResponse> findCustomerResponsesAfter(CustomerSortKey sortKey, Sort.Direction direction,
+                                                             KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CustomerResponse> query = cb.createQuery(CustomerResponse.class);
+        Root<Customer> customer = query.from(Customer.class);
+        Join<Customer, Address> address = customer.join("address");
+        // Same shape as the JPQL projections in ICustomerRepository
+        query.select(cb.construct(CustomerResponse.class,
+                customer.get("id"), customer.get("firstname"), customer.get("lastname"), customer.get("email"),
+                cb.concat(cb.concat(cb.concat(cb.concat(address.<String>get("houseNumber"), ", "),
+                        address.<String>get("street")), ", "), address.<String>get("zipCode"))));
+
+        boolean descending = direction.isDescending();
+        Path<Long> id = customer.get("id");
+        Path<Comparable> key = customer.get(sortKey.attribute());
+
+        if (after != null) {
+            Predicate idAfter = descending ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id());
+            if (sortKey == CustomerSortKey.ID) {
+                query.where(idAfter);
+            } else {
+                Comparable value = sortKey.parse(after.value());
+                // (key, id) > (value, lastId), with a plain range on key in front so the
+                // (key, id) index is entered at the cursor instead of scanned from the start
+                query.where(
+                        descending ? cb.lessThanOrEqualTo(key, value) : cb.greaterThanOrEqualTo(key, value),
+                        cb.or(descending ? cb.lessThan(key, value) : cb.greaterThan(key, value),
+                                cb.and(cb.equal(key, value), idAfter)));
+            }
+        }
+        if (sortKey == CustomerSortKey.ID) {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            query.orderBy(descending ? cb.desc(key) : cb.asc(key), descending ? cb.desc(id) : cb.asc(id));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -10,12 +10,16 @@ import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
-public interface ICustomerRepository extends JpaRepository<Customer, Long> {
+public interface ICustomerRepository extends JpaRepository<Customer, Long>, CustomerKeysetRepository {
     @Query("SELECT NEW com.example.customer.dto.response.CustomerResponse(c.id, c.firstname, c.lastname, c.email, CONCAT(a.houseNumber, ', ', a.street, ', ', a.zipCode)) " +
             "FROM Customer c JOIN c.address a WHERE c.id = :id")
     Optional<CustomerResponse> findCustomerResponseById(@Param("id") Long id);
 
-    @Query("SELECT NEW com.example.customer.dto.response.CustomerResponse(c.id, c.firstname, c.lastname, c.email, CONCAT(a.houseNumber, ', ', a.street, ', ', a.zipCode)) " +
-            "FROM Customer c JOIN c.address a")
+    @Query(value = "SELECT NEW com.example.customer.dto.response.CustomerResponse(c.id, c.firstname, c.lastname, c.email, CONCAT(a.houseNumber, ', ', a.street, ', ', a.zipCode)) " +
+            "FROM Customer c JOIN c.address a",
+            // Same rows as the inner join above, counted from the foreign key alone
+            countQuery = "SELECT COUNT(c) FROM Customer c WHERE c.address IS NOT NULL")
     Page<CustomerResponse> findAllCustomerResponse(Pageable pageable);
+
+    long countByAddressIsNotNull();
 }
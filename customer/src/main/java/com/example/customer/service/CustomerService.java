@@ -3,32 +3,33 @@ package com.example.customer.service;
 import com.example.customer.dto.request.CustomerCreateRequest;
 import com.example.customer.dto.request.CustomerUpdateRequest;
 import com.example.customer.dto.response.CustomerResponse;
-import com.example.customer.entity.Address;
 import com.example.customer.entity.Customer;
+import com.example.customer.mapper.CustomerMapper;
+import com.example.customer.pagination.CursorPage;
+import com.example.customer.pagination.CustomerSortKey;
+import com.example.customer.pagination.KeysetCursor;
 import com.example.customer.repository.ICustomerRepository;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class CustomerService implements ICustomerService{
     private final ICustomerRepository customerRepository;
-    private final ModelMapper modelMapper;
+    private final CustomerMapper customerMapper;
     @Override
     public CustomerResponse create(CustomerCreateRequest request) {
-        Customer customer = modelMapper.map(request, Customer.class);
-        Address address = modelMapper.map(request.address(), Address.class);
-
-        customer.setAddress(address);
+        Customer customer = customerMapper.toEntity(request);
 
         Customer savedCustomer = customerRepository.save(customer);
 
-        return modelMapper.map(savedCustomer, CustomerResponse.class);
+        return customerMapper.toResponse(savedCustomer);
     }
 
     @Override
@@ -36,6 +37,27 @@ public class CustomerService implements ICustomerService{
         return customerRepository.findAllCustomerResponse(pageable);
     }
 
+    @Override
+    public CursorPage<CustomerResponse> scroll(int size, String sort, Sort.Direction direction, String cursor, boolean includeTotal) {
+        // A cursor pins the sort it was issued for
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        CustomerSortKey sortKey = CustomerSortKey.from(after == null ? sort : after.sort());
+        Sort.Direction order = after == null ? direction : after.direction();
+
+        // One extra row tells whether there is a next page without counting
+        List<CustomerResponse> rows = customerRepository.findCustomerResponsesAfter(sortKey, order, after, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<CustomerResponse> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            CustomerResponse last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(sortKey.name(), order, sortKey.valueOf(last), last.id()).encode();
+        }
+        Long total = includeTotal ? customerRepository.countByAddressIsNotNull() : null;
+        return new CursorPage<>(List.copyOf(content), size, nextCursor, total);
+    }
+
     @Override
     public Optional<CustomerResponse> findById(Long id) {
         return customerRepository.findCustomerResponseById(id);
@@ -46,12 +68,11 @@ public class CustomerService implements ICustomerService{
         Customer existingCustomer = customerRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Customer not found with id " + id));
 
-        modelMapper.map(request, existingCustomer);
-        modelMapper.map(request.address(), existingCustomer.getAddress());
+        customerMapper.updateEntity(request, existingCustomer);
 
         Customer updatedCustomer = customerRepository.save(existingCustomer);
 
-        return modelMapper.map(updatedCustomer, CustomerResponse.class);
+        return customerMapper.toResponse(updatedCustomer);
     }
 
     @Override
@@ -5,8 +5,10 @@ import com.example.customer.dto.request.CustomerCreateRequest;
 import com.example.customer.dto.request.CustomerUpdateRequest;
 import com.example.customer.dto.response.CustomerResponse;
 import com.example.customer.entity.Customer;
+import com.example.customer.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,7 @@ import java.util.Optional;
 public interface ICustomerService {
     CustomerResponse create(CustomerCreateRequest request);
     Page<CustomerResponse> findAll(Pageable pageable);
+    CursorPage<CustomerResponse> scroll(int size, String sort, Sort.Direction direction, String cursor, boolean includeTotal);
     Optional<CustomerResponse> findById(Long id);
     CustomerResponse update(Long id, CustomerUpdateRequest request);
     void deleteById(Long id);
@@ -7,22 +7,31 @@ import com.example.customer.dto.request.CustomerUpdateRequest;
 import com.example.customer.dto.response.CustomerResponse;
 import com.example.customer.entity.Address;
 import com.example.customer.entity.Customer;
+import com.example.customer.mapper.CustomerMapper;
+import com.example.customer.pagination.CursorPage;
+import com.example.customer.pagination.CustomerSortKey;
+import com.example.customer.pagination.KeysetCursor;
 import com.example.customer.repository.ICustomerRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class CustomerServiceTest {
@@ -33,8 +42,8 @@ class CustomerServiceTest {
     @Mock
     private ICustomerRepository customerRepository;
 
-    @Mock
-    private ModelMapper modelMapper;
+    @Spy
+    private CustomerMapper customerMapper = new CustomerMapper();
 
     @BeforeEach
     void setUp() {
@@ -43,21 +52,20 @@ class CustomerServiceTest {
 
     @Test
     void create_shouldCreateCustomer() {
-        AddressCreateRequest addressCreateRequest = new AddressCreateRequest("123 Main St", "Anytown", "12345");
+        AddressCreateRequest addressCreateRequest = new AddressCreateRequest("Main St", "123", "12345");
         CustomerCreateRequest request = new CustomerCreateRequest("John", "Doe", "john.doe@example.com", addressCreateRequest);
-        Customer customer = new Customer();
-        Address address = new Address();
-        CustomerResponse customerResponse = new CustomerResponse(1L, "John", "Doe", "john.doe@example.com", "123 Main St, Anytown, 12345");
+        CustomerResponse customerResponse = new CustomerResponse(1L, "John", "Doe", "john.doe@example.com", "123, Main St, 12345");
 
-        when(modelMapper.map(request, Customer.class)).thenReturn(customer);
-        when(modelMapper.map(request.address(), Address.class)).thenReturn(address);
-        when(customerRepository.save(customer)).thenReturn(customer);
-        when(modelMapper.map(customer, CustomerResponse.class)).thenReturn(customerResponse);
+        when(customerRepository.save(any(Customer.class))).thenAnswer(inv -> {
+            Customer customer = inv.getArgument(0);
+            customer.setId(1L);
+            return customer;
+        });
 
         CustomerResponse result = customerService.create(request);
 
         assertEquals(customerResponse, result);
-        verify(customerRepository).save(customer);
+        verify(customerRepository).save(any(Customer.class));
     }
 
     @Test
@@ -72,6 +80,27 @@ class CustomerServiceTest {
         assertEquals(page, result);
     }
 
+    @Test
+    void scroll_shouldReturnNextCursorWithoutCounting() {
+        when(customerRepository.findCustomerResponsesAfter(eq(CustomerSortKey.LASTNAME), eq(Sort.Direction.ASC), isNull(), eq(2)))
+                .thenReturn(List.of(
+                        new CustomerResponse(3L, "John", "Doe", "john.doe@example.com", "123, Main St, 12345"),
+                        new CustomerResponse(1L, "Jane", "Roe", "jane.roe@example.com", "456, Oak Ave, 67890")));
+
+        CursorPage<CustomerResponse> result = customerService.scroll(1, "lastname", Sort.Direction.ASC, null, false);
+
+        assertEquals(1, result.content().size());
+        assertNull(result.totalElements());
+        assertEquals(new KeysetCursor("LASTNAME", Sort.Direction.ASC, "Doe", 3L), KeysetCursor.decode(result.nextCursor()));
+        verify(customerRepository, never()).countByAddressIsNotNull();
+    }
+
+    @Test
+    void scroll_shouldRejectUnknownSortKey() {
+        assertThrows(IllegalArgumentException.class,
+                () -> customerService.scroll(10, "address", Sort.Direction.ASC, null, false));
+    }
+
     @Test
     void findById_shouldReturnCustomerResponseWhenFound() {
         Long id = 1L;
@@ -97,21 +126,23 @@ class CustomerServiceTest {
     @Test
     void update_shouldUpdateCustomerWhenFound() {
         Long id = 1L;
-        AddressUpdateRequest addressUpdateRequest = new AddressUpdateRequest("456 Oak Ave", "Othertown", "67890");
+        AddressUpdateRequest addressUpdateRequest = new AddressUpdateRequest("Oak Ave", "456", "67890");
         CustomerUpdateRequest request = new CustomerUpdateRequest("Jane", "Doe", "jane.doe@example.com", addressUpdateRequest);
+        Address existingAddress = new Address();
         Customer existingCustomer = new Customer();
-        existingCustomer.setAddress(new Address());
-        CustomerResponse customerResponse = new CustomerResponse(1L, "Jane", "Doe", "jane.doe@example.com", "456 Oak Ave, Othertown, 67890");
+        existingCustomer.setId(id);
+        existingCustomer.setAddress(existingAddress);
+        CustomerResponse customerResponse = new CustomerResponse(1L, "Jane", "Doe", "jane.doe@example.com", "456, Oak Ave, 67890");
 
         when(customerRepository.findById(id)).thenReturn(Optional.of(existingCustomer));
         when(customerRepository.save(existingCustomer)).thenReturn(existingCustomer);
-        when(modelMapper.map(existingCustomer, CustomerResponse.class)).thenReturn(customerResponse);
 
         CustomerResponse result = customerService.update(id, request);
 
         assertEquals(customerResponse, result);
-        verify(modelMapper).map(request, existingCustomer);
-        verify(modelMapper).map(request.address(), existingCustomer.getAddress());
+        // The existing address row is updated in place rather than replaced
+        assertSame(existingAddress, existingCustomer.getAddress());
+        assertEquals("Oak Ave", existingAddress.getStreet());
         verify(customerRepository).save(existingCustomer);
     }
 
@@ -0,0 +1,29 @@
+package com.example.notification.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Applies to each sender lane separately
+@Component
+@ConfigurationProperties(prefix = "notification.dispatch")
+public class NotificationDispatchProperties {
+    private int workers = 4;
+    // Batches waiting for a worker; when full the listener thread sends itself, slowing consumption
+    private int queueCapacity = 100;
+    private double permitsPerSecond = 200;
+    private int batchSize = 50;
+    private Duration sendTimeout = Duration.ofSeconds(60);
+
+    public int getWorkers() { return workers; }
+    public void setWorkers(int workers) { this.workers = workers; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public void setQueueCapacity(int queueCapacity) { this.queueCapacity = queueCapacity; }
+    public double getPermitsPerSecond() { return permitsPerSecond; }
+    public void setPermitsPerSecond(double permitsPerSecond) { this.permitsPerSecond = permitsPerSecond; }
+    public int getBatchSize() { return batchSize; }
+    public void setBatchSize(int batchSize) { this.batchSize = batchSize; }
+    public Duration getSendTimeout() { return sendTimeout; }
+    public void setSendTimeout(Duration sendTimeout) { this.sendTimeout = sendTimeout; }
+}
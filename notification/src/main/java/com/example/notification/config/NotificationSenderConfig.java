@@ -0,0 +1,40 @@
+package com.example.notification.config;
+
+import com.example.notification.sender.FileNotificationSender;
+import com.example.notification.sender.InMemoryNotificationSender;
+import com.example.notification.sender.LoggingNotificationSender;
+import com.example.notification.sender.NotificationSender;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+
+/**
+ * Built-in senders, chosen with {@code notification.sender.type}. Provider integrations are
+ * further {@link NotificationSender} beans and get a dispatch lane of their own.
+ */
+@Configuration
+public class NotificationSenderConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "notification.sender.type", havingValue = "log", matchIfMissing = true)
+    public NotificationSender loggingNotificationSender() {
+        return new LoggingNotificationSender();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "notification.sender.type", havingValue = "file")
+    public NotificationSender fileNotificationSender(@Value("${notification.sender.file-path:notifications.ndjson}") Path path,
+                                                     ObjectMapper objectMapper) {
+        return new FileNotificationSender(path, objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "notification.sender.type", havingValue = "memory")
+    public InMemoryNotificationSender inMemoryNotificationSender(@Value("${notification.sender.memory-capacity:10000}") int capacity) {
+        return new InMemoryNotificationSender(capacity);
+    }
+}
@@ -1,42 +1,55 @@
 package com.example.notification.consumer;
 
-import com.example.notification.events.OrderEvents.OrderCreatedEvent;
-import com.example.notification.events.OrderEvents.OrderRejectedEvent;
-import com.example.notification.events.OrderEvents.PaymentCompletedEvent;
-import com.example.notification.events.OrderEvents.PaymentFailedEvent;
-import com.example.notification.config.NotificationTopicsProperties;
-import lombok.RequiredArgsConstructor;
+import com.example.notification.dispatch.NotificationDispatcher;
+import com.example.notification.model.Notification;
+import com.example.notification.service.NotificationAggregator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class NotificationConsumers {
 
-    private final NotificationTopicsProperties topics;
-
-    @KafkaListener(topics = "#{@notificationTopicsProperties.created}")
-    public void onOrderCreated(@Payload OrderCreatedEvent event) {
-        log.info("Notify ORDER_CREATED: orderId={}, customerId={}, items={}", event.orderId(), event.customerId(), event.items());
-    }
-
-    @KafkaListener(topics = "#{@notificationTopicsProperties.rejected}")
-    public void onOrderRejected(@Payload OrderRejectedEvent event) {
-        log.info("Notify ORDER_REJECTED: orderId={}, customerId={}, reason={}, items={}", event.orderId(), event.customerId(), event.reason(), event.items());
+    private final NotificationAggregator aggregator;
+    private final NotificationDispatcher dispatcher;
+    private final Counter received;
+    private final Counter coalesced;
+
+    public NotificationConsumers(NotificationAggregator aggregator,
+                                 NotificationDispatcher dispatcher,
+                                 MeterRegistry meterRegistry) {
+        this.aggregator = aggregator;
+        this.dispatcher = dispatcher;
+        this.received = Counter.builder("notification.events.received").register(meterRegistry);
+        this.coalesced = Counter.builder("notification.events.coalesced").register(meterRegistry);
     }
 
-    @KafkaListener(topics = "#{@notificationTopicsProperties.paymentCompleted}")
-    public void onPaymentCompleted(@Payload PaymentCompletedEvent event) {
-        log.info("Notify PAYMENT_COMPLETED: orderId={}, customerId={}", event.orderId(), event.customerId());
-    }
-
-    @KafkaListener(topics = "#{@notificationTopicsProperties.paymentFailed}")
-    public void onPaymentFailed(@Payload PaymentFailedEvent event) {
-        log.info("Notify PAYMENT_FAILED: orderId={}, customerId={}, reason={}", event.orderId(), event.customerId(), event.reason());
+    // One listener for all four topics so events of the same order meet in one batch.
+    // Offsets are committed after dispatch returns; a failed dispatch redelivers the batch.
+    @KafkaListener(topics = {
+            "#{@notificationTopicsProperties.created}",
+            "#{@notificationTopicsProperties.rejected}",
+            "#{@notificationTopicsProperties.paymentCompleted}",
+            "#{@notificationTopicsProperties.paymentFailed}"
+    }, batch = "true")
+    public void onOrderEvents(List<ConsumerRecord<String, Object>> records) {
+        List<Object> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() != null) {
+                events.add(record.value());
+            }
+        }
+        List<Notification> notifications = aggregator.coalesce(events);
+        received.increment(records.size());
+        coalesced.increment(records.size() - notifications.size());
+        dispatcher.dispatch(notifications);
+        log.debug("Dispatched {} notifications for {} events", notifications.size(), records.size());
     }
 }
-
-
@@ -0,0 +1,135 @@
+package com.example.notification.dispatch;
+
+import com.example.notification.config.NotificationDispatchProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.sender.NotificationSender;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands notifications to every {@link NotificationSender}. Each sender has its own lane: a
+ * fixed pool of workers behind a bounded queue, rate limited per message. When the queue is
+ * full the submitting thread sends the batch itself, which slows the Kafka listener down
+ * instead of buffering without bound.
+ */
+@Component
+@Slf4j
+public class NotificationDispatcher implements DisposableBean {
+
+    private final List<Lane> lanes;
+    private final NotificationDispatchProperties properties;
+
+    public NotificationDispatcher(List<NotificationSender> senders,
+                                  NotificationDispatchProperties properties,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.lanes = senders.stream().map(sender -> new Lane(sender, properties, meterRegistry)).toList();
+    }
+
+    /**
+     * Sends the notifications in batches through all lanes and waits until every batch is
+     * done. Throws if any batch failed or did not finish within the send timeout, so the
+     * caller can leave its offsets uncommitted; delivery is therefore at least once.
+     */
+    public void dispatch(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        List<CompletableFuture<Void>> sends = new ArrayList<>();
+        for (int from = 0; from < notifications.size(); from += properties.getBatchSize()) {
+            List<Notification> batch = notifications.subList(from, Math.min(from + properties.getBatchSize(), notifications.size()));
+            for (Lane lane : lanes) {
+                sends.add(lane.submit(batch));
+            }
+        }
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while dispatching notifications", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Could not dispatch " + notifications.size() + " notifications", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        lanes.forEach(Lane::shutdown);
+    }
+
+    private static final class Lane {
+
+        private final NotificationSender sender;
+        private final ThreadPoolExecutor executor;
+        private final RateLimiter rateLimiter;
+        private final AtomicInteger backlog = new AtomicInteger();
+        private final Counter sent;
+        private final Counter failed;
+        private final Timer sendTimer;
+
+        Lane(NotificationSender sender, NotificationDispatchProperties properties, MeterRegistry meterRegistry) {
+            this.sender = sender;
+            this.executor = new ThreadPoolExecutor(properties.getWorkers(), properties.getWorkers(),
+                    0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+                    new CustomizableThreadFactory("notify-" + sender.channel() + "-"),
+                    new ThreadPoolExecutor.CallerRunsPolicy());
+            this.rateLimiter = new RateLimiter(properties.getPermitsPerSecond());
+            String channel = sender.channel();
+            this.sent = Counter.builder("notification.sent").tag("channel", channel).tag("result", "success").register(meterRegistry);
+            this.failed = Counter.builder("notification.sent").tag("channel", channel).tag("result", "failure").register(meterRegistry);
+            this.sendTimer = Timer.builder("notification.send").tag("channel", channel).register(meterRegistry);
+            // Messages accepted by the lane but not yet sent
+            Gauge.builder("notification.backlog", backlog, AtomicInteger::get).tag("channel", channel).register(meterRegistry);
+        }
+
+        CompletableFuture<Void> submit(List<Notification> batch) {
+            backlog.addAndGet(batch.size());
+            CompletableFuture<Void> result = new CompletableFuture<>();
+            try {
+                executor.execute(() -> send(batch, result));
+            } catch (RejectedExecutionException e) {
+                backlog.addAndGet(-batch.size());
+                result.completeExceptionally(e);
+            }
+            return result;
+        }
+
+        private void send(List<Notification> batch, CompletableFuture<Void> result) {
+            try {
+                rateLimiter.acquire(batch.size());
+                sendTimer.recordCallable(() -> {
+                    sender.send(batch);
+                    return null;
+                });
+                sent.increment(batch.size());
+                result.complete(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failed.increment(batch.size());
+                result.completeExceptionally(e);
+            } catch (Exception e) {
+                failed.increment(batch.size());
+                log.warn("Sender {} failed a batch of {}", sender.channel(), batch.size(), e);
+                result.completeExceptionally(e);
+            } finally {
+                backlog.addAndGet(-batch.size());
+            }
+        }
+
+        void shutdown() {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.notification.dispatch;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces sends evenly at a fixed rate. Each call reserves the next free slots and sleeps
+ * until its reservation starts, so concurrent workers share one rate without a lock held
+ * while sleeping. Unused capacity is not saved up, so there are no bursts after idle time.
+ */
+final class RateLimiter {
+
+    private final long intervalNanos;
+    private long nextFreeNanos;
+
+    RateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("permitsPerSecond must be positive");
+        }
+        this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    void acquire(int permits) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(nextFreeNanos, now);
+            nextFreeNanos = start + permits * intervalNanos;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,347 @@
+package com.example.notification.events.codec;
+
+import com.example.notification.events.OrderEvents.OrderCreatedEvent;
+import com.example.notification.events.OrderEvents.OrderItemEvent;
+import com.example.notification.events.OrderEvents.OrderRejectedEvent;
+import com.example.notification.events.OrderEvents.PaymentCompletedEvent;
+import com.example.notification.events.OrderEvents.PaymentFailedEvent;
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary wire format of the order events. The order, payment and notification services
+ * each carry an identical copy; change all three together.
+ *
+ * <pre>
+ * event    = format:u8 type:varint record
+ * record   = presence:varint field*      bit i of presence set = field i follows
+ * long/int = zigzag varint
+ * string   = length:varint utf8-bytes
+ * decimal  = scale:zigzag-varint length:varint unscaled-value-bytes   big-endian two's complement
+ * items    = count:varint (length:varint record)*   length 0 = null item
+ * </pre>
+ *
+ * Fields are written in declaration order and absent fields take no space. Evolution rules:
+ * fields may only be appended, never removed, reordered or retyped; readers ignore trailing
+ * fields they do not know (items are length-prefixed for this) and leave fields missing from
+ * older messages null. A new event type gets a new type number; numbers are never reused.
+ */
+public final class OrderEventCodec {
+
+    public static final byte FORMAT = 1;
+
+    static final int ORDER_CREATED = 1;
+    static final int ORDER_REJECTED = 2;
+    static final int PAYMENT_COMPLETED = 3;
+    static final int PAYMENT_FAILED = 4;
+
+    private OrderEventCodec() {
+    }
+
+    public static void write(Object event, Writer out) {
+        out.writeByte(FORMAT);
+        if (event instanceof OrderCreatedEvent e) {
+            out.writeVarLong(ORDER_CREATED);
+            out.writePresence(e.orderId(), e.customerId(), e.items(), e.amount());
+            out.writeLong(e.orderId());
+            out.writeLong(e.customerId());
+            writeItems(e.items(), out);
+            out.writeDecimal(e.amount());
+        } else if (event instanceof OrderRejectedEvent e) {
+            out.writeVarLong(ORDER_REJECTED);
+            out.writePresence(e.orderId(), e.customerId(), e.reason(), e.items());
+            out.writeLong(e.orderId());
+            out.writeLong(e.customerId());
+            out.writeString(e.reason());
+            writeItems(e.items(), out);
+        } else if (event instanceof PaymentCompletedEvent e) {
+            out.writeVarLong(PAYMENT_COMPLETED);
+            out.writePresence(e.orderId(), e.customerId());
+            out.writeLong(e.orderId());
+            out.writeLong(e.customerId());
+        } else if (event instanceof PaymentFailedEvent e) {
+            out.writeVarLong(PAYMENT_FAILED);
+            out.writePresence(e.orderId(), e.customerId(), e.reason());
+            out.writeLong(e.orderId());
+            out.writeLong(e.customerId());
+            out.writeString(e.reason());
+        } else {
+            throw new SerializationException("No binary encoding for " + (event == null ? null : event.getClass().getName()));
+        }
+    }
+
+    public static Object read(Reader in) {
+        byte format = in.readByte();
+        if (format != FORMAT) {
+            throw new SerializationException("Unknown event format " + format);
+        }
+        int type = (int) in.readVarLong();
+        long presence = in.readVarLong();
+        switch (type) {
+            case ORDER_CREATED:
+                return new OrderCreatedEvent(in.readLong(presence, 0), in.readLong(presence, 1), readItems(presence, 2, in),
+                        in.readDecimal(presence, 3));
+            case ORDER_REJECTED:
+                return new OrderRejectedEvent(in.readLong(presence, 0), in.readLong(presence, 1),
+                        in.readString(presence, 2), readItems(presence, 3, in));
+            case PAYMENT_COMPLETED:
+                return new PaymentCompletedEvent(in.readLong(presence, 0), in.readLong(presence, 1));
+            case PAYMENT_FAILED:
+                return new PaymentFailedEvent(in.readLong(presence, 0), in.readLong(presence, 1), in.readString(presence, 2));
+            default:
+                throw new SerializationException("Unknown event type " + type);
+        }
+    }
+
+    private static void writeItems(List<OrderItemEvent> items, Writer out) {
+        if (items == null) {
+            return;
+        }
+        out.writeVarLong(items.size());
+        for (OrderItemEvent item : items) {
+            if (item == null) {
+                out.writeVarLong(0);
+                continue;
+            }
+            int start = out.beginLengthPrefixed();
+            out.writePresence(item.productId(), item.quantity());
+            out.writeLong(item.productId());
+            out.writeInt(item.quantity());
+            out.endLengthPrefixed(start);
+        }
+    }
+
+    private static List<OrderItemEvent> readItems(long presence, int field, Reader in) {
+        if ((presence & (1L << field)) == 0) {
+            return null;
+        }
+        int count = (int) in.readVarLong();
+        List<OrderItemEvent> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int length = (int) in.readVarLong();
+            if (length == 0) {
+                items.add(null);
+                continue;
+            }
+            int end = in.pushLimit(length);
+            long itemPresence = in.readVarLong();
+            items.add(new OrderItemEvent(in.readLong(itemPresence, 0), in.readInt(itemPresence, 1)));
+            in.popLimit(end);
+        }
+        return items;
+    }
+
+    /** Growable output buffer, meant to be reset and reused for every message. */
+    public static final class Writer {
+
+        private byte[] buf;
+        private int pos;
+
+        public Writer(int initialCapacity) {
+            this.buf = new byte[initialCapacity];
+        }
+
+        public void reset() {
+            pos = 0;
+        }
+
+        public int size() {
+            return pos;
+        }
+
+        public int capacity() {
+            return buf.length;
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buf, pos);
+        }
+
+        void writeByte(byte b) {
+            ensure(1);
+            buf[pos++] = b;
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buf[pos++] = (byte) value;
+        }
+
+        void writePresence(Object... fields) {
+            long presence = 0;
+            for (int i = 0; i < fields.length; i++) {
+                if (fields[i] != null) {
+                    presence |= 1L << i;
+                }
+            }
+            writeVarLong(presence);
+        }
+
+        // Nulls were recorded in the presence bits and are skipped here
+        void writeLong(Long value) {
+            if (value != null) {
+                writeVarLong((value << 1) ^ (value >> 63));
+            }
+        }
+
+        void writeInt(Integer value) {
+            if (value != null) {
+                writeLong(value.longValue());
+            }
+        }
+
+        void writeString(String value) {
+            if (value != null) {
+                writeBytes(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        void writeDecimal(BigDecimal value) {
+            if (value != null) {
+                writeLong((long) value.scale());
+                writeBytes(value.unscaledValue().toByteArray());
+            }
+        }
+
+        private void writeBytes(byte[] bytes) {
+            writeVarLong(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, pos, bytes.length);
+            pos += bytes.length;
+        }
+
+        // Reserves one byte for the length; endLengthPrefixed widens it if the body needs more
+        int beginLengthPrefixed() {
+            ensure(1);
+            return pos++;
+        }
+
+        void endLengthPrefixed(int start) {
+            int length = pos - start - 1;
+            int extra = varLongSize(length) - 1;
+            if (extra > 0) {
+                ensure(extra);
+                System.arraycopy(buf, start + 1, buf, start + 1 + extra, length);
+                pos += extra;
+            }
+            int end = pos;
+            pos = start;
+            writeVarLong(length);
+            pos = end;
+        }
+
+        private static int varLongSize(long value) {
+            int size = 1;
+            while ((value & ~0x7FL) != 0) {
+                value >>>= 7;
+                size++;
+            }
+            return size;
+        }
+
+        private void ensure(int bytes) {
+            if (pos + bytes > buf.length) {
+                buf = Arrays.copyOf(buf, Math.max(buf.length * 2, pos + bytes));
+            }
+        }
+    }
+
+    /** Reads one message in place, without copying it. */
+    public static final class Reader {
+
+        private final byte[] buf;
+        private int pos;
+        private int limit;
+
+        public Reader(byte[] buf, int offset, int length) {
+            this.buf = buf;
+            this.pos = offset;
+            this.limit = offset + length;
+        }
+
+        byte readByte() {
+            if (pos >= limit) {
+                throw new SerializationException("Truncated event");
+            }
+            return buf[pos++];
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint");
+        }
+
+        Long readLong(long presence, int field) {
+            if ((presence & (1L << field)) == 0) {
+                return null;
+            }
+            long raw = readVarLong();
+            return (raw >>> 1) ^ -(raw & 1);
+        }
+
+        Integer readInt(long presence, int field) {
+            Long value = readLong(presence, field);
+            return value == null ? null : Math.toIntExact(value);
+        }
+
+        String readString(long presence, int field) {
+            if ((presence & (1L << field)) == 0) {
+                return null;
+            }
+            int length = (int) readVarLong();
+            if (length > limit - pos) {
+                throw new SerializationException("Truncated event");
+            }
+            String value = new String(buf, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return value;
+        }
+
+        BigDecimal readDecimal(long presence, int field) {
+            Integer scale = readInt(presence, field);
+            if (scale == null) {
+                return null;
+            }
+            int length = (int) readVarLong();
+            if (length == 0 || length > limit - pos) {
+                throw new SerializationException("Truncated event");
+            }
+            BigDecimal value = new BigDecimal(new BigInteger(buf, pos, length), scale);
+            pos += length;
+            return value;
+        }
+
+        // Restricts reading to the next length bytes; returns the limit to restore afterwards
+        int pushLimit(int length) {
+            if (length > limit - pos) {
+                throw new SerializationException("Truncated event");
+            }
+            int outer = limit;
+            limit = pos + length;
+            return outer;
+        }
+
+        // Skips whatever the current length-prefixed section has left, such as newer fields
+        void popLimit(int outer) {
+            pos = limit;
+            limit = outer;
+        }
+    }
+}
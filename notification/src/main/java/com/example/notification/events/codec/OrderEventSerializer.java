@@ -0,0 +1,33 @@
+package com.example.notification.events.codec;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Kafka serializer for {@link OrderEventCodec}. Each producing thread encodes into its own
+ * reused buffer, so the only allocation per message is the exact-size result. No type
+ * headers are written; the type travels in the payload.
+ */
+public class OrderEventSerializer implements Serializer<Object> {
+
+    private static final int INITIAL_CAPACITY = 512;
+    // A buffer grown past this by an unusually large event is not kept
+    private static final int MAX_RETAINED_CAPACITY = 64 * 1024;
+
+    private final ThreadLocal<OrderEventCodec.Writer> buffers =
+            ThreadLocal.withInitial(() -> new OrderEventCodec.Writer(INITIAL_CAPACITY));
+
+    @Override
+    public byte[] serialize(String topic, Object data) {
+        if (data == null) {
+            return null;
+        }
+        OrderEventCodec.Writer writer = buffers.get();
+        writer.reset();
+        OrderEventCodec.write(data, writer);
+        byte[] bytes = writer.toByteArray();
+        if (writer.capacity() > MAX_RETAINED_CAPACITY) {
+            buffers.remove();
+        }
+        return bytes;
+    }
+}
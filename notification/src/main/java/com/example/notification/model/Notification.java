@@ -0,0 +1,14 @@
+package com.example.notification.model;
+
+import com.example.notification.events.OrderEvents.OrderItemEvent;
+
+import java.util.List;
+
+// The latest known state of one order; items are carried over from the created event
+public record Notification(
+        Long orderId,
+        Long customerId,
+        NotificationType type,
+        String reason,
+        List<OrderItemEvent> items
+) {}
@@ -0,0 +1,22 @@
+package com.example.notification.model;
+
+/**
+ * Order states a customer is notified about. The rank orders them along the order
+ * lifecycle; when events of one order are coalesced the highest rank wins.
+ */
+public enum NotificationType {
+    ORDER_CREATED(0),
+    ORDER_REJECTED(1),
+    PAYMENT_COMPLETED(2),
+    PAYMENT_FAILED(2);
+
+    private final int rank;
+
+    NotificationType(int rank) {
+        this.rank = rank;
+    }
+
+    public int rank() {
+        return rank;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.notification.sender;
+
+import com.example.notification.model.Notification;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Appends each batch to a local file as newline-delimited JSON. Meant for local runs and
+ * load tests where the output should be inspected without a real provider.
+ */
+public class FileNotificationSender implements NotificationSender {
+
+    private final Path path;
+    private final ObjectMapper objectMapper;
+    // Not synchronized: a virtual thread blocked in file I/O while holding a monitor pins its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public FileNotificationSender(Path path, ObjectMapper objectMapper) {
+        this.path = path;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public String channel() {
+        return "file";
+    }
+
+    // Lane workers write concurrently; one batch is appended as a whole
+    @Override
+    public void send(List<Notification> batch) throws IOException {
+        lock.lock();
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                for (Notification notification : batch) {
+                    writer.write(objectMapper.writeValueAsString(notification));
+                    writer.newLine();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.notification.sender;
+
+import com.example.notification.model.Notification;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Keeps the most recent notifications in memory, for tests and local runs. Bounded so a
+ * long-running instance does not grow without limit.
+ */
+public class InMemoryNotificationSender implements NotificationSender {
+
+    private final int capacity;
+    private final Deque<Notification> sent;
+
+    public InMemoryNotificationSender(int capacity) {
+        this.capacity = capacity;
+        this.sent = new ArrayDeque<>(Math.min(capacity, 1024));
+    }
+
+    @Override
+    public String channel() {
+        return "memory";
+    }
+
+    @Override
+    public synchronized void send(List<Notification> batch) {
+        for (Notification notification : batch) {
+            if (sent.size() == capacity) {
+                sent.removeFirst();
+            }
+            sent.addLast(notification);
+        }
+    }
+
+    public synchronized List<Notification> sent() {
+        return new ArrayList<>(sent);
+    }
+
+    public synchronized void clear() {
+        sent.clear();
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.notification.sender;
+
+import com.example.notification.model.Notification;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+@Slf4j
+public class LoggingNotificationSender implements NotificationSender {
+
+    @Override
+    public String channel() {
+        return "log";
+    }
+
+    @Override
+    public void send(List<Notification> batch) {
+        for (Notification n : batch) {
+            log.info("Notify {}: orderId={}, customerId={}, reason={}, items={}",
+                    n.type(), n.orderId(), n.customerId(), n.reason(), n.items());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.notification.sender;
+
+import com.example.notification.model.Notification;
+
+import java.util.List;
+
+/**
+ * Delivery channel SPI. Every sender bean gets its own dispatch lane with a bounded worker
+ * pool and rate limit, so a slow channel cannot hold up another. Batches never exceed
+ * {@code notification.dispatch.batch-size}; throwing fails the whole batch.
+ */
+public interface NotificationSender {
+
+    // Names the lane in configuration, logs and metrics
+    String channel();
+
+    void send(List<Notification> batch) throws Exception;
+}
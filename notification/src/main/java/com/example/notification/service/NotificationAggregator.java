@@ -0,0 +1,63 @@
+package com.example.notification.service;
+
+import com.example.notification.events.OrderEvents.OrderCreatedEvent;
+import com.example.notification.events.OrderEvents.OrderRejectedEvent;
+import com.example.notification.events.OrderEvents.PaymentCompletedEvent;
+import com.example.notification.events.OrderEvents.PaymentFailedEvent;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+@Slf4j
+public class NotificationAggregator {
+
+    /**
+     * Reduces a batch of order and payment events to one notification per order, in order of
+     * first appearance. The topics are not ordered against each other, so the state furthest
+     * along the order lifecycle wins rather than the last one received; items of the created
+     * event are kept when a later state replaces it.
+     */
+    public List<Notification> coalesce(List<?> events) {
+        Map<Long, Notification> latest = new LinkedHashMap<>();
+        for (Object event : events) {
+            Notification next = toNotification(event);
+            if (next != null) {
+                latest.merge(next.orderId(), next, NotificationAggregator::merge);
+            }
+        }
+        return new ArrayList<>(latest.values());
+    }
+
+    private static Notification merge(Notification previous, Notification next) {
+        Notification winner = next.type().rank() >= previous.type().rank() ? next : previous;
+        Notification other = winner == next ? previous : next;
+        if (winner.items() != null || other.items() == null) {
+            return winner;
+        }
+        return new Notification(winner.orderId(), winner.customerId(), winner.type(), winner.reason(), other.items());
+    }
+
+    private static Notification toNotification(Object event) {
+        if (event instanceof OrderCreatedEvent e) {
+            return new Notification(e.orderId(), e.customerId(), NotificationType.ORDER_CREATED, null, e.items());
+        }
+        if (event instanceof OrderRejectedEvent e) {
+            return new Notification(e.orderId(), e.customerId(), NotificationType.ORDER_REJECTED, e.reason(), e.items());
+        }
+        if (event instanceof PaymentCompletedEvent e) {
+            return new Notification(e.orderId(), e.customerId(), NotificationType.PAYMENT_COMPLETED, null, null);
+        }
+        if (event instanceof PaymentFailedEvent e) {
+            return new Notification(e.orderId(), e.customerId(), NotificationType.PAYMENT_FAILED, e.reason(), null);
+        }
+        log.warn("Skipping unexpected event type {}", event == null ? null : event.getClass().getName());
+        return null;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.notification.dispatch;
+
+import com.example.notification.config.NotificationDispatchProperties;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationType;
+import com.example.notification.sender.InMemoryNotificationSender;
+import com.example.notification.sender.NotificationSender;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationDispatcherTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private NotificationDispatcher dispatcher;
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.destroy();
+    }
+
+    @Test
+    void dispatch_shouldSendEveryNotificationThroughEachLaneAtTheConfiguredRate() {
+        InMemoryNotificationSender memory = new InMemoryNotificationSender(100);
+        NotificationDispatchProperties properties = new NotificationDispatchProperties();
+        properties.setBatchSize(10);
+        properties.setPermitsPerSecond(200);
+        dispatcher = new NotificationDispatcher(List.of(memory), properties, meterRegistry);
+
+        long started = System.nanoTime();
+        dispatcher.dispatch(notifications(50));
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertEquals(50, memory.sent().size());
+        // The last batch may start only after 40 messages' worth of slots at 200 per second
+        assertTrue(elapsedMillis >= 190, "took " + elapsedMillis + " ms");
+        assertEquals(50.0, meterRegistry.get("notification.sent").tag("channel", "memory").tag("result", "success").counter().count());
+        assertEquals(0.0, meterRegistry.get("notification.backlog").tag("channel", "memory").gauge().value());
+    }
+
+    @Test
+    void dispatch_shouldFailWhenAnyLaneFails() {
+        InMemoryNotificationSender memory = new InMemoryNotificationSender(100);
+        NotificationSender broken = new NotificationSender() {
+            @Override
+            public String channel() {
+                return "broken";
+            }
+
+            @Override
+            public void send(List<Notification> batch) {
+                throw new IllegalStateException("provider down");
+            }
+        };
+        dispatcher = new NotificationDispatcher(List.of(memory, broken), new NotificationDispatchProperties(), meterRegistry);
+
+        assertThrows(IllegalStateException.class, () -> dispatcher.dispatch(notifications(3)));
+        assertEquals(3, memory.sent().size());
+        assertEquals(3.0, meterRegistry.get("notification.sent").tag("channel", "broken").tag("result", "failure").counter().count());
+    }
+
+    private static List<Notification> notifications(int count) {
+        return LongStream.rangeClosed(1, count)
+                .mapToObj(id -> new Notification(id, 1L, NotificationType.ORDER_CREATED, null, List.of()))
+                .toList();
+    }
+}
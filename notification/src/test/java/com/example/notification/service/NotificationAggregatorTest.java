@@ -0,0 +1,39 @@
+package com.example.notification.service;
+
+import com.example.notification.events.OrderEvents.OrderCreatedEvent;
+import com.example.notification.events.OrderEvents.OrderItemEvent;
+import com.example.notification.events.OrderEvents.OrderRejectedEvent;
+import com.example.notification.events.OrderEvents.PaymentCompletedEvent;
+import com.example.notification.events.OrderEvents.PaymentFailedEvent;
+import com.example.notification.model.Notification;
+import com.example.notification.model.NotificationType;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationAggregatorTest {
+
+    private static final List<OrderItemEvent> ITEMS = List.of(new OrderItemEvent(5L, 2));
+
+    private final NotificationAggregator aggregator = new NotificationAggregator();
+
+    @Test
+    void coalesce_shouldKeepFurthestStatePerOrderWithCreatedItems() {
+        List<Notification> notifications = aggregator.coalesce(List.of(
+                new OrderCreatedEvent(1L, 10L, ITEMS, BigDecimal.TEN),
+                new OrderRejectedEvent(2L, 20L, "INSUFFICIENT_STOCK", ITEMS),
+                new PaymentCompletedEvent(1L, 10L),
+                new PaymentFailedEvent(3L, 30L, "INSUFFICIENT_FUNDS"),
+                new OrderCreatedEvent(3L, 30L, ITEMS, BigDecimal.TEN),
+                "unexpected"));
+
+        assertEquals(List.of(
+                new Notification(1L, 10L, NotificationType.PAYMENT_COMPLETED, null, ITEMS),
+                new Notification(2L, 20L, NotificationType.ORDER_REJECTED, "INSUFFICIENT_STOCK", ITEMS),
+                new Notification(3L, 30L, NotificationType.PAYMENT_FAILED, "INSUFFICIENT_FUNDS", ITEMS)
+        ), notifications);
+    }
+}
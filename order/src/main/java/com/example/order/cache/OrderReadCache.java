@@ -0,0 +1,118 @@
+package com.example.order.cache;
+
+import com.example.order.config.OrderReadCacheProperties;
+import com.example.order.dto.OrderDtos.OrderResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache for order reads: single orders by id, and each customer's latest
+ * orders for the first page of their history. Entries are dropped after a committed write on
+ * this instance and, on every instance, when the CDC stream of the orders table reports a
+ * change; the TTL bounds staleness should either be missed. Deeper history pages are not
+ * cached, they are cheap keyset reads.
+ */
+@Component
+public class OrderReadCache {
+
+    private final AsyncCache<Long, OrderResponse> orders;
+    private final AsyncCache<Long, List<OrderResponse>> recentByCustomer;
+
+    public OrderReadCache(OrderReadCacheProperties properties, MeterRegistry meterRegistry) {
+        if (properties.isEnabled()) {
+            this.orders = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaximumOrders())
+                    .expireAfterWrite(properties.getTtl())
+                    .recordStats()
+                    .buildAsync();
+            this.recentByCustomer = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaximumCustomers())
+                    .expireAfterWrite(properties.getTtl())
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, orders, "order.read.orders");
+            CaffeineCacheMetrics.monitor(meterRegistry, recentByCustomer, "order.read.recent");
+        } else {
+            this.orders = null;
+            this.recentByCustomer = null;
+        }
+    }
+
+    /**
+     * Returns the cached order or loads it; a loader returning {@code null} (no such order)
+     * caches nothing. An invalidation racing with the load removes the pending entry, so
+     * its result is handed to the readers already waiting for it but never cached.
+     */
+    public OrderResponse getOrder(Long orderId, Function<Long, OrderResponse> loader) {
+        return orders == null ? loader.apply(orderId) : load(orders, orderId, loader);
+    }
+
+    /** Returns the customer's cached latest orders, newest first, or loads them. */
+    public List<OrderResponse> getRecent(Long customerId, Function<Long, List<OrderResponse>> loader) {
+        return recentByCustomer == null ? loader.apply(customerId) : load(recentByCustomer, customerId, loader);
+    }
+
+    public void invalidate(Collection<Long> orderIds, Collection<Long> customerIds) {
+        if (orders != null) {
+            orders.synchronous().invalidateAll(orderIds);
+            recentByCustomer.synchronous().invalidateAll(customerIds);
+        }
+    }
+
+    /**
+     * Invalidates once the current transaction has committed, so no concurrent read can
+     * re-cache the rows from before the change. Without a transaction it is immediate.
+     */
+    public void invalidateAfterCommit(Collection<Long> orderIds, Collection<Long> customerIds) {
+        if (orders == null || (orderIds.isEmpty() && customerIds.isEmpty())) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(orderIds, customerIds);
+            return;
+        }
+        List<Long> orderIdsCopy = List.copyOf(orderIds);
+        List<Long> customerIdsCopy = List.copyOf(customerIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(orderIdsCopy, customerIdsCopy);
+            }
+        });
+    }
+
+    // The first reader of a key runs the query on its own thread, outside the cache's map:
+    // a synchronous Caffeine load holds a map bin's monitor for the whole query, which pins
+    // a virtual thread to its carrier. Concurrent readers of the key wait for its future.
+    private static <V> V load(AsyncCache<Long, V> cache, Long key, Function<Long, V> loader) {
+        CompletableFuture<V> pending = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (k, executor) -> pending);
+        if (future == pending) {
+            try {
+                pending.complete(loader.apply(key));
+            } catch (RuntimeException | Error ex) {
+                pending.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
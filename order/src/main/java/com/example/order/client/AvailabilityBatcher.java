@@ -0,0 +1,171 @@
+package com.example.order.client;
+
+import com.example.order.client.ProductClient.AvailabilityResponse;
+import com.example.order.client.ProductClient.QuantityCheckItem;
+import com.example.order.config.AvailabilityBatchProperties;
+import com.example.order.resilience.DependencyGuard;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces concurrent availability checks into one {@code /check-availability} call.
+ *
+ * <p>The first check of a batch leads it and sends the batch from its own thread. When no
+ * other check is in flight nobody could join, so it sends at once; otherwise it waits up to
+ * {@code maxWait} for others to join. A check that brings the batch to {@code maxItems}
+ * distinct products sends it at once instead. Each product is asked for
+ * once, with the largest quantity any caller wants. Answers are fanned back out per caller
+ * and line, with {@code available} recomputed against that line's own quantity. A failed
+ * call fails every check in the batch.
+ */
+@Component
+public class AvailabilityBatcher {
+
+    private record Waiter(List<QuantityCheckItem> items, CompletableFuture<List<AvailabilityResponse>> result) {}
+
+    private static final class Batch {
+        final List<Waiter> waiters = new ArrayList<>();
+        final Map<Long, Integer> demand = new LinkedHashMap<>();
+    }
+
+    private final ProductClient productClient;
+    private final RequestHedger hedger;
+    private final DependencyGuard dependencyGuard;
+    private final AvailabilityBatchProperties properties;
+    // Distinct products sent over maxItems; low values mean batches close on the timer
+    private final DistributionSummary fillRatio;
+    private final DistributionSummary callersPerBatch;
+
+    // A lock rather than synchronized: the leader parks while waiting for its batch to fill
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchClosed = lock.newCondition();
+    private Batch open = new Batch();
+    // Checks between entry and answer, this one included
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public AvailabilityBatcher(ProductClient productClient,
+                               RequestHedger hedger,
+                               DependencyGuard dependencyGuard,
+                               AvailabilityBatchProperties properties,
+                               MeterRegistry meterRegistry) {
+        this.productClient = productClient;
+        this.hedger = hedger;
+        this.dependencyGuard = dependencyGuard;
+        this.properties = properties;
+        this.fillRatio = DistributionSummary.builder("order.availability.batch.fill")
+                .description("Distinct products per availability call as a share of the batch size")
+                .register(meterRegistry);
+        this.callersPerBatch = DistributionSummary.builder("order.availability.batch.callers")
+                .description("Availability checks answered by one call")
+                .register(meterRegistry);
+    }
+
+    /** Same contract as {@link ProductClient#checkAvailability}: one answer per item, in order. */
+    public List<AvailabilityResponse> checkAvailability(List<QuantityCheckItem> items) {
+        if (!properties.isEnabled()) {
+            return check(items);
+        }
+        inFlight.incrementAndGet();
+        try {
+            return batched(items);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private List<AvailabilityResponse> batched(List<QuantityCheckItem> items) {
+        CompletableFuture<List<AvailabilityResponse>> result = new CompletableFuture<>();
+        Batch batch = null;
+        Batch toSend = null;
+        lock.lock();
+        try {
+            batch = open;
+            batch.waiters.add(new Waiter(items, result));
+            for (QuantityCheckItem item : items) {
+                batch.demand.merge(item.productId(), item.quantity(), Math::max);
+            }
+            if (batch.demand.size() >= properties.getMaxItems()
+                    || (batch.waiters.size() == 1 && inFlight.get() == 1)) {
+                toSend = close();
+            } else if (batch.waiters.size() == 1) {
+                long remaining = properties.getMaxWait().toNanos();
+                while (open == batch && remaining > 0) {
+                    remaining = batchClosed.awaitNanos(remaining);
+                }
+                if (open == batch) {
+                    toSend = close();
+                }
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            // Still the leader: send what has gathered so the others are not stranded
+            if (open == batch) {
+                toSend = close();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (toSend != null) {
+            send(toSend);
+        }
+        try {
+            return result.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    // Called with the lock held
+    private Batch close() {
+        Batch closed = open;
+        open = new Batch();
+        batchClosed.signalAll();
+        return closed;
+    }
+
+    private void send(Batch batch) {
+        List<QuantityCheckItem> request = batch.demand.entrySet().stream()
+                .map(e -> new QuantityCheckItem(e.getKey(), e.getValue()))
+                .toList();
+        fillRatio.record((double) request.size() / properties.getMaxItems());
+        callersPerBatch.record(batch.waiters.size());
+        Map<Long, AvailabilityResponse> byId = new HashMap<>(request.size());
+        try {
+            check(request).forEach(a -> byId.put(a.productId(), a));
+        } catch (RuntimeException ex) {
+            batch.waiters.forEach(w -> w.result().completeExceptionally(ex));
+            return;
+        }
+        for (Waiter waiter : batch.waiters) {
+            waiter.result().complete(waiter.items().stream()
+                    .map(i -> answer(byId.get(i.productId()), i))
+                    .toList());
+        }
+    }
+
+    // A read, so it may be hedged; each attempt counts against the product service's limit
+    private List<AvailabilityResponse> check(List<QuantityCheckItem> items) {
+        return hedger.call("product.availability",
+                () -> dependencyGuard.call(DependencyGuard.PRODUCT, () -> productClient.checkAvailability(items)));
+    }
+
+    private static AvailabilityResponse answer(AvailabilityResponse shared, QuantityCheckItem item) {
+        if (shared == null) {
+            return new AvailabilityResponse(item.productId(), false, 0, null, null);
+        }
+        Integer availableQty = shared.availableQty();
+        return new AvailabilityResponse(item.productId(), availableQty != null && availableQty >= item.quantity(),
+                availableQty, shared.price(), shared.priceVersion());
+    }
+}
@@ -1,17 +1,26 @@
 package com.example.order.client;
 
 import org.springframework.cloud.openfeign.FeignClient;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 
 @FeignClient(name = "payment", path = "/api/payments")
 public interface PaymentClient {
 
-    @PostMapping("/precheck")
-    Boolean precheck(@RequestParam("customerId") Long customerId,
-                     @RequestParam("amount") BigDecimal amount);
+    record AccountBalance(Long customerId, BigDecimal balance) {}
+
+    // balance is null when the customer has no account
+    @GetMapping("/balance")
+    AccountBalance balance(@RequestParam("customerId") Long customerId);
+
+    @PostMapping("/balances")
+    List<AccountBalance> balances(@RequestBody Collection<Long> customerIds);
 }
 
 
@@ -4,13 +4,16 @@ import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 @FeignClient(name = "product", path = "/api/products")
 public interface ProductClient {
 
     record QuantityCheckItem(Long productId, Integer quantity) {}
-    record AvailabilityResponse(long productId, boolean available, Integer availableQty) {}
+    // price and priceVersion are null for products that do not exist
+    record AvailabilityResponse(long productId, boolean available, Integer availableQty,
+                                BigDecimal price, Long priceVersion) {}
 
     @PostMapping("/check-availability")
     List<AvailabilityResponse> checkAvailability(@RequestBody List<QuantityCheckItem> items);
@@ -0,0 +1,187 @@
+package com.example.order.client;
+
+import com.example.order.config.HedgingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Hedged requests for idempotent remote reads. When a call has not answered within the
+ * configured percentile of its recent response times, the same call is sent once more and
+ * whichever answers first wins; the latency-aware load balancer steers the second attempt
+ * away from the instance still busy with the first. Hedges are paid for from a budget earned
+ * per call, so a service that is slow as a whole sees at most that share of extra requests
+ * rather than twice its load.
+ *
+ * <p>Only for calls that may safely run twice. When disabled, calls run on the caller's
+ * thread exactly as before.
+ */
+@Component
+public class RequestHedger {
+
+    // Budget is kept in thousandths of a hedge
+    private static final long HEDGE_COST = 1_000;
+    private static final long MAX_BUDGET = 10 * HEDGE_COST;
+
+    private final HedgingProperties properties;
+    private final Executor remoteCallExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CallStats> calls = new ConcurrentHashMap<>();
+
+    public RequestHedger(HedgingProperties properties, Executor remoteCallExecutor, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public <T> T call(String name, Supplier<T> call) {
+        if (!properties.isEnabled()) {
+            return call.get();
+        }
+        CallStats stats = calls.computeIfAbsent(name, CallStats::new);
+        stats.earn();
+        CompletableFuture<T> primary = attempt(call, stats);
+        long delay = stats.delayNanos;
+        if (delay == Long.MAX_VALUE) {
+            return await(primary);
+        }
+        try {
+            return primary.get(delay, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            // Slower than the percentile: hedge below
+        } catch (ExecutionException ex) {
+            throw rethrow(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return await(primary);
+        }
+        if (!stats.spend()) {
+            return await(primary);
+        }
+        stats.sent.increment();
+        CompletableFuture<T> hedge = attempt(call, stats);
+
+        // First success wins; the call fails only once both attempts have failed
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((value, error) -> settle(first, value, error, failures));
+        hedge.whenComplete((value, error) -> {
+            if (settle(first, value, error, failures)) {
+                stats.won.increment();
+            }
+        });
+        return await(first);
+    }
+
+    private <T> CompletableFuture<T> attempt(Supplier<T> call, CallStats stats) {
+        return CompletableFuture.supplyAsync(() -> {
+            long start = System.nanoTime();
+            T value = call.get();
+            stats.record(System.nanoTime() - start);
+            return value;
+        }, remoteCallExecutor);
+    }
+
+    // Returns whether this attempt decided the outcome with its answer
+    private static <T> boolean settle(CompletableFuture<T> first, T value, Throwable error, AtomicInteger failures) {
+        if (error == null) {
+            return first.complete(value);
+        }
+        if (failures.incrementAndGet() == 2) {
+            first.completeExceptionally(error);
+        }
+        return false;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            throw rethrow(ex.getCause());
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) {
+        if (cause instanceof CompletionException wrapped && wrapped.getCause() != null) {
+            cause = wrapped.getCause();
+        }
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(cause);
+    }
+
+    /** Recent response times, the hedge delay derived from them, and the hedge budget of one call. */
+    private final class CallStats {
+
+        private final long[] samples = new long[Math.max(1, properties.getWindow())];
+        private final AtomicLong recorded = new AtomicLong();
+        private final AtomicBoolean computing = new AtomicBoolean();
+        private final AtomicLong budget = new AtomicLong();
+        private final long earnedPerCall = Math.round(properties.getBudget() * HEDGE_COST);
+        private final Counter sent;
+        private final Counter won;
+        private volatile long computedAt;
+        // Long.MAX_VALUE until enough calls have been seen
+        private volatile long delayNanos = Long.MAX_VALUE;
+
+        CallStats(String name) {
+            this.sent = Counter.builder("order.hedge.sent").tag("call", name).register(meterRegistry);
+            this.won = Counter.builder("order.hedge.won")
+                    .description("Hedges that answered before the original attempt")
+                    .tag("call", name)
+                    .register(meterRegistry);
+            TimeGauge.builder("order.hedge.delay", this, TimeUnit.NANOSECONDS,
+                            s -> s.delayNanos == Long.MAX_VALUE ? Double.NaN : s.delayNanos)
+                    .tag("call", name)
+                    .register(meterRegistry);
+        }
+
+        void earn() {
+            budget.updateAndGet(b -> Math.min(MAX_BUDGET, b + earnedPerCall));
+        }
+
+        boolean spend() {
+            long b;
+            do {
+                b = budget.get();
+                if (b < HEDGE_COST) {
+                    return false;
+                }
+            } while (!budget.compareAndSet(b, b - HEDGE_COST));
+            return true;
+        }
+
+        void record(long nanos) {
+            long n = recorded.getAndIncrement();
+            samples[(int) (n % samples.length)] = nanos;
+            long seen = n + 1;
+            // Recomputed every eighth of a window; samples may be overwritten meanwhile, which only blurs the estimate
+            if (seen >= properties.getMinSamples() && seen - computedAt >= Math.max(1, samples.length / 8)
+                    && computing.compareAndSet(false, true)) {
+                try {
+                    long[] sorted = Arrays.copyOf(samples, (int) Math.min(seen, samples.length));
+                    Arrays.sort(sorted);
+                    int index = (int) Math.ceil(properties.getPercentile() * sorted.length) - 1;
+                    long percentile = sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+                    delayNanos = Math.max(properties.getMinDelay().toNanos(), percentile);
+                    computedAt = seen;
+                } finally {
+                    computing.set(false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.order.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // No queue: when every thread is busy the caller runs the check itself,
+    // which degrades to the old sequential behaviour instead of queueing.
+    @Bean("remoteCallExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor platformRemoteCallExecutor(RemoteCallProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getPoolSize());
+        executor.setMaxPoolSize(properties.getPoolSize());
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("remote-call-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        // Carries the request's trace context to the pooled thread so remote calls join its trace
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        return executor;
+    }
+
+    // With spring.threads.virtual.enabled on Java 21, a virtual thread per remote check:
+    // blocking in Feign costs no platform thread, so there is no pool to size. Calls are
+    // still bounded per dependency by DependencyGuard.
+    @Bean("remoteCallExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualRemoteCallExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("remote-call-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        return executor;
+    }
+}
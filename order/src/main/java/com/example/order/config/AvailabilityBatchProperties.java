@@ -0,0 +1,40 @@
+package com.example.order.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.availability-batch")
+public class AvailabilityBatchProperties {
+    private boolean enabled = true;
+    // Longest a check waits for others to join its batch; only paid while other checks are in flight
+    private Duration maxWait = Duration.ofMillis(2);
+    // Distinct products at which a batch is sent without waiting any longer
+    private int maxItems = 256;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getMaxWait() {
+        return maxWait;
+    }
+
+    public void setMaxWait(Duration maxWait) {
+        this.maxWait = maxWait;
+    }
+
+    public int getMaxItems() {
+        return maxItems;
+    }
+
+    public void setMaxItems(int maxItems) {
+        this.maxItems = maxItems;
+    }
+}
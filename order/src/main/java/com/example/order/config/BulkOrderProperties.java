@@ -0,0 +1,29 @@
+package com.example.order.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "order.bulk")
+public class BulkOrderProperties {
+    // Products / customers per availability and balance call
+    private int checkChunkSize = 500;
+    // Orders per insert transaction; the persistence context is cleared after each one
+    private int insertChunkSize = 1000;
+
+    public int getCheckChunkSize() {
+        return checkChunkSize;
+    }
+
+    public void setCheckChunkSize(int checkChunkSize) {
+        this.checkChunkSize = checkChunkSize;
+    }
+
+    public int getInsertChunkSize() {
+        return insertChunkSize;
+    }
+
+    public void setInsertChunkSize(int insertChunkSize) {
+        this.insertChunkSize = insertChunkSize;
+    }
+}
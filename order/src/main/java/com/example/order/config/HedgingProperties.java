@@ -0,0 +1,70 @@
+package com.example.order.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.hedging")
+public class HedgingProperties {
+    private boolean enabled = false;
+    // A second attempt is sent once the first has taken longer than this share of recent calls
+    private double percentile = 0.95;
+    // Floor for the hedge delay, so a very fast service is not hedged on noise
+    private Duration minDelay = Duration.ofMillis(5);
+    // Calls observed before hedging starts; until then the percentile means little
+    private int minSamples = 200;
+    // Recent response times the percentile is taken over
+    private int window = 1024;
+    // Hedges allowed per call, averaged; caps the extra load when the whole service is slow
+    private double budget = 0.1;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public double getPercentile() {
+        return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+        this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+        return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+        this.minDelay = minDelay;
+    }
+
+    public int getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(int minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    public double getBudget() {
+        return budget;
+    }
+
+    public void setBudget(double budget) {
+        this.budget = budget;
+    }
+}
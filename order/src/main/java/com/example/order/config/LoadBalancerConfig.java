@@ -0,0 +1,13 @@
+package com.example.order.config;
+
+import com.example.order.loadbalancer.PeakEwmaLoadBalancerConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// Every Feign client (product, payment) balances by latency; without this, round-robin
+@Configuration
+@ConditionalOnProperty(name = "order.load-balancer.latency-aware", havingValue = "true", matchIfMissing = true)
+@LoadBalancerClients(defaultConfiguration = PeakEwmaLoadBalancerConfiguration.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,31 @@
+package com.example.order.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.load-balancer")
+public class LoadBalancingProperties {
+    // Pick instances by latency and requests in flight instead of round-robin
+    private boolean latencyAware = true;
+    // How quickly faster responses, or silence, wash a slow response out of an instance's estimate
+    private Duration decay = Duration.ofSeconds(10);
+
+    public boolean isLatencyAware() {
+        return latencyAware;
+    }
+
+    public void setLatencyAware(boolean latencyAware) {
+        this.latencyAware = latencyAware;
+    }
+
+    public Duration getDecay() {
+        return decay;
+    }
+
+    public void setDecay(Duration decay) {
+        this.decay = decay;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.order.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.read-cache")
+public class OrderReadCacheProperties {
+    private boolean enabled = true;
+    // Orders held for lookups by id
+    private long maximumOrders = 100_000;
+    // Customers whose latest orders are held for the first history page
+    private long maximumCustomers = 20_000;
+    // Latest orders held per customer; first pages up to this size are served from the cache
+    private int recentPerCustomer = 50;
+    // Upper bound on staleness should an invalidation be missed
+    private Duration ttl = Duration.ofSeconds(60);
+    // Debezium topic of the orders table
+    private String cdcTopic = "dbserver1.public.orders";
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMaximumOrders() {
+        return maximumOrders;
+    }
+
+    public void setMaximumOrders(long maximumOrders) {
+        this.maximumOrders = maximumOrders;
+    }
+
+    public long getMaximumCustomers() {
+        return maximumCustomers;
+    }
+
+    public void setMaximumCustomers(long maximumCustomers) {
+        this.maximumCustomers = maximumCustomers;
+    }
+
+    public int getRecentPerCustomer() {
+        return recentPerCustomer;
+    }
+
+    public void setRecentPerCustomer(int recentPerCustomer) {
+        this.recentPerCustomer = recentPerCustomer;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public String getCdcTopic() {
+        return cdcTopic;
+    }
+
+    public void setCdcTopic(String cdcTopic) {
+        this.cdcTopic = cdcTopic;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.order.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.outbox")
+public class OutboxProperties {
+    // Rows relayed per transaction; a full batch is followed immediately by the next one
+    private int batchSize = 500;
+    // Pause between drains once the outbox is empty
+    private Duration pollInterval = Duration.ofMillis(100);
+    private Duration sendTimeout = Duration.ofSeconds(10);
+    // Sent rows are kept this long before being purged
+    private Duration retention = Duration.ofDays(1);
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public Duration getPollInterval() {
+        return pollInterval;
+    }
+
+    public void setPollInterval(Duration pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+
+    public Duration getSendTimeout() {
+        return sendTimeout;
+    }
+
+    public void setSendTimeout(Duration sendTimeout) {
+        this.sendTimeout = sendTimeout;
+    }
+
+    public Duration getRetention() {
+        return retention;
+    }
+
+    public void setRetention(Duration retention) {
+        this.retention = retention;
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.order.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "order.resilience")
+public class ResilienceProperties {
+    // Concurrent calls each dependency starts with; the limit then follows its response times
+    private int initialLimit = 20;
+    private int minLimit = 4;
+    // Hard ceiling per dependency, so one slow service cannot hold every request thread
+    private int maxLimit = 128;
+    // Share of failed calls, in percent, that opens a dependency's circuit
+    private float failureRateThreshold = 50;
+    // Calls slower than this count as slow; a circuit also opens when most calls are slow
+    private Duration slowCallThreshold = Duration.ofSeconds(2);
+    private float slowCallRateThreshold = 80;
+    // Recent calls the failure and slow-call rates are taken over
+    private int slidingWindow = 50;
+    private int minimumCalls = 20;
+    // How long an open circuit rejects calls before letting a few probes through
+    private Duration openDuration = Duration.ofSeconds(5);
+    // Reject new orders at the door while a dependency is at its limit or its circuit is open
+    private boolean sheddingEnabled = true;
+
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    public void setInitialLimit(int initialLimit) {
+        this.initialLimit = initialLimit;
+    }
+
+    public int getMinLimit() {
+        return minLimit;
+    }
+
+    public void setMinLimit(int minLimit) {
+        this.minLimit = minLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public float getFailureRateThreshold() {
+        return failureRateThreshold;
+    }
+
+    public void setFailureRateThreshold(float failureRateThreshold) {
+        this.failureRateThreshold = failureRateThreshold;
+    }
+
+    public Duration getSlowCallThreshold() {
+        return slowCallThreshold;
+    }
+
+    public void setSlowCallThreshold(Duration slowCallThreshold) {
+        this.slowCallThreshold = slowCallThreshold;
+    }
+
+    public float getSlowCallRateThreshold() {
+        return slowCallRateThreshold;
+    }
+
+    public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+        this.slowCallRateThreshold = slowCallRateThreshold;
+    }
+
+    public int getSlidingWindow() {
+        return slidingWindow;
+    }
+
+    public void setSlidingWindow(int slidingWindow) {
+        this.slidingWindow = slidingWindow;
+    }
+
+    public int getMinimumCalls() {
+        return minimumCalls;
+    }
+
+    public void setMinimumCalls(int minimumCalls) {
+        this.minimumCalls = minimumCalls;
+    }
+
+    public Duration getOpenDuration() {
+        return openDuration;
+    }
+
+    public void setOpenDuration(Duration openDuration) {
+        this.openDuration = openDuration;
+    }
+
+    public boolean isSheddingEnabled() {
+        return sheddingEnabled;
+    }
+
+    public void setSheddingEnabled(boolean sheddingEnabled) {
+        this.sheddingEnabled = sheddingEnabled;
+    }
+}
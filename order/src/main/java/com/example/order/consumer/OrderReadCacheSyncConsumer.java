@@ -0,0 +1,68 @@
+package com.example.order.consumer;
+
+import com.example.order.cache.OrderReadCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OrderReadCacheSyncConsumer {
+
+    private final OrderReadCache readCache;
+    private final ObjectMapper objectMapper;
+
+    // Every instance joins with its own group so all caches see every change, including the
+    // ones committed by other instances, starting from the latest offset.
+    @KafkaListener(topics = "#{@orderReadCacheProperties.cdcTopic}",
+            groupId = "order-read-cache-${random.uuid}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer"
+            },
+            batch = "true",
+            autoStartup = "${order.read-cache.enabled:true}")
+    public void onOrderChanges(List<ConsumerRecord<String, String>> records) {
+        Set<Long> orderIds = new LinkedHashSet<>();
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (ConsumerRecord<String, String> record : records) {
+            collect(record, orderIds, customerIds);
+        }
+        readCache.invalidate(orderIds, customerIds);
+        log.debug("Invalidated {} orders and {} customers from {} CDC records", orderIds.size(), customerIds.size(), records.size());
+    }
+
+    /**
+     * Adds the order and customer ids of one Debezium change event, with or without the schema
+     * envelope. Deletes only carry the primary key unless the table has REPLICA IDENTITY FULL,
+     * so the customer's history then waits for the TTL. Tombstones and unreadable records are
+     * skipped.
+     */
+    private void collect(ConsumerRecord<String, String> record, Set<Long> orderIds, Set<Long> customerIds) {
+        if (record.value() == null) {
+            return;
+        }
+        try {
+            JsonNode root = objectMapper.readTree(record.value());
+            JsonNode payload = root.has("payload") ? root.path("payload") : root;
+            JsonNode row = "d".equals(payload.path("op").asText()) ? payload.path("before") : payload.path("after");
+            if (row.path("id").canConvertToLong()) {
+                orderIds.add(row.path("id").asLong());
+            }
+            if (row.path("customer_id").canConvertToLong()) {
+                customerIds.add(row.path("customer_id").asLong());
+            }
+        } catch (Exception e) {
+            log.error("Skipping unreadable CDC record at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+        }
+    }
+}
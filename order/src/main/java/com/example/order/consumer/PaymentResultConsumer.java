@@ -0,0 +1,35 @@
+package com.example.order.consumer;
+
+import com.example.order.service.OrderLifecycleService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentResultConsumer {
+
+    private final OrderLifecycleService lifecycleService;
+
+    // Offsets are committed after the status updates commit; a failure redelivers the batch
+    @KafkaListener(topics = {
+            "#{@orderTopicsProperties.paymentCompleted}",
+            "#{@orderTopicsProperties.paymentFailed}"
+    }, batch = "true")
+    public void onPaymentResults(List<ConsumerRecord<String, Object>> records) {
+        List<Object> events = new ArrayList<>(records.size());
+        for (ConsumerRecord<String, Object> record : records) {
+            if (record.value() != null) {
+                events.add(record.value());
+            }
+        }
+        int changed = lifecycleService.applyPaymentResults(events);
+        log.debug("Applied {} payment results, {} orders changed state", events.size(), changed);
+    }
+}
@@ -1,15 +1,19 @@
 package com.example.order.controller;
 
+import com.example.order.dto.OrderDtos.BulkCreateOrderRequest;
+import com.example.order.dto.OrderDtos.BulkCreateOrderResponse;
 import com.example.order.dto.OrderDtos.CreateOrderRequest;
 import com.example.order.dto.OrderDtos.OrderResponse;
+import com.example.order.pagination.CursorPage;
+import com.example.order.service.BulkOrderService;
+import com.example.order.service.OrderQueryService;
 import com.example.order.service.OrderService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -17,11 +21,33 @@ import org.springframework.web.bind.annotation.RestController;
 public class OrderController {
 
     private final OrderService orderService;
+    private final BulkOrderService bulkOrderService;
+    private final OrderQueryService orderQueryService;
 
     @PostMapping
     public ResponseEntity<OrderResponse> create(@Valid @RequestBody CreateOrderRequest request) {
         return ResponseEntity.ok(orderService.createOrder(request));
     }
-}
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkCreateOrderResponse> createBulk(@Valid @RequestBody BulkCreateOrderRequest request) {
+        return ResponseEntity.ok(bulkOrderService.createOrders(request));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<OrderResponse> findById(@PathVariable Long id) {
+        return orderQueryService.findById(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
 
+    // Order history, newest first; pass nextCursor back to read the following page
+    @GetMapping
+    public ResponseEntity<CursorPage<OrderResponse>> findByCustomer(@RequestParam Long customerId,
+                                                                    @RequestParam(defaultValue = "20") @Min(1) @Max(200) int size,
+                                                                    @RequestParam(required = false) String cursor) {
+        try {
+            return ResponseEntity.ok(orderQueryService.findByCustomer(customerId, size, cursor));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -1,10 +1,14 @@
 package com.example.order.dto;
 
+import com.example.order.entity.OrderStatus;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 
 import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.List;
 
 public class OrderDtos {
@@ -16,12 +20,17 @@ public class OrderDtos {
 
     public record CreateOrderRequest(
             @NotNull Long customerId,
-            @NotEmpty List<CreateOrderItemRequest> items
+            @NotEmpty List<@Valid CreateOrderItemRequest> items
+    ) {}
+
+    public record BulkCreateOrderRequest(
+            @NotEmpty @Size(max = 10_000) List<@Valid CreateOrderRequest> orders
     ) {}
 
     public record OrderItemResponse(
             Long productId,
-            Integer quantity
+            Integer quantity,
+            BigDecimal unitPrice
     ) {}
 
     public record OrderResponse(
@@ -29,8 +38,37 @@ public class OrderDtos {
             Long customerId,
             String status,
             BigDecimal totalAmount,
+            OffsetDateTime createdAt,
             List<OrderItemResponse> items
     ) {}
-}
 
+    // Read-side projections: order columns without the lazy items, and items keyed by order
+    public record OrderHeader(
+            Long id,
+            Long customerId,
+            OrderStatus status,
+            BigDecimal totalAmount,
+            OffsetDateTime createdAt
+    ) {}
 
+    public record OrderItemRow(
+            Long orderId,
+            Long productId,
+            Integer quantity,
+            BigDecimal unitPrice
+    ) {}
+
+    public record BulkOrderResult(
+            int index,
+            Long orderId,
+            String status,
+            String reason
+    ) {}
+
+    public record BulkCreateOrderResponse(
+            int created,
+            int rejected,
+            int failed,
+            List<BulkOrderResult> results
+    ) {}
+}
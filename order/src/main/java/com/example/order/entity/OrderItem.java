@@ -3,17 +3,21 @@ package com.example.order.entity;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
+
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
-@Table(name = "order_items")
+// Postgres does not index foreign keys; items are loaded per page of orders by order_id
+@Table(name = "order_items", indexes = @Index(name = "idx_order_items_order", columnList = "order_id"))
 @Entity
 public class OrderItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -25,6 +29,12 @@ public class OrderItem {
 
     @Column(nullable = false)
     private Integer quantity;
+
+    // Price snapshot the line was charged at; null on lines created before orders were priced
+    @Column(precision = 19, scale = 2)
+    private BigDecimal unitPrice;
+
+    private Long priceVersion;
 }
 
 
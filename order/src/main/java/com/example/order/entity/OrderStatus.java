@@ -2,7 +2,7 @@ package com.example.order.entity;
 
 public enum OrderStatus {
     CREATED,
-    REJECTED
+    REJECTED,
+    PAID,
+    PAYMENT_FAILED
 }
-
-
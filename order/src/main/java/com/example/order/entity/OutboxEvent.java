@@ -0,0 +1,46 @@
+package com.example.order.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.OffsetDateTime;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Table(name = "order_outbox", indexes = {
+        @Index(columnList = "sentAt, parkedAt, id")
+})
+@Entity
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    private String messageKey;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+
+    // Propagation headers of the trace that wrote the row, as JSON; the relay sends in that trace
+    @Column(columnDefinition = "text")
+    private String traceContext;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+
+    private OffsetDateTime sentAt;
+
+    // Set instead of sentAt when the row cannot be turned back into an event; kept for inspection
+    private OffsetDateTime parkedAt;
+}
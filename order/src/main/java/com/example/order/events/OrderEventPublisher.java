@@ -1,32 +1,86 @@
 package com.example.order.events;
 
 import com.example.order.config.OrderTopicsProperties;
+import com.example.order.entity.OutboxEvent;
+import com.example.order.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
 import lombok.RequiredArgsConstructor;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records events in the outbox table as part of the caller's transaction. Nothing is sent
+ * here: {@link OutboxRelay} publishes committed rows, so an event exists if and only if the
+ * order change that produced it was committed. Every event is keyed by customer id, so all
+ * events of a customer, and so of each order, share a partition. A single relay at a time
+ * sends the outbox in id order, but ids come from a pooled sequence that hands each instance
+ * its own block, so id order follows write order only among events written by the same
+ * instance. Events of a key written by different instances can reach Kafka in either order,
+ * and a retried batch can repeat events; consumers deduplicate and must not rely on more.
+ * The current trace context is stored with each row so the relay can send it in the same trace.
+ */
 @Component
 @RequiredArgsConstructor
+@Transactional(propagation = Propagation.MANDATORY)
 public class OrderEventPublisher {
 
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxEventRepository outboxRepository;
     private final OrderTopicsProperties topics;
+    private final ObjectMapper objectMapper;
+    private final Tracer tracer;
+    private final Propagator propagator;
 
-    public void publishCreated(Object payload) {
-        kafkaTemplate.send(topics.getCreated(), payload);
+    public void publishCreated(OrderEvents.OrderCreatedEvent event) {
+        enqueue(topics.getCreated(), event.customerId(), event);
     }
 
-    public void publishRejected(Object payload) {
-        kafkaTemplate.send(topics.getRejected(), payload);
+    public void publishRejected(OrderEvents.OrderRejectedEvent event) {
+        enqueue(topics.getRejected(), event.customerId(), event);
     }
 
-    public void publishPaymentCompleted(Object payload) {
-        kafkaTemplate.send(topics.getPaymentCompleted(), payload);
+    public void publishPaymentCompleted(OrderEvents.PaymentCompletedEvent event) {
+        enqueue(topics.getPaymentCompleted(), event.customerId(), event);
     }
 
-    public void publishPaymentFailed(Object payload) {
-        kafkaTemplate.send(topics.getPaymentFailed(), payload);
+    public void publishPaymentFailed(OrderEvents.PaymentFailedEvent event) {
+        enqueue(topics.getPaymentFailed(), event.customerId(), event);
     }
-}
 
+    private void enqueue(String topic, Long customerId, Object payload) {
+        outboxRepository.save(OutboxEvent.builder()
+                .topic(topic)
+                .messageKey(customerId == null ? null : customerId.toString())
+                .eventType(payload.getClass().getSimpleName())
+                .payload(toJson(payload))
+                .traceContext(currentTraceContext())
+                .createdAt(OffsetDateTime.now())
+                .build());
+    }
 
+    private String currentTraceContext() {
+        Span span = tracer.currentSpan();
+        if (span == null) {
+            return null;
+        }
+        Map<String, String> headers = new LinkedHashMap<>();
+        propagator.inject(span.context(), headers, Map::put);
+        return headers.isEmpty() ? null : toJson(headers);
+    }
+
+    private String toJson(Object payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize event " + payload.getClass().getSimpleName(), e);
+        }
+    }
+}
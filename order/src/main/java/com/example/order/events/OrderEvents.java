@@ -1,11 +1,12 @@
 package com.example.order.events;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 public class OrderEvents {
     public record OrderItemEvent(Long productId, Integer quantity) {}
 
-    public record OrderCreatedEvent(Long orderId, Long customerId, List<OrderItemEvent> items) {}
+    public record OrderCreatedEvent(Long orderId, Long customerId, List<OrderItemEvent> items, BigDecimal amount) {}
 
     public record OrderRejectedEvent(Long orderId, Long customerId, String reason, List<OrderItemEvent> items) {}
 
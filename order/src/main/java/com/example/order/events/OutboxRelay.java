@@ -0,0 +1,195 @@
+package com.example.order.events;
+
+import com.example.order.config.OutboxProperties;
+import com.example.order.entity.OutboxEvent;
+import com.example.order.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains committed outbox rows to Kafka in batches. All records of a batch are handed to the
+ * producer at once (so they share producer batches and linger), the relay waits for every ack,
+ * then marks the rows sent with one UPDATE. A failed or timed-out send rolls the batch back and
+ * it is retried; consumers see at-least-once delivery and deduplicate by order id. Each record
+ * is sent inside the trace that wrote its row, so the Kafka headers carry that trace onwards.
+ *
+ * <p>Each batch first takes a Postgres advisory lock. Whichever instance gets it drains the
+ * next batch; the others skip the poll. A batch is acknowledged and marked sent before the
+ * next one is read, so rows reach Kafka in id order however many order services run. Ids are
+ * drawn from per-instance blocks of a pooled sequence, so that is write order only for events
+ * one instance wrote. A row whose type or payload cannot be read is parked rather than
+ * failing the batch, which would otherwise be locked and rolled back again on every poll.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final Map<String, Class<?>> EVENT_TYPES = Map.of(
+            "OrderCreatedEvent", OrderEvents.OrderCreatedEvent.class,
+            "OrderRejectedEvent", OrderEvents.OrderRejectedEvent.class,
+            "PaymentCompletedEvent", OrderEvents.PaymentCompletedEvent.class,
+            "PaymentFailedEvent", OrderEvents.PaymentFailedEvent.class);
+    private static final TypeReference<Map<String, String>> HEADERS = new TypeReference<>() {};
+    // Key of the relay's advisory lock, shared by every order service instance
+    static final long RELAY_LOCK = 0x6f726465725f6f62L;
+
+    private final OutboxEventRepository outboxRepository;
+    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+    private final Tracer tracer;
+    private final Propagator propagator;
+    // Batch send until every ack, and per row the time from the outbox insert to its ack
+    private final Timer relayTimer;
+    private final Timer delayTimer;
+    private final Counter parkedCounter;
+
+    public OutboxRelay(OutboxEventRepository outboxRepository,
+                       KafkaTemplate<String, Object> kafkaTemplate,
+                       TransactionTemplate transactionTemplate,
+                       ObjectMapper objectMapper,
+                       OutboxProperties properties,
+                       Tracer tracer,
+                       Propagator propagator,
+                       MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.tracer = tracer;
+        this.propagator = propagator;
+        this.relayTimer = Timer.builder("order.outbox.relay").publishPercentileHistogram().register(meterRegistry);
+        this.delayTimer = Timer.builder("order.outbox.delay").publishPercentileHistogram().register(meterRegistry);
+        this.parkedCounter = Counter.builder("order.outbox.parked").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "#{@outboxProperties.pollInterval.toMillis()}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == properties.getBatchSize());
+    }
+
+    @Scheduled(fixedDelay = 10, timeUnit = TimeUnit.MINUTES)
+    public void purgeSent() {
+        Integer purged = transactionTemplate.execute(status ->
+                outboxRepository.deleteSentBefore(OffsetDateTime.now().minus(properties.getRetention())));
+        if (purged != null && purged > 0) {
+            log.debug("Purged {} sent outbox rows", purged);
+        }
+    }
+
+    int relayBatch() {
+        if (!outboxRepository.tryLockRelay(RELAY_LOCK)) {
+            return 0;
+        }
+        List<OutboxEvent> batch = outboxRepository.lockUnsent(properties.getBatchSize());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Timer.Sample sample = Timer.start();
+        List<CompletableFuture<?>> sends = new ArrayList<>(batch.size());
+        List<OutboxEvent> sent = new ArrayList<>(batch.size());
+        List<Long> parked = new ArrayList<>();
+        for (OutboxEvent event : batch) {
+            Object payload = toEvent(event);
+            if (payload == null) {
+                parked.add(event.getId());
+                continue;
+            }
+            sends.add(send(event, payload));
+            sent.add(event);
+        }
+        kafkaTemplate.flush();
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(properties.getSendTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while relaying outbox batch", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IllegalStateException("Outbox batch of " + batch.size() + " not acknowledged; will retry", e);
+        }
+        sample.stop(relayTimer);
+        OffsetDateTime sentAt = OffsetDateTime.now();
+        List<Long> ids = new ArrayList<>(sent.size());
+        for (OutboxEvent event : sent) {
+            delayTimer.record(Duration.between(event.getCreatedAt(), sentAt));
+            ids.add(event.getId());
+        }
+        if (!ids.isEmpty()) {
+            outboxRepository.markSent(ids, sentAt);
+        }
+        if (!parked.isEmpty()) {
+            outboxRepository.markParked(parked, sentAt);
+            parkedCounter.increment(parked.size());
+        }
+        return batch.size();
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event, Object payload) {
+        Span span = continueTrace(event);
+        if (span == null) {
+            return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), payload);
+        }
+        try (Tracer.SpanInScope scope = tracer.withSpan(span)) {
+            return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), payload);
+        } finally {
+            span.end();
+        }
+    }
+
+    // A row without a readable trace context is still sent, in a trace of its own
+    private Span continueTrace(OutboxEvent event) {
+        if (event.getTraceContext() == null) {
+            return null;
+        }
+        try {
+            Map<String, String> headers = objectMapper.readValue(event.getTraceContext(), HEADERS);
+            return propagator.extract(headers, Map::get).name("outbox relay").start();
+        } catch (IOException e) {
+            log.debug("Ignoring unreadable trace context of outbox event {}", event.getId(), e);
+            return null;
+        }
+    }
+
+    // Null when the row can never be sent; retrying it would not change the outcome
+    private Object toEvent(OutboxEvent event) {
+        Class<?> type = EVENT_TYPES.get(event.getEventType());
+        if (type == null) {
+            log.error("Parking outbox event {}: unknown event type {}", event.getId(), event.getEventType());
+            return null;
+        }
+        try {
+            return objectMapper.readValue(event.getPayload(), type);
+        } catch (IOException e) {
+            log.error("Parking outbox event {}: unreadable {} payload", event.getId(), event.getEventType(), e);
+            return null;
+        }
+    }
+}
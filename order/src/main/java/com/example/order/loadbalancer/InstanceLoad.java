@@ -0,0 +1,68 @@
+package com.example.order.loadbalancer;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Load of one service instance as seen from this client: requests in flight and a peak-EWMA
+ * of response times. A response slower than the average replaces it at once, so a pausing
+ * instance is avoided from its first slow answer; faster answers pull the average down with
+ * the configured decay. The average also decays towards zero while no answers arrive, so an
+ * instance that was avoided gets tried again.
+ */
+public final class InstanceLoad {
+
+    // Cost of an instance that has requests in flight but has never answered: avoid it until it does
+    static final double PENALTY = Long.MAX_VALUE >> 16;
+
+    private final double decayNanos;
+    private final LongSupplier clock;
+    private long stamp;
+    private double ewmaNanos;
+    private int outstanding;
+
+    InstanceLoad(long decayNanos, LongSupplier clock) {
+        this.decayNanos = decayNanos;
+        this.clock = clock;
+        this.stamp = clock.getAsLong();
+    }
+
+    /** Lower is better: the latency estimate weighted by the requests already queued on it. */
+    public synchronized double cost() {
+        double latency = observe(0);
+        if (latency == 0 && outstanding > 0) {
+            return PENALTY + outstanding;
+        }
+        return latency * (outstanding + 1);
+    }
+
+    public synchronized double latencyNanos() {
+        return ewmaNanos;
+    }
+
+    public synchronized int outstanding() {
+        return outstanding;
+    }
+
+    synchronized void start() {
+        outstanding++;
+    }
+
+    synchronized void end(long rttNanos) {
+        outstanding = Math.max(0, outstanding - 1);
+        observe(Math.max(0, rttNanos));
+    }
+
+    // Called with the monitor held
+    private double observe(double rttNanos) {
+        long now = clock.getAsLong();
+        long elapsed = Math.max(0, now - stamp);
+        stamp = now;
+        if (rttNanos > ewmaNanos) {
+            ewmaNanos = rttNanos;
+        } else {
+            double weight = Math.exp(-elapsed / decayNanos);
+            ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+        }
+        return ewmaNanos;
+    }
+}
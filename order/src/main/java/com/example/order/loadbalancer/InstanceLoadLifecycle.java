@@ -0,0 +1,52 @@
+package com.example.order.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds {@link InstanceLoadRegistry} from every load-balanced call: a request counts as in
+ * flight from the moment its instance is chosen, and its response time, failures included,
+ * goes into the instance's latency estimate. Feign's load-balancing client looks lifecycle
+ * beans up in the application context as well, so this one bean serves every client.
+ */
+@Component
+public class InstanceLoadLifecycle implements LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+
+    private final InstanceLoadRegistry registry;
+
+    public InstanceLoadLifecycle(InstanceLoadRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        if (lbResponse.hasServer()) {
+            registry.get(lbResponse.getServer()).start();
+        }
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+        long startedAt = completionContext.getLoadBalancerRequest().getContext() instanceof TimedRequestContext timed
+                ? timed.getRequestStartTime()
+                : 0;
+        registry.get(lbResponse.getServer()).end(startedAt == 0 ? 0 : System.nanoTime() - startedAt);
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.order.loadbalancer;
+
+import com.example.order.config.LoadBalancingProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-instance load of every load-balanced service, shared by the balancers that read it and
+ * the lifecycle that feeds it. Each instance's latency estimate and requests in flight are
+ * published as gauges tagged with service and instance; instances that leave discovery are
+ * dropped together with their gauges.
+ */
+@Component
+public class InstanceLoadRegistry {
+
+    private record Tracked(InstanceLoad load, List<Meter> meters) {}
+
+    private final long decayNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Map<String, Tracked>> byService = new ConcurrentHashMap<>();
+
+    public InstanceLoadRegistry(LoadBalancingProperties properties, MeterRegistry meterRegistry) {
+        this.decayNanos = properties.getDecay().toNanos();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public InstanceLoad get(ServiceInstance instance) {
+        return byService.computeIfAbsent(instance.getServiceId(), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key(instance), key -> track(instance, key))
+                .load();
+    }
+
+    /** Forgets the service's instances that are not in {@code current}. */
+    public void retain(String serviceId, Collection<ServiceInstance> current) {
+        Map<String, Tracked> instances = byService.get(serviceId);
+        if (instances == null) {
+            return;
+        }
+        Set<String> keys = new HashSet<>(current.size());
+        current.forEach(instance -> keys.add(key(instance)));
+        instances.entrySet().removeIf(entry -> {
+            if (keys.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().meters().forEach(meterRegistry::remove);
+            return true;
+        });
+    }
+
+    private Tracked track(ServiceInstance instance, String key) {
+        InstanceLoad load = new InstanceLoad(decayNanos, System::nanoTime);
+        List<Meter> meters = List.of(
+                TimeGauge.builder("order.lb.instance.latency", load, TimeUnit.NANOSECONDS, InstanceLoad::latencyNanos)
+                        .description("Peak-EWMA response time the load balancer ranks the instance by")
+                        .tags("service", instance.getServiceId(), "instance", key)
+                        .register(meterRegistry),
+                Gauge.builder("order.lb.instance.outstanding", load, InstanceLoad::outstanding)
+                        .description("Requests in flight to the instance")
+                        .tags("service", instance.getServiceId(), "instance", key)
+                        .register(meterRegistry));
+        return new Tracked(load, meters);
+    }
+
+    private static String key(ServiceInstance instance) {
+        return instance.getHost() + ":" + instance.getPort();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.order.pagination;
+
+import java.util.List;
+
+/**
+ * One page of a keyset scroll. {@code nextCursor} is {@code null} on the last page.
+ */
+public record CursorPage<T>(
+        List<T> content,
+        int size,
+        String nextCursor
+) {}
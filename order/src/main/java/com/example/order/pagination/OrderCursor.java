@@ -0,0 +1,35 @@
+package com.example.order.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+
+/**
+ * Position after the last order of a history page: its creation time and its id (the
+ * tie-breaker). Order history is always read newest first, so the cursor carries no sort.
+ * Handed to clients as an opaque URL-safe token.
+ */
+public record OrderCursor(OffsetDateTime createdAt, long id) {
+
+    private static final String SEPARATOR = "\n";
+
+    public String encode() {
+        String raw = id + SEPARATOR + createdAt;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static OrderCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new OrderCursor(OffsetDateTime.parse(parts[1]), Long.parseLong(parts[0]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            // Also covers bad Base64, non-numeric ids and unparseable timestamps
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -1,9 +1,50 @@
 package com.example.order.repository;
 
+import com.example.order.dto.OrderDtos.OrderHeader;
+import com.example.order.dto.OrderDtos.OrderItemRow;
 import com.example.order.entity.Order;
+import com.example.order.entity.OrderStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
-}
 
+    // Set-based and guarded by the current status: re-applying a transition changes nothing
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to WHERE o.id IN :ids AND o.status = :from")
+    int transition(@Param("ids") Collection<Long> ids, @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+    @Query("SELECT new com.example.order.dto.OrderDtos$OrderHeader(o.id, o.customerId, o.status, o.totalAmount, o.createdAt) " +
+            "FROM Order o WHERE o.id = :id")
+    Optional<OrderHeader> findHeaderById(@Param("id") Long id);
 
+    // First history page; walks idx_orders_customer_created backwards
+    @Query("SELECT new com.example.order.dto.OrderDtos$OrderHeader(o.id, o.customerId, o.status, o.totalAmount, o.createdAt) " +
+            "FROM Order o WHERE o.customerId = :customerId " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderHeader> findLatestHeaders(@Param("customerId") Long customerId, Limit limit);
+
+    // Following pages. The redundant createdAt <= bound keeps the scan a range on the index;
+    // the OR only filters orders created at the same instant as the cursor.
+    @Query("SELECT new com.example.order.dto.OrderDtos$OrderHeader(o.id, o.customerId, o.status, o.totalAmount, o.createdAt) " +
+            "FROM Order o WHERE o.customerId = :customerId AND o.createdAt <= :createdAt " +
+            "AND (o.createdAt < :createdAt OR o.id < :id) " +
+            "ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderHeader> findHeadersBefore(@Param("customerId") Long customerId,
+                                        @Param("createdAt") OffsetDateTime createdAt,
+                                        @Param("id") Long id,
+                                        Limit limit);
+
+    // Items of a whole page in one query instead of one lazy load per order
+    @Query("SELECT new com.example.order.dto.OrderDtos$OrderItemRow(i.order.id, i.productId, i.quantity, i.unitPrice) " +
+            "FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemRow> findItemRows(@Param("orderIds") Collection<Long> orderIds);
+}
@@ -0,0 +1,32 @@
+package com.example.order.repository;
+
+import com.example.order.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    // Held until the relay's transaction ends; only the instance holding it drains the outbox
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryLockRelay(@Param("key") long key);
+
+    @Query(value = "SELECT * FROM order_outbox WHERE sent_at IS NULL AND parked_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<OutboxEvent> lockUnsent(@Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.sentAt = :sentAt WHERE e.id IN :ids")
+    int markSent(@Param("ids") List<Long> ids, @Param("sentAt") OffsetDateTime sentAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.parkedAt = :parkedAt WHERE e.id IN :ids")
+    int markParked(@Param("ids") List<Long> ids, @Param("parkedAt") OffsetDateTime parkedAt);
+
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.sentAt < :before")
+    int deleteSentBefore(@Param("before") OffsetDateTime before);
+}
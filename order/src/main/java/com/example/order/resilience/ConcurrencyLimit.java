@@ -0,0 +1,88 @@
+package com.example.order.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Adaptive cap on the calls in flight to one dependency, gradient style: every completed
+ * call compares its response time with the long-run average. While responses stay within
+ * {@link #TOLERANCE} times that average the limit grows by about its square root; once the
+ * dependency slows down, queueing shows up as latency and the limit shrinks towards the
+ * concurrency the dependency actually sustains. Calls over the limit are refused rather
+ * than queued, which is what keeps request threads free when a dependency degrades.
+ */
+final class ConcurrencyLimit {
+
+    // How far latency may rise over its long-run average before the limit backs off
+    static final double TOLERANCE = 2.0;
+    private static final double SMOOTHING = 0.2;
+    // Samples in the long-run average; the first WARMUP are plainly averaged
+    private static final int LONG_WINDOW = 600;
+    private static final int WARMUP = 10;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+    // Guarded by this
+    private double estimate;
+    private double longRttNanos;
+    private long samples;
+
+    ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.estimate = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.limit = (int) estimate;
+    }
+
+    boolean tryAcquire() {
+        int current;
+        do {
+            current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+        } while (!inflight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    void release(long rttNanos) {
+        int before = inflight.getAndDecrement();
+        sample(Math.max(1, rttNanos), before);
+    }
+
+    boolean saturated() {
+        return inflight.get() >= limit;
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inflight() {
+        return inflight.get();
+    }
+
+    private synchronized void sample(double shortRtt, int inflightAtCompletion) {
+        samples++;
+        if (samples <= WARMUP) {
+            longRttNanos += (shortRtt - longRttNanos) / samples;
+        } else {
+            double weight = 2.0 / (LONG_WINDOW + 1);
+            longRttNanos += (shortRtt - longRttNanos) * weight;
+        }
+        // Latency fell far below the average after a slow spell: let the average catch up
+        // so the limit is allowed to grow back
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+        // A dependency used at well under its limit says nothing about its capacity
+        if (inflightAtCompletion < estimate / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRttNanos / shortRtt));
+        double next = estimate * gradient + Math.sqrt(estimate);
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + next * SMOOTHING));
+        limit = (int) estimate;
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.order.resilience;
+
+import com.example.order.config.ResilienceProperties;
+import feign.FeignException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Isolates the order service from each of its dependencies. Every call passes a circuit
+ * breaker, which fails calls fast while the dependency is failing or mostly slow, and an
+ * adaptive {@link ConcurrencyLimit}, which acts as a bulkhead sized from the dependency's
+ * response times. Refused calls throw {@link DependencyUnavailableException} right away, so
+ * a slow dependency costs a 503 rather than a request thread stuck in a remote call.
+ *
+ * <p>Circuit state and call counts are published as {@code resilience4j.circuitbreaker.*};
+ * limits, calls in flight and refusals as {@code order.dependency.*}.
+ */
+@Component
+public class DependencyGuard {
+
+    public static final String PRODUCT = "product";
+    public static final String PAYMENT = "payment";
+
+    private static final Duration LIMIT_RETRY_AFTER = Duration.ofSeconds(1);
+
+    private final ResilienceProperties properties;
+    private final CircuitBreakerRegistry breakers;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Dependency> dependencies = new ConcurrentHashMap<>();
+
+    public DependencyGuard(ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.breakers = CircuitBreakerRegistry.of(CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(properties.getSlidingWindow())
+                .minimumNumberOfCalls(properties.getMinimumCalls())
+                .failureRateThreshold(properties.getFailureRateThreshold())
+                .slowCallDurationThreshold(properties.getSlowCallThreshold())
+                .slowCallRateThreshold(properties.getSlowCallRateThreshold())
+                .waitDurationInOpenState(properties.getOpenDuration())
+                .permittedNumberOfCallsInHalfOpenState(5)
+                // Shed requests never reach the breaker, so it has to half-open by itself
+                .automaticTransitionFromOpenToHalfOpenEnabled(true)
+                // A 4xx is the caller's mistake, not a sign the dependency is in trouble
+                .ignoreExceptions(FeignException.FeignClientException.class)
+                .build());
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(breakers).bindTo(meterRegistry);
+    }
+
+    /** Runs {@code call} under the dependency's circuit breaker and concurrency limit. */
+    public <T> T call(String dependency, Supplier<T> call) {
+        return execute(dependency(dependency), call, true);
+    }
+
+    /**
+     * Runs {@code call} under the circuit breaker only. For bulk imports, whose chunked
+     * fan-out is already bounded by the remote-call pool and whose long calls would skew the
+     * response times the limit adapts to.
+     */
+    public <T> T callUnlimited(String dependency, Supplier<T> call) {
+        return execute(dependency(dependency), call, false);
+    }
+
+    /** Whether a new call to some dependency would be refused right now. */
+    public boolean saturated() {
+        for (Dependency dependency : dependencies.values()) {
+            CircuitBreaker.State state = dependency.breaker.getState();
+            if (state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN
+                    || dependency.limit.saturated()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private <T> T execute(Dependency dependency, Supplier<T> call, boolean limited) {
+        if (!dependency.breaker.tryAcquirePermission()) {
+            dependency.circuitOpen.increment();
+            throw new DependencyUnavailableException(dependency.name, "circuit open", properties.getOpenDuration());
+        }
+        if (limited && !dependency.limit.tryAcquire()) {
+            dependency.breaker.releasePermission();
+            dependency.limitReached.increment();
+            throw new DependencyUnavailableException(dependency.name, "concurrency limit reached", LIMIT_RETRY_AFTER);
+        }
+        long start = System.nanoTime();
+        try {
+            T value = call.get();
+            dependency.breaker.onSuccess(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return value;
+        } catch (Throwable ex) {
+            dependency.breaker.onError(System.nanoTime() - start, TimeUnit.NANOSECONDS, ex);
+            throw ex;
+        } finally {
+            if (limited) {
+                dependency.limit.release(System.nanoTime() - start);
+            }
+        }
+    }
+
+    private Dependency dependency(String name) {
+        return dependencies.computeIfAbsent(name, Dependency::new);
+    }
+
+    private final class Dependency {
+
+        private final String name;
+        private final CircuitBreaker breaker;
+        private final ConcurrencyLimit limit;
+        private final Counter circuitOpen;
+        private final Counter limitReached;
+
+        Dependency(String name) {
+            this.name = name;
+            this.breaker = breakers.circuitBreaker(name);
+            this.limit = new ConcurrencyLimit(properties.getInitialLimit(), properties.getMinLimit(), properties.getMaxLimit());
+            Gauge.builder("order.dependency.limit", limit, ConcurrencyLimit::limit)
+                    .description("Concurrent calls currently allowed to the dependency")
+                    .tag("dependency", name)
+                    .register(meterRegistry);
+            Gauge.builder("order.dependency.inflight", limit, ConcurrencyLimit::inflight)
+                    .tag("dependency", name)
+                    .register(meterRegistry);
+            this.circuitOpen = rejected(name, "circuit_open");
+            this.limitReached = rejected(name, "limit");
+        }
+
+        private Counter rejected(String name, String reason) {
+            return Counter.builder("order.dependency.rejected")
+                    .description("Calls refused without being sent")
+                    .tags("dependency", name, "reason", reason)
+                    .register(meterRegistry);
+        }
+    }
+}
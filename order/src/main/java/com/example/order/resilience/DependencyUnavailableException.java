@@ -0,0 +1,35 @@
+package com.example.order.resilience;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+import java.time.Duration;
+
+/**
+ * A call to a dependency refused without being sent, because its circuit is open or it is at
+ * its concurrency limit. Answered with 503 and a Retry-After header, so clients back off
+ * instead of holding a request thread while the dependency recovers.
+ */
+public class DependencyUnavailableException extends ErrorResponseException {
+
+    private final String dependency;
+
+    public DependencyUnavailableException(String dependency, String reason, Duration retryAfter) {
+        super(HttpStatus.SERVICE_UNAVAILABLE,
+                ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, dependency + " is unavailable: " + reason),
+                null);
+        this.dependency = dependency;
+        getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, retryAfter.toSeconds())));
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+
+    @Override
+    public String getMessage() {
+        return getBody().getDetail();
+    }
+}
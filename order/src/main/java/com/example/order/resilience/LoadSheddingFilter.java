@@ -0,0 +1,56 @@
+package com.example.order.resilience;
+
+import com.example.order.config.ResilienceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Turns new orders away at the door while a dependency they need is refusing calls, before
+ * the body is read and a request thread is committed to them. Reads are always served: they
+ * come from the database and the read cache.
+ */
+@Component
+public class LoadSheddingFilter extends OncePerRequestFilter {
+
+    private static final String ORDERS = "/api/orders";
+
+    private final DependencyGuard dependencyGuard;
+    private final ResilienceProperties properties;
+    private final Counter shed;
+
+    public LoadSheddingFilter(DependencyGuard dependencyGuard, ResilienceProperties properties, MeterRegistry meterRegistry) {
+        this.dependencyGuard = dependencyGuard;
+        this.properties = properties;
+        this.shed = Counter.builder("order.requests.shed")
+                .description("Order requests rejected with 503 while a dependency was saturated")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !request.getRequestURI().startsWith(ORDERS);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (properties.isSheddingEnabled() && dependencyGuard.saturated()) {
+            shed.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "Order dependencies are saturated");
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.order.service;
+
+import com.example.order.cache.OrderReadCache;
+import com.example.order.client.PaymentClient;
+import com.example.order.client.ProductClient;
+import com.example.order.config.BulkOrderProperties;
+import com.example.order.dto.OrderDtos.BulkCreateOrderRequest;
+import com.example.order.dto.OrderDtos.BulkCreateOrderResponse;
+import com.example.order.dto.OrderDtos.BulkOrderResult;
+import com.example.order.dto.OrderDtos.CreateOrderRequest;
+import com.example.order.entity.Order;
+import com.example.order.entity.OrderItem;
+import com.example.order.entity.OrderStatus;
+import com.example.order.events.OrderEventPublisher;
+import com.example.order.events.OrderEvents;
+import com.example.order.repository.OrderRepository;
+import com.example.order.resilience.DependencyGuard;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates many orders from one request. Stock and balances are fetched once for the whole
+ * import (chunked, in parallel) and allocated to orders in request order, so an order is
+ * only accepted if the orders before it left enough stock and balance for it. Each chunk
+ * of orders is inserted in its own transaction before the next one is allocated; a chunk
+ * that fails to insert gives its stock and balance back, so later orders are never
+ * rejected for orders that do not exist. With sequence ids Hibernate batches the
+ * {@code orders}, {@code order_items} and outbox inserts.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkOrderService {
+
+    static final String INSUFFICIENT_STOCK = "INSUFFICIENT_STOCK";
+    static final String INSUFFICIENT_BALANCE = "INSUFFICIENT_BALANCE";
+    static final String PERSISTENCE_FAILED = "PERSISTENCE_FAILED";
+    static final String FAILED = "FAILED";
+
+    private final OrderRepository orderRepository;
+    private final ProductClient productClient;
+    private final PaymentClient paymentClient;
+    private final DependencyGuard dependencyGuard;
+    private final OrderEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final Executor remoteCallExecutor;
+    private final BulkOrderProperties properties;
+    private final OrderReadCache readCache;
+
+    public BulkCreateOrderResponse createOrders(BulkCreateOrderRequest request) {
+        List<CreateOrderRequest> requests = request.orders();
+
+        // 1) Aggregate every line into one demand per product and one lookup per customer
+        Map<Long, Integer> demand = new LinkedHashMap<>();
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (CreateOrderRequest order : requests) {
+            customerIds.add(order.customerId());
+            order.items().forEach(i -> demand.merge(i.productId(), i.quantity(), Integer::sum));
+        }
+        CompletableFuture<Map<Long, BigDecimal>> balancesFuture = fetchBalances(customerIds);
+        Map<Long, ProductClient.AvailabilityResponse> availability;
+        try {
+            availability = fetchAvailability(demand);
+        } catch (RuntimeException ex) {
+            balancesFuture.cancel(false);
+            throw ex;
+        }
+        Map<Long, BigDecimal> balances = await(balancesFuture);
+        Map<Long, Integer> stock = new HashMap<>(availability.size());
+        availability.forEach((productId, a) -> stock.put(productId, a.availableQty() == null ? 0 : a.availableQty()));
+
+        // 2) Allocate in request order, one insert chunk at a time; rejected orders do not consume anything
+        OffsetDateTime now = OffsetDateTime.now();
+        List<BulkOrderResult> results = new ArrayList<>(requests.size());
+        String[] reasons = new String[requests.size()];
+        int chunkSize = properties.getInsertChunkSize();
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<Order> chunk = new ArrayList<>(Math.min(chunkSize, requests.size() - from));
+            for (int index = from; index < Math.min(from + chunkSize, requests.size()); index++) {
+                chunk.add(allocate(requests.get(index), index, reasons, availability, stock, balances, now));
+            }
+
+            // 3) Persist the chunk; a failed chunk only fails its own orders and frees what they took
+            boolean persisted = persist(chunk, reasons, from);
+            if (!persisted) {
+                giveBack(chunk, stock, balances);
+            }
+            for (int i = 0; i < chunk.size(); i++) {
+                Order order = chunk.get(i);
+                int index = from + i;
+                results.add(persisted
+                        ? new BulkOrderResult(index, order.getId(), order.getStatus().name(), reasons[index])
+                        : new BulkOrderResult(index, null, FAILED, PERSISTENCE_FAILED));
+            }
+        }
+
+        int created = (int) results.stream().filter(r -> OrderStatus.CREATED.name().equals(r.status())).count();
+        int rejected = (int) results.stream().filter(r -> OrderStatus.REJECTED.name().equals(r.status())).count();
+        return new BulkCreateOrderResponse(created, rejected, results.size() - created - rejected, results);
+    }
+
+    private static Order allocate(CreateOrderRequest r, int index, String[] reasons,
+                                  Map<Long, ProductClient.AvailabilityResponse> availability,
+                                  Map<Long, Integer> stock, Map<Long, BigDecimal> balances, OffsetDateTime now) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        r.items().forEach(i -> lines.merge(i.productId(), i.quantity(), Integer::sum));
+        BigDecimal totalAmount = lines.entrySet().stream()
+                .map(e -> OrderService.lineTotal(availability.get(e.getKey()), e.getValue()))
+                .reduce(BigDecimal.ZERO.setScale(2), BigDecimal::add);
+        BigDecimal balance = balances.getOrDefault(r.customerId(), BigDecimal.ZERO);
+
+        // Unpriced products do not exist
+        boolean inStock = lines.entrySet().stream()
+                .allMatch(e -> OrderService.unitPrice(availability.get(e.getKey())) != null
+                        && stock.getOrDefault(e.getKey(), 0) >= e.getValue());
+        boolean funded = balance.compareTo(totalAmount) >= 0;
+        if (inStock && funded) {
+            lines.forEach((productId, qty) -> stock.merge(productId, -qty, Integer::sum));
+            balances.put(r.customerId(), balance.subtract(totalAmount));
+        } else {
+            reasons[index] = inStock ? INSUFFICIENT_BALANCE : INSUFFICIENT_STOCK;
+        }
+        return toOrder(r, totalAmount, availability, reasons[index] == null ? OrderStatus.CREATED : OrderStatus.REJECTED, now);
+    }
+
+    // Undoes the allocation of a chunk's accepted orders
+    private static void giveBack(List<Order> chunk, Map<Long, Integer> stock, Map<Long, BigDecimal> balances) {
+        for (Order order : chunk) {
+            if (order.getStatus() != OrderStatus.CREATED) {
+                continue;
+            }
+            order.getItems().forEach(item -> stock.merge(item.getProductId(), item.getQuantity(), Integer::sum));
+            balances.merge(order.getCustomerId(), order.getTotalAmount(), BigDecimal::add);
+        }
+    }
+
+    private boolean persist(List<Order> chunk, String[] reasons, int offset) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                orderRepository.saveAll(chunk);
+                for (int i = 0; i < chunk.size(); i++) {
+                    Order order = chunk.get(i);
+                    var itemEvents = order.getItems().stream()
+                            .map(oi -> new OrderEvents.OrderItemEvent(oi.getProductId(), oi.getQuantity()))
+                            .toList();
+                    if (order.getStatus() == OrderStatus.CREATED) {
+                        eventPublisher.publishCreated(new OrderEvents.OrderCreatedEvent(order.getId(), order.getCustomerId(),
+                                itemEvents, order.getTotalAmount()));
+                    } else {
+                        eventPublisher.publishRejected(new OrderEvents.OrderRejectedEvent(order.getId(), order.getCustomerId(), reasons[offset + i], itemEvents));
+                    }
+                }
+                readCache.invalidateAfterCommit(List.of(), chunk.stream().map(Order::getCustomerId).distinct().toList());
+                // Send the batched inserts now and drop the managed entities so the
+                // persistence context does not grow with the size of the import
+                entityManager.flush();
+                entityManager.clear();
+            });
+            return true;
+        } catch (RuntimeException ex) {
+            log.error("Failed to persist bulk orders {}..{}", offset, offset + chunk.size() - 1, ex);
+            return false;
+        }
+    }
+
+    private Map<Long, ProductClient.AvailabilityResponse> fetchAvailability(Map<Long, Integer> demand) {
+        List<ProductClient.QuantityCheckItem> items = demand.entrySet().stream()
+                .map(e -> new ProductClient.QuantityCheckItem(e.getKey(), e.getValue()))
+                .toList();
+        List<CompletableFuture<List<ProductClient.AvailabilityResponse>>> calls = chunks(items).stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> dependencyGuard.callUnlimited(DependencyGuard.PRODUCT,
+                        () -> productClient.checkAvailability(chunk)), remoteCallExecutor))
+                .toList();
+        Map<Long, ProductClient.AvailabilityResponse> availability = new HashMap<>(demand.size());
+        for (var call : calls) {
+            for (ProductClient.AvailabilityResponse a : await(call)) {
+                availability.put(a.productId(), a);
+            }
+        }
+        return availability;
+    }
+
+    private CompletableFuture<Map<Long, BigDecimal>> fetchBalances(Set<Long> customerIds) {
+        List<CompletableFuture<List<PaymentClient.AccountBalance>>> calls = chunks(new ArrayList<>(customerIds)).stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> dependencyGuard.callUnlimited(DependencyGuard.PAYMENT,
+                        () -> paymentClient.balances(chunk)), remoteCallExecutor))
+                .toList();
+        return CompletableFuture.allOf(calls.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> {
+                    Map<Long, BigDecimal> balances = new HashMap<>(customerIds.size());
+                    calls.forEach(call -> call.join().forEach(b -> balances.put(b.customerId(), b.balance())));
+                    return balances;
+                });
+    }
+
+    private <T> List<List<T>> chunks(List<T> values) {
+        int size = properties.getCheckChunkSize();
+        List<List<T>> chunks = new ArrayList<>((values.size() + size - 1) / size);
+        for (int from = 0; from < values.size(); from += size) {
+            chunks.add(values.subList(from, Math.min(from + size, values.size())));
+        }
+        return chunks;
+    }
+
+    private static Order toOrder(CreateOrderRequest request, BigDecimal totalAmount,
+                                 Map<Long, ProductClient.AvailabilityResponse> availability,
+                                 OrderStatus status, OffsetDateTime createdAt) {
+        Order order = new Order();
+        order.setCustomerId(request.customerId());
+        order.setCreatedAt(createdAt);
+        order.setStatus(status);
+        order.setTotalAmount(totalAmount);
+        order.setItems(request.items().stream()
+                .map(i -> {
+                    var a = availability.get(i.productId());
+                    return OrderItem.builder()
+                            .order(order)
+                            .productId(i.productId())
+                            .quantity(i.quantity())
+                            .unitPrice(OrderService.unitPrice(a))
+                            .priceVersion(a == null ? null : a.priceVersion())
+                            .build();
+                })
+                .toList());
+        return order;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.order.service;
+
+import com.example.order.cache.OrderReadCache;
+import com.example.order.entity.OrderStatus;
+import com.example.order.events.OrderEvents;
+import com.example.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderLifecycleService {
+
+    private final OrderRepository orderRepository;
+    private final OrderReadCache readCache;
+
+    /**
+     * Moves orders to PAID or PAYMENT_FAILED with one UPDATE per target state. Only CREATED
+     * orders move, so redelivered results are no-ops. Payment results are final: the ledger
+     * gives every order exactly one outcome, so there is nothing to reorder. Returns how many
+     * orders changed state.
+     */
+    @Transactional
+    public int applyPaymentResults(List<?> events) {
+        Set<Long> paid = new LinkedHashSet<>();
+        Set<Long> failed = new LinkedHashSet<>();
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (Object event : events) {
+            if (event instanceof OrderEvents.PaymentCompletedEvent e && e.orderId() != null) {
+                paid.add(e.orderId());
+                customerIds.add(e.customerId());
+            } else if (event instanceof OrderEvents.PaymentFailedEvent e && e.orderId() != null) {
+                failed.add(e.orderId());
+                customerIds.add(e.customerId());
+            } else {
+                log.warn("Ignoring unexpected payment result {}", event);
+            }
+        }
+        int changed = 0;
+        if (!paid.isEmpty()) {
+            changed += orderRepository.transition(paid, OrderStatus.CREATED, OrderStatus.PAID);
+        }
+        if (!failed.isEmpty()) {
+            changed += orderRepository.transition(failed, OrderStatus.CREATED, OrderStatus.PAYMENT_FAILED);
+        }
+        if (changed > 0) {
+            Set<Long> orderIds = new LinkedHashSet<>(paid);
+            orderIds.addAll(failed);
+            customerIds.remove(null);
+            readCache.invalidateAfterCommit(orderIds, customerIds);
+        }
+        if (changed < paid.size() + failed.size()) {
+            log.debug("{} of {} payment results were already applied", paid.size() + failed.size() - changed, paid.size() + failed.size());
+        }
+        return changed;
+    }
+}
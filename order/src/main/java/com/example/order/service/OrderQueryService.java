@@ -0,0 +1,90 @@
+package com.example.order.service;
+
+import com.example.order.cache.OrderReadCache;
+import com.example.order.config.OrderReadCacheProperties;
+import com.example.order.dto.OrderDtos.OrderHeader;
+import com.example.order.dto.OrderDtos.OrderItemResponse;
+import com.example.order.dto.OrderDtos.OrderResponse;
+import com.example.order.pagination.CursorPage;
+import com.example.order.pagination.OrderCursor;
+import com.example.order.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Order reads built from DTO projections: one query for the order rows of a page and one
+ * for all their items, never an entity graph with lazy collections. History is read newest
+ * first with a keyset cursor, so every page costs the same however many orders the customer
+ * has.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderQueryService {
+
+    private final OrderRepository orderRepository;
+    private final OrderReadCache readCache;
+    private final OrderReadCacheProperties properties;
+
+    public Optional<OrderResponse> findById(Long id) {
+        return Optional.ofNullable(readCache.getOrder(id, this::loadOrder));
+    }
+
+    /**
+     * One page of a customer's orders. First pages up to {@code recentPerCustomer} orders
+     * come from the customer's cached latest orders. Throws {@link IllegalArgumentException}
+     * for an unreadable cursor.
+     */
+    public CursorPage<OrderResponse> findByCustomer(Long customerId, int size, String cursor) {
+        OrderCursor after = cursor == null ? null : OrderCursor.decode(cursor);
+        List<OrderResponse> rows;
+        if (after == null && size <= properties.getRecentPerCustomer()) {
+            // One extra row tells whether anything follows the cached window
+            rows = readCache.getRecent(customerId, id -> loadPage(id, null, properties.getRecentPerCustomer() + 1));
+        } else {
+            rows = loadPage(customerId, after, size + 1);
+        }
+
+        boolean hasMore = rows.size() > size;
+        List<OrderResponse> content = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderResponse last = content.get(content.size() - 1);
+            nextCursor = new OrderCursor(last.createdAt(), last.id()).encode();
+        }
+        return new CursorPage<>(List.copyOf(content), size, nextCursor);
+    }
+
+    private OrderResponse loadOrder(Long id) {
+        return orderRepository.findHeaderById(id)
+                .map(header -> withItems(List.of(header)).get(0))
+                .orElse(null);
+    }
+
+    private List<OrderResponse> loadPage(Long customerId, OrderCursor after, int limit) {
+        List<OrderHeader> headers = after == null
+                ? orderRepository.findLatestHeaders(customerId, Limit.of(limit))
+                : orderRepository.findHeadersBefore(customerId, after.createdAt(), after.id(), Limit.of(limit));
+        return withItems(headers);
+    }
+
+    private List<OrderResponse> withItems(List<OrderHeader> headers) {
+        if (headers.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, List<OrderItemResponse>> itemsByOrder = new HashMap<>(headers.size());
+        orderRepository.findItemRows(headers.stream().map(OrderHeader::id).toList())
+                .forEach(row -> itemsByOrder.computeIfAbsent(row.orderId(), id -> new ArrayList<>())
+                        .add(new OrderItemResponse(row.productId(), row.quantity(), row.unitPrice())));
+        return headers.stream()
+                .map(h -> new OrderResponse(h.id(), h.customerId(), h.status().name(), h.totalAmount(), h.createdAt(),
+                        List.copyOf(itemsByOrder.getOrDefault(h.id(), List.of()))))
+                .toList();
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.order.service;
 
-import com.example.order.client.ProductClient;
+import com.example.order.cache.OrderReadCache;
+import com.example.order.client.AvailabilityBatcher;
 import com.example.order.client.PaymentClient;
-import com.example.order.dto.OrderDtos.CreateOrderItemRequest;
+import com.example.order.client.ProductClient;
+import com.example.order.client.RequestHedger;
 import com.example.order.dto.OrderDtos.CreateOrderRequest;
 import com.example.order.dto.OrderDtos.OrderItemResponse;
 import com.example.order.dto.OrderDtos.OrderResponse;
@@ -10,85 +12,176 @@ import com.example.order.entity.Order;
 import com.example.order.entity.OrderItem;
 import com.example.order.entity.OrderStatus;
 import com.example.order.repository.OrderRepository;
+import com.example.order.resilience.DependencyGuard;
 import com.example.order.events.OrderEventPublisher;
 import com.example.order.events.OrderEvents;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 public class OrderService {
 
     private final OrderRepository orderRepository;
-    private final ProductClient productClient;
+    private final AvailabilityBatcher availabilityBatcher;
     private final PaymentClient paymentClient;
+    private final RequestHedger hedger;
+    private final DependencyGuard dependencyGuard;
     private final OrderEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final Executor remoteCallExecutor;
+    private final OrderReadCache readCache;
+    // Remote calls are timed per client by the Feign observation; these time each phase as a whole
+    private final Timer checksTimer;
+    private final Timer persistTimer;
+
+    public OrderService(OrderRepository orderRepository,
+                        AvailabilityBatcher availabilityBatcher,
+                        PaymentClient paymentClient,
+                        RequestHedger hedger,
+                        DependencyGuard dependencyGuard,
+                        OrderEventPublisher eventPublisher,
+                        TransactionTemplate transactionTemplate,
+                        Executor remoteCallExecutor,
+                        OrderReadCache readCache,
+                        MeterRegistry meterRegistry) {
+        this.orderRepository = orderRepository;
+        this.availabilityBatcher = availabilityBatcher;
+        this.paymentClient = paymentClient;
+        this.hedger = hedger;
+        this.dependencyGuard = dependencyGuard;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.remoteCallExecutor = remoteCallExecutor;
+        this.readCache = readCache;
+        this.checksTimer = phaseTimer("checks", meterRegistry);
+        this.persistTimer = phaseTimer("persist", meterRegistry);
+    }
 
-    @Transactional
+    // Not transactional: both remote calls run before a JDBC connection is borrowed,
+    // and only the insert and event publication run inside the transaction.
+    // Availability answers carry each product's price snapshot, so the total is computed
+    // here and compared with a balance fetched in parallel: pricing costs no extra call.
     public OrderResponse createOrder(CreateOrderRequest request) {
-        // 1) Check availability with product service
         List<ProductClient.QuantityCheckItem> items = request.items().stream()
                 .map(i -> new ProductClient.QuantityCheckItem(i.productId(), i.quantity()))
                 .toList();
-        var availability = productClient.checkAvailability(items);
+
+        // 1) Check availability with product service and fetch the balance concurrently
+        Timer.Sample checks = Timer.start();
+        CompletableFuture<PaymentClient.AccountBalance> balanceFetch = CompletableFuture.supplyAsync(
+                () -> hedger.call("payment.balance",
+                        () -> dependencyGuard.call(DependencyGuard.PAYMENT, () -> paymentClient.balance(request.customerId()))),
+                remoteCallExecutor);
+        List<ProductClient.AvailabilityResponse> availability;
+        try {
+            availability = availabilityBatcher.checkAvailability(items);
+        } catch (RuntimeException ex) {
+            balanceFetch.cancel(false);
+            throw ex;
+        }
+        PaymentClient.AccountBalance account = await(balanceFetch);
+        checks.stop(checksTimer);
+
         Map<Long, ProductClient.AvailabilityResponse> byId = availability.stream()
-                .collect(Collectors.toMap(ProductClient.AvailabilityResponse::productId, a -> a));
+                .collect(Collectors.toMap(ProductClient.AvailabilityResponse::productId, a -> a, (a, b) -> a.available() ? b : a));
 
+        // A product without a price does not exist and cannot be ordered
         boolean allAvailable = request.items().stream()
                 .allMatch(i -> {
                     var a = byId.get(i.productId());
-                    return a != null && a.available();
+                    return a != null && a.available() && a.price() != null;
                 });
+        BigDecimal totalAmount = request.items().stream()
+                .map(i -> lineTotal(byId.get(i.productId()), i.quantity()))
+                .reduce(BigDecimal.ZERO.setScale(2), BigDecimal::add);
+        boolean funded = account != null && account.balance() != null && account.balance().compareTo(totalAmount) >= 0;
+        String rejection = !allAvailable ? BulkOrderService.INSUFFICIENT_STOCK
+                : funded ? null : BulkOrderService.INSUFFICIENT_BALANCE;
 
         Order order = new Order();
         order.setCustomerId(request.customerId());
         order.setCreatedAt(OffsetDateTime.now());
-        order.setStatus(allAvailable ? OrderStatus.CREATED : OrderStatus.REJECTED);
+        order.setStatus(rejection == null ? OrderStatus.CREATED : OrderStatus.REJECTED);
 
         List<OrderItem> orderItems = request.items().stream()
-                .map(i -> OrderItem.builder()
-                        .order(order)
-                        .productId(i.productId())
-                        .quantity(i.quantity())
-                        .build())
+                .map(i -> {
+                    var a = byId.get(i.productId());
+                    return OrderItem.builder()
+                            .order(order)
+                            .productId(i.productId())
+                            .quantity(i.quantity())
+                            .unitPrice(unitPrice(a))
+                            .priceVersion(a == null ? null : a.priceVersion())
+                            .build();
+                })
                 .toList();
 
         order.setItems(orderItems);
-        // TODO: compute actual total if price service exists; using quantity sum as placeholder amount
-        BigDecimal totalAmount = BigDecimal.valueOf(orderItems.stream().mapToInt(OrderItem::getQuantity).sum());
         order.setTotalAmount(totalAmount);
 
-        // Precheck balance before placing order
-        Boolean ok = paymentClient.precheck(request.customerId(), totalAmount);
-        if (ok == null || !ok) {
-            order.setStatus(OrderStatus.REJECTED);
-        }
-
-        Order saved = orderRepository.save(order);
-
-        // Publish domain events
-        var itemEvents = saved.getItems().stream()
-                .map(oi -> new OrderEvents.OrderItemEvent(oi.getProductId(), oi.getQuantity()))
-                .toList();
-        if (saved.getStatus() == OrderStatus.CREATED) {
-            eventPublisher.publishCreated(new OrderEvents.OrderCreatedEvent(saved.getId(), saved.getCustomerId(), itemEvents));
-        } else {
-            eventPublisher.publishRejected(new OrderEvents.OrderRejectedEvent(saved.getId(), saved.getCustomerId(), "INSUFFICIENT_STOCK", itemEvents));
-        }
+        // 2) Persist and publish domain events in one short transaction
+        Order saved = persistTimer.record(() -> transactionTemplate.execute(status -> {
+            Order persisted = orderRepository.save(order);
+            var itemEvents = persisted.getItems().stream()
+                    .map(oi -> new OrderEvents.OrderItemEvent(oi.getProductId(), oi.getQuantity()))
+                    .toList();
+            if (persisted.getStatus() == OrderStatus.CREATED) {
+                eventPublisher.publishCreated(new OrderEvents.OrderCreatedEvent(persisted.getId(), persisted.getCustomerId(),
+                        itemEvents, persisted.getTotalAmount()));
+            } else {
+                eventPublisher.publishRejected(new OrderEvents.OrderRejectedEvent(persisted.getId(), persisted.getCustomerId(), rejection, itemEvents));
+            }
+            readCache.invalidateAfterCommit(List.of(), List.of(persisted.getCustomerId()));
+            return persisted;
+        }));
 
         List<OrderItemResponse> itemResponses = saved.getItems().stream()
-                .map(oi -> new OrderItemResponse(oi.getProductId(), oi.getQuantity()))
+                .map(oi -> new OrderItemResponse(oi.getProductId(), oi.getQuantity(), oi.getUnitPrice()))
                 .toList();
 
-        return new OrderResponse(saved.getId(), saved.getCustomerId(), saved.getStatus(), saved.getTotalAmount(), itemResponses);
+        return new OrderResponse(saved.getId(), saved.getCustomerId(), saved.getStatus().name(), saved.getTotalAmount(),
+                saved.getCreatedAt(), itemResponses);
+    }
+
+    // Prices are rounded half-up to two decimal places, the scale of the stored unit price column
+    static BigDecimal unitPrice(ProductClient.AvailabilityResponse availability) {
+        return availability == null || availability.price() == null
+                ? null
+                : availability.price().setScale(2, RoundingMode.HALF_UP);
+    }
+
+    static BigDecimal lineTotal(ProductClient.AvailabilityResponse availability, int quantity) {
+        BigDecimal unitPrice = unitPrice(availability);
+        return unitPrice == null ? BigDecimal.ZERO.setScale(2) : unitPrice.multiply(BigDecimal.valueOf(quantity));
     }
-}
 
+    private static Timer phaseTimer(String phase, MeterRegistry meterRegistry) {
+        return Timer.builder("order.create.phase")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
 
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.order.client;
+
+import com.example.order.client.ProductClient.AvailabilityResponse;
+import com.example.order.client.ProductClient.QuantityCheckItem;
+import com.example.order.config.AvailabilityBatchProperties;
+import com.example.order.config.HedgingProperties;
+import com.example.order.config.ResilienceProperties;
+import com.example.order.resilience.DependencyGuard;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class AvailabilityBatcherTest {
+
+    @Mock
+    private ProductClient productClient;
+
+    private AvailabilityBatchProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private AvailabilityBatcher batcher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        properties = new AvailabilityBatchProperties();
+        properties.setMaxItems(2);
+        properties.setMaxWait(Duration.ofSeconds(30));
+        meterRegistry = new SimpleMeterRegistry();
+        batcher = new AvailabilityBatcher(productClient, new RequestHedger(new HedgingProperties(), Runnable::run, meterRegistry),
+                new DependencyGuard(new ResilienceProperties(), meterRegistry), properties, meterRegistry);
+    }
+
+    @Test
+    void checkAvailability_shouldAskForEachProductOnceAndAnswerEveryCallerForItsOwnQuantities() throws Exception {
+        when(productClient.checkAvailability(List.of(new QuantityCheckItem(1L, 5), new QuantityCheckItem(2L, 1))))
+                .thenReturn(List.of(response(1L, 4), response(2L, 9)));
+
+        // Another check is in flight, so the first caller leads the batch and waits; the second fills it
+        CountDownLatch inFlight = holdOneCheckInFlight();
+        CompletableFuture<Thread> leader = new CompletableFuture<>();
+        CompletableFuture<List<AvailabilityResponse>> first = CompletableFuture.supplyAsync(() -> {
+            leader.complete(Thread.currentThread());
+            return batcher.checkAvailability(List.of(new QuantityCheckItem(1L, 3)));
+        });
+        awaitParked(leader.get(5, TimeUnit.SECONDS));
+        List<AvailabilityResponse> second = batcher.checkAvailability(
+                List.of(new QuantityCheckItem(1L, 5), new QuantityCheckItem(2L, 1)));
+
+        assertEquals(List.of(new AvailabilityResponse(1L, true, 4, BigDecimal.TEN, 1L)), first.get(5, TimeUnit.SECONDS));
+        assertEquals(List.of(
+                new AvailabilityResponse(1L, false, 4, BigDecimal.TEN, 1L),
+                new AvailabilityResponse(2L, true, 9, BigDecimal.TEN, 1L)), second);
+        verify(productClient, times(1))
+                .checkAvailability(List.of(new QuantityCheckItem(1L, 5), new QuantityCheckItem(2L, 1)));
+        DistributionSummary callers = meterRegistry.get("order.availability.batch.callers").summary();
+        assertEquals(2, callers.max());
+        assertEquals(1.0, meterRegistry.get("order.availability.batch.fill").summary().max());
+        inFlight.countDown();
+    }
+
+    @Test
+    void checkAvailability_shouldSendAtOnceWhenNoOtherCheckIsInFlight() {
+        when(productClient.checkAvailability(List.of(new QuantityCheckItem(3L, 2))))
+                .thenReturn(List.of(response(3L, 5)));
+
+        // maxWait is 30s: waiting for it would time the test out
+        List<AvailabilityResponse> result = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> batcher.checkAvailability(List.of(new QuantityCheckItem(3L, 2))));
+
+        assertEquals(List.of(response(3L, 5)), result);
+    }
+
+    @Test
+    void checkAvailability_shouldSendAPartialBatchOnceTheWaitIsOver() throws Exception {
+        properties.setMaxWait(Duration.ofMillis(1));
+        CountDownLatch inFlight = holdOneCheckInFlight();
+        when(productClient.checkAvailability(List.of(new QuantityCheckItem(3L, 2))))
+                .thenReturn(List.of());
+
+        List<AvailabilityResponse> result = batcher.checkAvailability(List.of(new QuantityCheckItem(3L, 2)));
+
+        // Products the answer leaves out do not exist
+        assertEquals(List.of(new AvailabilityResponse(3L, false, 0, null, null)), result);
+        assertEquals(0.5, meterRegistry.get("order.availability.batch.fill").summary().max());
+        inFlight.countDown();
+    }
+
+    @Test
+    void checkAvailability_shouldFailEveryCallerOfAFailedBatch() throws Exception {
+        when(productClient.checkAvailability(anyList())).thenThrow(new IllegalStateException("product down"));
+        CountDownLatch inFlight = holdOneCheckInFlight();
+
+        CompletableFuture<Thread> leader = new CompletableFuture<>();
+        CompletableFuture<List<AvailabilityResponse>> first = CompletableFuture.supplyAsync(() -> {
+            leader.complete(Thread.currentThread());
+            return batcher.checkAvailability(List.of(new QuantityCheckItem(1L, 1)));
+        });
+        awaitParked(leader.get(5, TimeUnit.SECONDS));
+
+        assertThrows(IllegalStateException.class,
+                () -> batcher.checkAvailability(List.of(new QuantityCheckItem(2L, 1))));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        inFlight.countDown();
+    }
+
+    @Test
+    void checkAvailability_shouldCallThroughWhenDisabled() {
+        properties.setEnabled(false);
+        List<QuantityCheckItem> items = List.of(new QuantityCheckItem(1L, 1), new QuantityCheckItem(1L, 2));
+        when(productClient.checkAvailability(items)).thenReturn(List.of(response(1L, 1), response(1L, 1)));
+
+        assertEquals(2, batcher.checkAvailability(items).size());
+        verify(productClient).checkAvailability(items);
+    }
+
+    private static AvailabilityResponse response(long productId, int availableQty) {
+        return new AvailabilityResponse(productId, true, availableQty, BigDecimal.TEN, 1L);
+    }
+
+    // Starts a check whose product call blocks until the returned latch is released
+    private CountDownLatch holdOneCheckInFlight() throws InterruptedException {
+        CountDownLatch calling = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            calling.countDown();
+            release.await();
+            return List.of(response(9L, 1));
+        }).when(productClient).checkAvailability(List.of(new QuantityCheckItem(9L, 1)));
+        Thread check = new Thread(() -> batcher.checkAvailability(List.of(new QuantityCheckItem(9L, 1))));
+        check.setDaemon(true);
+        check.start();
+        assertTrue(calling.await(5, TimeUnit.SECONDS), "in-flight check never reached the product service");
+        return release;
+    }
+
+    // The leader parks in a timed wait only while it holds an open batch
+    private static void awaitParked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (thread.getState() != Thread.State.TIMED_WAITING) {
+            assertTrue(System.nanoTime() < deadline, "leader never started waiting");
+            Thread.sleep(1);
+        }
+    }
+}
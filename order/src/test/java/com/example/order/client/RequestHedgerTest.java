@@ -0,0 +1,143 @@
+package com.example.order.client;
+
+import com.example.order.config.HedgingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestHedgerTest {
+
+    private HedgingProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+    private ExecutorService executor;
+    private RequestHedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        properties = new HedgingProperties();
+        properties.setEnabled(true);
+        properties.setMinSamples(4);
+        properties.setWindow(8);
+        properties.setMinDelay(Duration.ofMillis(20));
+        properties.setBudget(1.0);
+        meterRegistry = new SimpleMeterRegistry();
+        executor = Executors.newCachedThreadPool();
+        hedger = new RequestHedger(properties, executor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void call_shouldAnswerFromTheHedgeWhenTheFirstAttemptStalls() throws Exception {
+        warmUp();
+        CountDownLatch stalled = new CountDownLatch(1);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.call("product.availability", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                await(stalled);
+                return "first";
+            }
+            return "hedge";
+        });
+
+        assertEquals("hedge", result);
+        assertEquals(20, meterRegistry.get("order.hedge.delay").timeGauge().value(TimeUnit.MILLISECONDS));
+        stalled.countDown();
+        // The winner is counted on the hedge's thread after the caller already has its answer
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, meterRegistry.get("order.hedge.sent").counter().count());
+        assertEquals(1, meterRegistry.get("order.hedge.won").counter().count());
+    }
+
+    @Test
+    void call_shouldNotHedgeBeforeEnoughCallsWereSeen() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.call("product.availability", () -> {
+            attempts.incrementAndGet();
+            sleep(50);
+            return "only";
+        });
+
+        assertEquals("only", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.get("order.hedge.sent").counter().count());
+    }
+
+    @Test
+    void call_shouldWaitForTheFirstAttemptOnceTheBudgetIsSpent() {
+        properties.setBudget(0);
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = hedger.call("product.availability", () -> {
+            attempts.incrementAndGet();
+            sleep(50);
+            return "first";
+        });
+
+        assertEquals("first", result);
+        assertEquals(1, attempts.get());
+        assertEquals(0, meterRegistry.get("order.hedge.sent").counter().count());
+    }
+
+    @Test
+    void call_shouldFailOnlyOnceBothAttemptsFailed() {
+        warmUp();
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalStateException.class, () -> hedger.call("product.availability", () -> {
+            if (attempts.incrementAndGet() == 1) {
+                sleep(50);
+            }
+            throw new IllegalStateException("product down");
+        }));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void call_shouldRunOnTheCallersThreadWhenDisabled() {
+        properties.setEnabled(false);
+        Thread caller = Thread.currentThread();
+
+        assertSame(caller, hedger.call("payment.balance", Thread::currentThread));
+        assertTrue(meterRegistry.find("order.hedge.sent").counters().isEmpty());
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < properties.getMinSamples(); i++) {
+            hedger.call("product.availability", () -> "warm");
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.order.events;
+
+import com.example.order.config.OrderTopicsProperties;
+import com.example.order.entity.OutboxEvent;
+import com.example.order.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class OrderEventPublisherTest {
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    private OrderEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        OrderTopicsProperties topics = new OrderTopicsProperties();
+        topics.setCreated("ORDER_CREATED");
+        topics.setPaymentFailed("PAYMENT_FAILED");
+        publisher = new OrderEventPublisher(outboxRepository, topics, new ObjectMapper(), Tracer.NOOP, Propagator.NOOP);
+    }
+
+    @Test
+    void publish_shouldKeyEveryEventByCustomer() {
+        publisher.publishCreated(new OrderEvents.OrderCreatedEvent(1L, 7L, List.of(), BigDecimal.TEN));
+        publisher.publishPaymentFailed(new OrderEvents.PaymentFailedEvent(1L, 7L, "INSUFFICIENT_FUNDS"));
+
+        ArgumentCaptor<OutboxEvent> rows = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository, times(2)).save(rows.capture());
+        assertEquals(List.of("ORDER_CREATED", "PAYMENT_FAILED"), rows.getAllValues().stream().map(OutboxEvent::getTopic).toList());
+        assertEquals(List.of("7", "7"), rows.getAllValues().stream().map(OutboxEvent::getMessageKey).toList());
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.order.events;
+
+import com.example.order.config.OutboxProperties;
+import com.example.order.entity.OutboxEvent;
+import com.example.order.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxRepository;
+
+    @Mock
+    private KafkaTemplate<String, Object> kafkaTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        relay = new OutboxRelay(outboxRepository, kafkaTemplate, transactionTemplate, new ObjectMapper(), new OutboxProperties(),
+                Tracer.NOOP, Propagator.NOOP, new SimpleMeterRegistry());
+        when(outboxRepository.tryLockRelay(OutboxRelay.RELAY_LOCK)).thenReturn(true);
+    }
+
+    @Test
+    void relayBatch_shouldSendEveryRowAndMarkThemSentTogether() {
+        when(outboxRepository.lockUnsent(500)).thenReturn(List.of(
+                row(1L, "ORDER_CREATED", "OrderCreatedEvent", "{\"orderId\":1,\"customerId\":7,\"items\":[]}"),
+                row(2L, "ORDER_REJECTED", "OrderRejectedEvent", "{\"orderId\":2,\"customerId\":7,\"reason\":\"INSUFFICIENT_STOCK\",\"items\":[]}")));
+        when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(2, relay.relayBatch());
+
+        verify(kafkaTemplate).send("ORDER_CREATED", null, new OrderEvents.OrderCreatedEvent(1L, 7L, List.of(), null));
+        verify(kafkaTemplate).send("ORDER_REJECTED", null, new OrderEvents.OrderRejectedEvent(2L, 7L, "INSUFFICIENT_STOCK", List.of()));
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L)), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void relayBatch_shouldLeaveRowsUnsentWhenASendFails() {
+        when(outboxRepository.lockUnsent(500)).thenReturn(List.of(
+                row(1L, "ORDER_CREATED", "OrderCreatedEvent", "{\"orderId\":1,\"customerId\":7,\"items\":[]}")));
+        when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        assertThrows(IllegalStateException.class, () -> relay.relayBatch());
+
+        verify(outboxRepository, never()).markSent(anyList(), any());
+    }
+
+    @Test
+    void relayBatch_shouldParkUnreadableRowsAndSendTheRest() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxRepository, kafkaTemplate, transactionTemplate, new ObjectMapper(), new OutboxProperties(),
+                Tracer.NOOP, Propagator.NOOP, meterRegistry);
+        when(outboxRepository.lockUnsent(500)).thenReturn(List.of(
+                row(1L, "ORDER_CREATED", "OrderShippedEvent", "{\"orderId\":1}"),
+                row(2L, "ORDER_CREATED", "OrderCreatedEvent", "{not json"),
+                row(3L, "ORDER_CREATED", "OrderCreatedEvent", "{\"orderId\":3,\"customerId\":7,\"items\":[]}")));
+        when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        assertEquals(3, relay.relayBatch());
+
+        verify(kafkaTemplate, times(1)).send(anyString(), any(), any());
+        verify(outboxRepository).markSent(eq(List.of(3L)), any(OffsetDateTime.class));
+        verify(outboxRepository).markParked(eq(List.of(1L, 2L)), any(OffsetDateTime.class));
+        assertEquals(2, meterRegistry.get("order.outbox.parked").counter().count());
+    }
+
+    @Test
+    void relayBatch_shouldLeaveTheOutboxToTheInstanceHoldingTheRelayLock() {
+        when(outboxRepository.tryLockRelay(OutboxRelay.RELAY_LOCK)).thenReturn(false);
+
+        assertEquals(0, relay.relayBatch());
+
+        verify(outboxRepository, never()).lockUnsent(anyInt());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void relayBatch_shouldSendEachRowInTheTraceThatWroteIt() {
+        Tracer tracer = mock(Tracer.class);
+        Propagator propagator = mock(Propagator.class);
+        Span.Builder builder = mock(Span.Builder.class);
+        Span span = mock(Span.class);
+        when(propagator.extract(any(), any())).thenReturn(builder);
+        when(builder.name(anyString())).thenReturn(builder);
+        when(builder.start()).thenReturn(span);
+        when(tracer.withSpan(span)).thenReturn(mock(Tracer.SpanInScope.class));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(outboxRepository, kafkaTemplate, transactionTemplate, new ObjectMapper(), new OutboxProperties(),
+                tracer, propagator, meterRegistry);
+
+        OutboxEvent traced = row(1L, "ORDER_CREATED", "OrderCreatedEvent", "{\"orderId\":1,\"customerId\":7,\"items\":[]}");
+        traced.setTraceContext("{\"traceparent\":\"00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01\"}");
+        when(outboxRepository.lockUnsent(500)).thenReturn(List.of(traced,
+                row(2L, "ORDER_CREATED", "OrderCreatedEvent", "{\"orderId\":2,\"customerId\":7,\"items\":[]}")));
+        when(kafkaTemplate.send(anyString(), any(), any())).thenReturn(CompletableFuture.completedFuture(null));
+
+        relay.relayBatch();
+
+        verify(propagator, times(1)).extract(eq(Map.of("traceparent", "00-0af7651916cd43dd8448eb211c80319c-b7ad6b7169203331-01")), any());
+        verify(tracer, times(1)).withSpan(span);
+        verify(span).end();
+        assertEquals(2, meterRegistry.get("order.outbox.delay").timer().count());
+    }
+
+    private static OutboxEvent row(Long id, String topic, String type, String payload) {
+        return OutboxEvent.builder().id(id).topic(topic).eventType(type).payload(payload).createdAt(OffsetDateTime.now()).build();
+    }
+}
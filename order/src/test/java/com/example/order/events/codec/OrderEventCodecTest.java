@@ -0,0 +1,105 @@
+package com.example.order.events.codec;
+
+import com.example.order.events.OrderEvents.OrderCreatedEvent;
+import com.example.order.events.OrderEvents.OrderItemEvent;
+import com.example.order.events.OrderEvents.OrderRejectedEvent;
+import com.example.order.events.OrderEvents.PaymentCompletedEvent;
+import com.example.order.events.OrderEvents.PaymentFailedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderEventCodecTest {
+
+    private final OrderEventSerializer serializer = new OrderEventSerializer();
+    private final OrderEventDeserializer deserializer = new OrderEventDeserializer();
+
+    @Test
+    void roundTrip_shouldPreserveEveryEventIncludingNullsAndNegatives() {
+        List<OrderItemEvent> items = Arrays.asList(new OrderItemEvent(1L, 2), null, new OrderItemEvent(Long.MAX_VALUE, null));
+        List<Object> events = List.of(
+                new OrderCreatedEvent(1_000_001L, 42L, items, new BigDecimal("1234.50")),
+                new OrderCreatedEvent(2L, 42L, List.of(), new BigDecimal("-0.01")),
+                new OrderCreatedEvent(-5L, null, null, null),
+                new OrderRejectedEvent(7L, 42L, "INSUFFICIENT_STOCK ü€", List.of()),
+                new PaymentCompletedEvent(Long.MIN_VALUE, 0L),
+                new PaymentFailedEvent(8L, 42L, null));
+
+        for (Object event : events) {
+            byte[] bytes = serializer.serialize("t", event);
+            assertEquals(event, deserializer.deserialize("t", null, bytes));
+            assertEquals(event, deserializer.deserialize("t", null, ByteBuffer.wrap(bytes)));
+        }
+    }
+
+    @Test
+    void serialize_shouldBeFarSmallerThanJson() throws Exception {
+        List<OrderItemEvent> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(new OrderItemEvent(1_000L + i, 1 + i % 3));
+        }
+        OrderCreatedEvent event = new OrderCreatedEvent(1_000_001L, 42L, items, new BigDecimal("199.90"));
+
+        int binary = serializer.serialize("t", event).length;
+        int json = new ObjectMapper().writeValueAsBytes(event).length;
+
+        assertTrue(binary * 5 < json, "binary " + binary + " bytes, json " + json + " bytes");
+    }
+
+    @Test
+    void read_shouldIgnoreFieldsAppendedByNewerWriters() {
+        // A newer writer appended a string field to PaymentCompletedEvent (field 2)
+        OrderEventCodec.Writer writer = new OrderEventCodec.Writer(16);
+        writer.writeByte(OrderEventCodec.FORMAT);
+        writer.writeVarLong(OrderEventCodec.PAYMENT_COMPLETED);
+        writer.writePresence(9L, 3L, "EUR");
+        writer.writeLong(9L);
+        writer.writeLong(3L);
+        writer.writeString("EUR");
+
+        assertEquals(new PaymentCompletedEvent(9L, 3L), deserializer.deserialize("t", writer.toByteArray()));
+    }
+
+    @Test
+    void read_shouldLeaveTheAmountNullInCreatedEventsFromOlderWriters() {
+        OrderEventCodec.Writer writer = new OrderEventCodec.Writer(16);
+        writer.writeByte(OrderEventCodec.FORMAT);
+        writer.writeVarLong(OrderEventCodec.ORDER_CREATED);
+        writer.writePresence(9L, 3L, List.of());
+        writer.writeLong(9L);
+        writer.writeLong(3L);
+        writer.writeVarLong(0);
+
+        assertEquals(new OrderCreatedEvent(9L, 3L, List.of(), null), deserializer.deserialize("t", writer.toByteArray()));
+    }
+
+    @Test
+    void endLengthPrefixed_shouldWidenPrefixForLongBodies() {
+        OrderEventCodec.Writer writer = new OrderEventCodec.Writer(4);
+        int start = writer.beginLengthPrefixed();
+        writer.writeString("x".repeat(200));
+        writer.endLengthPrefixed(start);
+
+        OrderEventCodec.Reader reader = new OrderEventCodec.Reader(writer.toByteArray(), 0, writer.size());
+        assertEquals(202, reader.readVarLong());
+        assertEquals("x".repeat(200), reader.readString(1, 0));
+    }
+
+    @Test
+    void deserialize_shouldStillReadJsonEventsWrittenBeforeTheSwitch() throws Exception {
+        PaymentFailedEvent event = new PaymentFailedEvent(8L, 42L, "INSUFFICIENT_FUNDS");
+        RecordHeaders headers = new RecordHeaders();
+        headers.add("__TypeId__", "com.example.payment.events.OrderEvents$PaymentFailedEvent".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(event, deserializer.deserialize("t", headers, new ObjectMapper().writeValueAsBytes(event)));
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.order.loadbalancer;
+
+import com.example.order.config.LoadBalancingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PeakEwmaLoadBalancerTest {
+
+    private static final long DECAY = TimeUnit.SECONDS.toNanos(10);
+
+    private final ServiceInstance fast = new DefaultServiceInstance("product-1", "product", "10.0.0.1", 8081, false);
+    private final ServiceInstance slow = new DefaultServiceInstance("product-2", "product", "10.0.0.2", 8081, false);
+
+    private SimpleMeterRegistry meterRegistry;
+    private InstanceLoadRegistry registry;
+    private PeakEwmaLoadBalancer loadBalancer;
+    private long now;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        LoadBalancingProperties properties = new LoadBalancingProperties();
+        properties.setDecay(Duration.ofSeconds(10));
+        registry = new InstanceLoadRegistry(properties, meterRegistry);
+        loadBalancer = new PeakEwmaLoadBalancer(null, "product", registry);
+    }
+
+    @Test
+    void instanceLoad_shouldTakeASlowResponseAtOnceAndForgetItGradually() {
+        InstanceLoad load = new InstanceLoad(DECAY, () -> now);
+
+        load.start();
+        load.end(1_000_000);
+        load.start();
+        load.end(50_000_000);
+        assertEquals(50_000_000, load.latencyNanos());
+
+        // One decay period later a fast answer carries most of the weight
+        now += DECAY;
+        load.start();
+        load.end(1_000_000);
+        assertEquals(1_000_000 + 49_000_000 * Math.exp(-1), load.latencyNanos(), 1);
+    }
+
+    @Test
+    void instanceLoad_shouldAvoidAnInstanceThatHasRequestsInFlightButNeverAnswered() {
+        InstanceLoad unanswered = new InstanceLoad(DECAY, () -> now);
+        InstanceLoad answered = new InstanceLoad(DECAY, () -> now);
+        answered.start();
+        answered.end(TimeUnit.SECONDS.toNanos(5));
+
+        unanswered.start();
+
+        assertTrue(unanswered.cost() > answered.cost());
+        assertEquals(1, unanswered.outstanding());
+    }
+
+    @Test
+    void choose_shouldPreferTheInstanceWithTheLowerLatency() {
+        record(fast, 2_000_000);
+        record(slow, 200_000_000);
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(fast, loadBalancer.choose(List.of(fast, slow)).getServer());
+        }
+    }
+
+    @Test
+    void choose_shouldWeighRequestsInFlight() {
+        record(fast, 2_000_000);
+        record(slow, 3_000_000);
+        registry.get(fast).start();
+        registry.get(fast).start();
+
+        assertSame(slow, loadBalancer.choose(List.of(fast, slow)).getServer());
+    }
+
+    @Test
+    void choose_shouldDropInstancesThatLeftDiscoveryTogetherWithTheirGauges() {
+        record(fast, 2_000_000);
+        record(slow, 3_000_000);
+        assertEquals(2, meterRegistry.find("order.lb.instance.latency").timeGauges().size());
+
+        assertSame(fast, loadBalancer.choose(List.of(fast)).getServer());
+
+        assertEquals(1, meterRegistry.find("order.lb.instance.latency").timeGauges().size());
+        assertNotNull(meterRegistry.find("order.lb.instance.outstanding").tag("instance", "10.0.0.1:8081").gauge());
+        assertNull(meterRegistry.find("order.lb.instance.outstanding").tag("instance", "10.0.0.2:8081").gauge());
+        assertFalse(loadBalancer.choose(List.of()).hasServer());
+    }
+
+    private void record(ServiceInstance instance, long rttNanos) {
+        InstanceLoad load = registry.get(instance);
+        load.start();
+        load.end(rttNanos);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.order.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    @Test
+    void release_shouldRaiseTheLimitWhileABusyDependencyKeepsItsLatency() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(10, 2, 100);
+
+        for (int i = 0; i < 10; i++) {
+            fillAndDrain(limit, FAST);
+        }
+
+        assertTrue(limit.limit() > 10, "limit " + limit.limit());
+        assertTrue(limit.limit() <= 100);
+    }
+
+    @Test
+    void release_shouldLowerTheLimitOnceQueueingShowsUpAsLatency() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(40, 2, 100);
+        for (int i = 0; i < 5; i++) {
+            fillAndDrain(limit, FAST);
+        }
+        int before = limit.limit();
+
+        for (int i = 0; i < 10; i++) {
+            fillAndDrain(limit, SLOW);
+        }
+
+        assertTrue(limit.limit() < before, before + " -> " + limit.limit());
+        assertTrue(limit.limit() >= 2);
+    }
+
+    @Test
+    void release_shouldKeepTheLimitOfADependencyUsedWellBelowIt() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(10, 2, 100);
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limit.tryAcquire());
+            limit.release(FAST);
+        }
+
+        assertEquals(10, limit.limit());
+    }
+
+    @Test
+    void tryAcquire_shouldRefuseCallsOverTheLimit() {
+        ConcurrencyLimit limit = new ConcurrencyLimit(2, 1, 10);
+
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.tryAcquire());
+        assertTrue(limit.saturated());
+        assertFalse(limit.tryAcquire());
+
+        limit.release(FAST);
+        assertFalse(limit.saturated());
+        assertEquals(1, limit.inflight());
+    }
+
+    private static void fillAndDrain(ConcurrencyLimit limit, long rttNanos) {
+        int calls = 0;
+        while (limit.tryAcquire()) {
+            calls++;
+        }
+        for (int i = 0; i < calls; i++) {
+            limit.release(rttNanos);
+        }
+    }
+}
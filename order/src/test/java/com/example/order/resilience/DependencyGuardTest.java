@@ -0,0 +1,108 @@
+package com.example.order.resilience;
+
+import com.example.order.config.ResilienceProperties;
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGuardTest {
+
+    private ResilienceProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ResilienceProperties();
+        properties.setSlidingWindow(4);
+        properties.setMinimumCalls(4);
+        properties.setOpenDuration(Duration.ofSeconds(30));
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void call_shouldFailFastOnceTheCircuitOpens() {
+        DependencyGuard guard = new DependencyGuard(properties, meterRegistry);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(IllegalStateException.class, () -> guard.call(DependencyGuard.PAYMENT, () -> {
+                throw new IllegalStateException("payment down");
+            }));
+        }
+        AtomicInteger sent = new AtomicInteger();
+
+        DependencyUnavailableException refused = assertThrows(DependencyUnavailableException.class,
+                () -> guard.call(DependencyGuard.PAYMENT, sent::incrementAndGet));
+
+        assertEquals(0, sent.get());
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, refused.getStatusCode());
+        assertEquals("30", refused.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals(DependencyGuard.PAYMENT, refused.getDependency());
+        assertTrue(guard.saturated());
+        assertEquals(1, meterRegistry.get("order.dependency.rejected").tag("reason", "circuit_open").counter().count());
+    }
+
+    @Test
+    void call_shouldNotCountClientErrorsAgainstTheDependency() {
+        DependencyGuard guard = new DependencyGuard(properties, meterRegistry);
+        Request request = Request.create(Request.HttpMethod.GET, "/api/payments/balance", Map.of(), null,
+                StandardCharsets.UTF_8, null);
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FeignException.NotFound.class, () -> guard.call(DependencyGuard.PAYMENT, () -> {
+                throw new FeignException.NotFound("not found", request, null, Map.of());
+            }));
+        }
+
+        assertEquals("ok", guard.call(DependencyGuard.PAYMENT, () -> "ok"));
+        assertFalse(guard.saturated());
+    }
+
+    @Test
+    void call_shouldRefuseCallsOverTheConcurrencyLimit() throws Exception {
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(1);
+        DependencyGuard guard = new DependencyGuard(properties, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> slow = CompletableFuture.supplyAsync(() -> guard.call(DependencyGuard.PRODUCT, () -> {
+            started.countDown();
+            await(release);
+            return "slow";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        DependencyUnavailableException refused = assertThrows(DependencyUnavailableException.class,
+                () -> guard.call(DependencyGuard.PRODUCT, () -> "fast"));
+        assertEquals("1", refused.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertTrue(guard.saturated());
+        // Bulk calls are bounded elsewhere and only pass the circuit breaker
+        assertEquals("bulk", guard.callUnlimited(DependencyGuard.PRODUCT, () -> "bulk"));
+
+        release.countDown();
+        assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+        assertFalse(guard.saturated());
+        assertEquals("fast", guard.call(DependencyGuard.PRODUCT, () -> "fast"));
+        assertEquals(1, meterRegistry.get("order.dependency.rejected").tag("reason", "limit").counter().count());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.order.resilience;
+
+import com.example.order.config.ResilienceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class LoadSheddingFilterTest {
+
+    @Mock
+    private DependencyGuard dependencyGuard;
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoadSheddingFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new LoadSheddingFilter(dependencyGuard, new ResilienceProperties(), meterRegistry);
+    }
+
+    @Test
+    void doFilter_shouldRejectNewOrdersWhileADependencyIsSaturated() throws Exception {
+        when(dependencyGuard.saturated()).thenReturn(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("POST", "/api/orders"), response, chain);
+
+        assertEquals(503, response.getStatus());
+        assertEquals("1", response.getHeader("Retry-After"));
+        assertNull(chain.getRequest());
+        assertEquals(1, meterRegistry.get("order.requests.shed").counter().count());
+    }
+
+    @Test
+    void doFilter_shouldKeepServingReads() throws Exception {
+        when(dependencyGuard.saturated()).thenReturn(true);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/orders/1"), response, chain);
+
+        assertEquals(200, response.getStatus());
+        assertNotNull(chain.getRequest());
+    }
+}
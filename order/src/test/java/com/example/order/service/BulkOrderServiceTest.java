@@ -0,0 +1,145 @@
+package com.example.order.service;
+
+import com.example.order.cache.OrderReadCache;
+import com.example.order.client.PaymentClient;
+import com.example.order.client.ProductClient;
+import com.example.order.config.BulkOrderProperties;
+import com.example.order.config.ResilienceProperties;
+import com.example.order.dto.OrderDtos.BulkCreateOrderRequest;
+import com.example.order.dto.OrderDtos.BulkCreateOrderResponse;
+import com.example.order.dto.OrderDtos.BulkOrderResult;
+import com.example.order.dto.OrderDtos.CreateOrderItemRequest;
+import com.example.order.dto.OrderDtos.CreateOrderRequest;
+import com.example.order.entity.Order;
+import com.example.order.events.OrderEventPublisher;
+import com.example.order.events.OrderEvents;
+import com.example.order.repository.OrderRepository;
+import com.example.order.resilience.DependencyGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class BulkOrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductClient productClient;
+
+    @Mock
+    private PaymentClient paymentClient;
+
+    @Mock
+    private OrderEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private OrderReadCache readCache;
+
+    private BulkOrderService bulkOrderService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        AtomicLong ids = new AtomicLong();
+        when(orderRepository.saveAll(anyList())).thenAnswer(inv -> {
+            List<Order> orders = inv.getArgument(0);
+            orders.forEach(o -> o.setId(ids.incrementAndGet()));
+            return orders;
+        });
+        BulkOrderProperties properties = new BulkOrderProperties();
+        properties.setInsertChunkSize(2);
+        DependencyGuard dependencyGuard = new DependencyGuard(new ResilienceProperties(), new SimpleMeterRegistry());
+        bulkOrderService = new BulkOrderService(orderRepository, productClient, paymentClient, dependencyGuard, eventPublisher,
+                transactionTemplate, entityManager, Runnable::run, properties, readCache);
+    }
+
+    @Test
+    void createOrders_shouldAllocateStockAndBalanceInRequestOrder() {
+        when(productClient.checkAvailability(List.of(new ProductClient.QuantityCheckItem(1L, 6))))
+                .thenReturn(List.of(new ProductClient.AvailabilityResponse(1L, false, 4, new BigDecimal("1.50"), 1L)));
+        when(paymentClient.balances(List.of(7L, 8L))).thenReturn(List.of(
+                new PaymentClient.AccountBalance(7L, BigDecimal.valueOf(5)),
+                new PaymentClient.AccountBalance(8L, BigDecimal.valueOf(100))));
+
+        BulkCreateOrderResponse result = bulkOrderService.createOrders(new BulkCreateOrderRequest(List.of(
+                new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 2))),
+                new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 2))),
+                new CreateOrderRequest(8L, List.of(new CreateOrderItemRequest(1L, 2))))));
+
+        assertEquals(List.of(
+                new BulkOrderResult(0, 1L, "CREATED", null),
+                new BulkOrderResult(1, 2L, "REJECTED", "INSUFFICIENT_BALANCE"),
+                new BulkOrderResult(2, 3L, "CREATED", null)), result.results());
+        assertEquals(2, result.created());
+        assertEquals(1, result.rejected());
+        // One availability call for the whole import, one insert transaction per chunk
+        verify(productClient, times(1)).checkAvailability(anyList());
+        verify(transactionTemplate, times(2)).executeWithoutResult(any());
+        verify(entityManager, times(2)).clear();
+        ArgumentCaptor<OrderEvents.OrderRejectedEvent> rejected = ArgumentCaptor.forClass(OrderEvents.OrderRejectedEvent.class);
+        verify(eventPublisher).publishRejected(rejected.capture());
+        assertEquals("INSUFFICIENT_BALANCE", rejected.getValue().reason());
+        ArgumentCaptor<OrderEvents.OrderCreatedEvent> created = ArgumentCaptor.forClass(OrderEvents.OrderCreatedEvent.class);
+        verify(eventPublisher, times(2)).publishCreated(created.capture());
+        assertEquals(new BigDecimal("3.00"), created.getValue().amount());
+    }
+
+    @Test
+    void createOrders_shouldReportFailedChunkWithoutFailingTheOthers() {
+        when(productClient.checkAvailability(anyList())).thenReturn(List.of(new ProductClient.AvailabilityResponse(1L, true, 100, BigDecimal.ONE, 1L)));
+        when(paymentClient.balances(anyList())).thenReturn(List.of(new PaymentClient.AccountBalance(7L, BigDecimal.valueOf(100))));
+        doThrow(new IllegalStateException("db down")).doNothing().when(entityManager).flush();
+
+        BulkCreateOrderResponse result = bulkOrderService.createOrders(new BulkCreateOrderRequest(List.of(
+                new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 1))),
+                new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 1))),
+                new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 1))))));
+
+        assertEquals(2, result.failed());
+        assertEquals(new BulkOrderResult(0, null, "FAILED", "PERSISTENCE_FAILED"), result.results().get(0));
+        assertEquals(new BulkOrderResult(2, 3L, "CREATED", null), result.results().get(2));
+    }
+
+    @Test
+    void createOrders_shouldGiveBackStockAndBalanceOfAFailedChunk() {
+        when(productClient.checkAvailability(anyList())).thenReturn(List.of(new ProductClient.AvailabilityResponse(1L, true, 2, BigDecimal.ONE, 1L)));
+        when(paymentClient.balances(anyList())).thenReturn(List.of(new PaymentClient.AccountBalance(7L, BigDecimal.valueOf(2))));
+        doThrow(new IllegalStateException("db down")).doNothing().when(entityManager).flush();
+
+        BulkCreateOrderResponse result = bulkOrderService.createOrders(new BulkCreateOrderRequest(List.of(
+                new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 2))),
+                new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 1))),
+                new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 2))))));
+
+        // The first order was never stored, so its units and funds are still there for the third
+        assertEquals(2, result.failed());
+        assertEquals(new BulkOrderResult(2, 3L, "CREATED", null), result.results().get(2));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.order.service;
+
+import com.example.order.cache.OrderReadCache;
+import com.example.order.entity.OrderStatus;
+import com.example.order.events.OrderEvents;
+import com.example.order.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderLifecycleServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderReadCache readCache;
+
+    @InjectMocks
+    private OrderLifecycleService lifecycleService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void applyPaymentResults_shouldIssueOneGuardedUpdatePerTargetState() {
+        when(orderRepository.transition(Set.of(1L, 3L), OrderStatus.CREATED, OrderStatus.PAID)).thenReturn(1);
+        when(orderRepository.transition(Set.of(2L), OrderStatus.CREATED, OrderStatus.PAYMENT_FAILED)).thenReturn(1);
+
+        int changed = lifecycleService.applyPaymentResults(List.of(
+                new OrderEvents.PaymentCompletedEvent(1L, 7L),
+                new OrderEvents.PaymentFailedEvent(2L, 7L, "INSUFFICIENT_FUNDS"),
+                new OrderEvents.PaymentCompletedEvent(3L, 8L),
+                new OrderEvents.PaymentCompletedEvent(1L, 7L)));
+
+        assertEquals(2, changed);
+        verify(orderRepository, times(2)).transition(any(), any(), any());
+        verify(readCache).invalidateAfterCommit(Set.of(1L, 3L, 2L), Set.of(7L, 8L));
+    }
+
+    @Test
+    void applyPaymentResults_shouldSkipUpdatesWhenNothingApplies() {
+        assertEquals(0, lifecycleService.applyPaymentResults(List.of(new OrderEvents.OrderCreatedEvent(1L, 7L, List.of(), BigDecimal.TEN))));
+
+        verifyNoInteractions(orderRepository, readCache);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.order.service;
+
+import com.example.order.cache.OrderReadCache;
+import com.example.order.config.OrderReadCacheProperties;
+import com.example.order.dto.OrderDtos.OrderHeader;
+import com.example.order.dto.OrderDtos.OrderItemRow;
+import com.example.order.dto.OrderDtos.OrderResponse;
+import com.example.order.entity.OrderStatus;
+import com.example.order.pagination.CursorPage;
+import com.example.order.pagination.OrderCursor;
+import com.example.order.repository.OrderRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class OrderQueryServiceTest {
+
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2024, 5, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderReadCache readCache;
+    private OrderQueryService queryService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        OrderReadCacheProperties properties = new OrderReadCacheProperties();
+        properties.setRecentPerCustomer(2);
+        readCache = new OrderReadCache(properties, new SimpleMeterRegistry());
+        queryService = new OrderQueryService(orderRepository, readCache, properties);
+    }
+
+    @Test
+    void findByCustomer_shouldLoadItemsOfAPageInOneQueryAndReturnACursor() {
+        when(orderRepository.findLatestHeaders(7L, Limit.of(3)))
+                .thenReturn(List.of(header(3L, NOW), header(2L, NOW), header(1L, NOW.minusMinutes(1))));
+        when(orderRepository.findItemRows(List.of(3L, 2L, 1L)))
+                .thenReturn(List.of(new OrderItemRow(3L, 10L, 1, BigDecimal.ONE), new OrderItemRow(2L, 11L, 2, BigDecimal.ONE),
+                        new OrderItemRow(3L, 12L, 3, BigDecimal.ONE)));
+
+        CursorPage<OrderResponse> page = queryService.findByCustomer(7L, 2, null);
+
+        assertEquals(List.of(3L, 2L), page.content().stream().map(OrderResponse::id).toList());
+        assertEquals(2, page.content().get(0).items().size());
+        assertEquals(new OrderCursor(NOW, 2L), OrderCursor.decode(page.nextCursor()));
+        verify(orderRepository, times(1)).findItemRows(any());
+    }
+
+    @Test
+    void findByCustomer_shouldServeFirstPagesFromCacheUntilInvalidated() {
+        when(orderRepository.findLatestHeaders(7L, Limit.of(3))).thenReturn(List.of(header(1L, NOW)));
+
+        assertNull(queryService.findByCustomer(7L, 2, null).nextCursor());
+        assertEquals(1, queryService.findByCustomer(7L, 1, null).content().size());
+        verify(orderRepository, times(1)).findLatestHeaders(7L, Limit.of(3));
+
+        readCache.invalidate(List.of(), List.of(7L));
+        queryService.findByCustomer(7L, 2, null);
+        verify(orderRepository, times(2)).findLatestHeaders(7L, Limit.of(3));
+    }
+
+    @Test
+    void findByCustomer_shouldContinueAfterTheCursorWithoutCaching() {
+        when(orderRepository.findHeadersBefore(7L, NOW, 2L, Limit.of(3))).thenReturn(List.of(header(1L, NOW.minusMinutes(1))));
+
+        String cursor = new OrderCursor(NOW, 2L).encode();
+        queryService.findByCustomer(7L, 2, cursor);
+        CursorPage<OrderResponse> page = queryService.findByCustomer(7L, 2, cursor);
+
+        assertEquals(List.of(1L), page.content().stream().map(OrderResponse::id).toList());
+        assertNull(page.nextCursor());
+        verify(orderRepository, times(2)).findHeadersBefore(7L, NOW, 2L, Limit.of(3));
+        verify(orderRepository, never()).findLatestHeaders(anyLong(), any());
+    }
+
+    @Test
+    void findByCustomer_shouldRejectUnreadableCursors() {
+        assertThrows(IllegalArgumentException.class, () -> queryService.findByCustomer(7L, 2, "not-a-cursor"));
+    }
+
+    @Test
+    void findById_shouldCacheOrdersButNotMisses() {
+        when(orderRepository.findHeaderById(1L)).thenReturn(Optional.of(header(1L, NOW)));
+
+        assertTrue(queryService.findById(1L).isPresent());
+        assertTrue(queryService.findById(1L).isPresent());
+        assertTrue(queryService.findById(2L).isEmpty());
+        assertTrue(queryService.findById(2L).isEmpty());
+
+        verify(orderRepository, times(1)).findHeaderById(1L);
+        verify(orderRepository, times(2)).findHeaderById(2L);
+    }
+
+    private static OrderHeader header(Long id, OffsetDateTime createdAt) {
+        return new OrderHeader(id, 7L, OrderStatus.CREATED, BigDecimal.ONE, createdAt);
+    }
+}
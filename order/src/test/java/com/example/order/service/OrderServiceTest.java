@@ -0,0 +1,134 @@
+package com.example.order.service;
+
+import com.example.order.cache.OrderReadCache;
+import com.example.order.client.AvailabilityBatcher;
+import com.example.order.client.PaymentClient;
+import com.example.order.client.ProductClient;
+import com.example.order.client.RequestHedger;
+import com.example.order.config.AvailabilityBatchProperties;
+import com.example.order.config.HedgingProperties;
+import com.example.order.config.ResilienceProperties;
+import com.example.order.dto.OrderDtos.CreateOrderItemRequest;
+import com.example.order.dto.OrderDtos.CreateOrderRequest;
+import com.example.order.dto.OrderDtos.OrderResponse;
+import com.example.order.entity.Order;
+import com.example.order.events.OrderEventPublisher;
+import com.example.order.events.OrderEvents;
+import com.example.order.repository.OrderRepository;
+import com.example.order.resilience.DependencyGuard;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class OrderServiceTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductClient productClient;
+
+    @Mock
+    private PaymentClient paymentClient;
+
+    @Mock
+    private OrderEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private OrderReadCache readCache;
+
+    private OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(orderRepository.save(any(Order.class))).thenAnswer(inv -> {
+            Order order = inv.getArgument(0);
+            order.setId(10L);
+            return order;
+        });
+        AvailabilityBatchProperties batchProperties = new AvailabilityBatchProperties();
+        batchProperties.setEnabled(false);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        RequestHedger hedger = new RequestHedger(new HedgingProperties(), Runnable::run, meterRegistry);
+        DependencyGuard dependencyGuard = new DependencyGuard(new ResilienceProperties(), meterRegistry);
+        orderService = new OrderService(orderRepository,
+                new AvailabilityBatcher(productClient, hedger, dependencyGuard, batchProperties, meterRegistry),
+                paymentClient, hedger, dependencyGuard, eventPublisher, transactionTemplate, Runnable::run, readCache, meterRegistry);
+    }
+
+    @Test
+    void createOrder_shouldChargeTheSnapshotPricesAndCarryTheAmountInTheEvent() {
+        when(productClient.checkAvailability(any())).thenReturn(List.of(available(1L, "2.5", 3L)));
+        when(paymentClient.balance(7L)).thenReturn(new PaymentClient.AccountBalance(7L, new BigDecimal("5.00")));
+
+        OrderResponse result = orderService.createOrder(new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 2))));
+
+        assertEquals("CREATED", result.status());
+        assertEquals(10L, result.id());
+        assertEquals(new BigDecimal("5.00"), result.totalAmount());
+        assertEquals(new BigDecimal("2.50"), result.items().get(0).unitPrice());
+        ArgumentCaptor<OrderEvents.OrderCreatedEvent> event = ArgumentCaptor.forClass(OrderEvents.OrderCreatedEvent.class);
+        verify(eventPublisher).publishCreated(event.capture());
+        assertEquals(new BigDecimal("5.00"), event.getValue().amount());
+        verify(productClient, times(1)).checkAvailability(any());
+        verify(paymentClient, times(1)).balance(7L);
+    }
+
+    @Test
+    void createOrder_shouldRejectOrderWhenBalanceIsInsufficient() {
+        when(productClient.checkAvailability(any())).thenReturn(List.of(available(1L, "2.5", 3L)));
+        when(paymentClient.balance(7L)).thenReturn(new PaymentClient.AccountBalance(7L, new BigDecimal("4.99")));
+
+        OrderResponse result = orderService.createOrder(new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 2))));
+
+        assertEquals("REJECTED", result.status());
+        ArgumentCaptor<OrderEvents.OrderRejectedEvent> event = ArgumentCaptor.forClass(OrderEvents.OrderRejectedEvent.class);
+        verify(eventPublisher).publishRejected(event.capture());
+        assertEquals(BulkOrderService.INSUFFICIENT_BALANCE, event.getValue().reason());
+    }
+
+    @Test
+    void createOrder_shouldRejectUnpricedProductsAsOutOfStock() {
+        when(productClient.checkAvailability(any()))
+                .thenReturn(List.of(new ProductClient.AvailabilityResponse(1L, false, 0, null, null)));
+        when(paymentClient.balance(7L)).thenReturn(new PaymentClient.AccountBalance(7L, BigDecimal.TEN));
+
+        OrderResponse result = orderService.createOrder(new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 2))));
+
+        assertEquals("REJECTED", result.status());
+        ArgumentCaptor<OrderEvents.OrderRejectedEvent> event = ArgumentCaptor.forClass(OrderEvents.OrderRejectedEvent.class);
+        verify(eventPublisher).publishRejected(event.capture());
+        assertEquals(BulkOrderService.INSUFFICIENT_STOCK, event.getValue().reason());
+    }
+
+    @Test
+    void createOrder_shouldNotPersistWhenARemoteCheckFails() {
+        when(productClient.checkAvailability(any())).thenReturn(List.of(available(1L, "2.5", 3L)));
+        when(paymentClient.balance(any())).thenThrow(new IllegalStateException("payment down"));
+
+        assertThrows(IllegalStateException.class,
+                () -> orderService.createOrder(new CreateOrderRequest(7L, List.of(new CreateOrderItemRequest(1L, 2)))));
+        verifyNoInteractions(orderRepository, transactionTemplate);
+    }
+
+    private static ProductClient.AvailabilityResponse available(long productId, String price, long priceVersion) {
+        return new ProductClient.AvailabilityResponse(productId, true, 5, new BigDecimal(price), priceVersion);
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.payment.cache;
+
+import com.example.payment.config.BalanceCacheProperties;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of account balances for prechecks. Entries are dropped after a
+ * committed debit on this instance and, on every instance, when the CDC stream reports a
+ * change to the account; the TTL bounds staleness should either be missed. Each entry
+ * remembers when it was read so callers can tell how old the answer may be.
+ */
+@Component
+public class BalanceCache {
+
+    /** A balance as read at {@code readAt}; {@code balance} is null when there is no account. */
+    public record CachedBalance(BigDecimal balance, Instant readAt) {}
+
+    private final AsyncCache<Long, CachedBalance> cache;
+
+    public BalanceCache(BalanceCacheProperties properties, MeterRegistry meterRegistry) {
+        if (properties.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(properties.getMaximumSize())
+                    .expireAfterWrite(properties.getTtl())
+                    .recordStats()
+                    .buildAsync();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "payment.balance");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Returns the cached balance or loads it. An invalidation racing with a load removes the
+     * pending entry, so a value read before a commit cannot outlive that commit's invalidation.
+     *
+     * <p>The load runs on the caller's thread and not inside the cache's map, whose bin monitor
+     * would otherwise be held across the query and pin a virtual thread. Other callers asking
+     * for the same customer meanwhile wait for the pending result.
+     */
+    public CachedBalance get(Long customerId, Function<Long, Optional<BigDecimal>> loader) {
+        if (cache == null) {
+            return read(customerId, loader);
+        }
+        CompletableFuture<CachedBalance> pending = new CompletableFuture<>();
+        CompletableFuture<CachedBalance> future = cache.get(customerId, (id, executor) -> pending);
+        if (future == pending) {
+            try {
+                pending.complete(read(customerId, loader));
+            } catch (RuntimeException | Error ex) {
+                pending.completeExceptionally(ex);
+                throw ex;
+            }
+        }
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private static CachedBalance read(Long customerId, Function<Long, Optional<BigDecimal>> loader) {
+        return new CachedBalance(loader.apply(customerId).orElse(null), Instant.now());
+    }
+
+    public void invalidate(Long customerId) {
+        if (cache != null) {
+            cache.synchronous().invalidate(customerId);
+        }
+    }
+
+    /**
+     * Invalidates once the current transaction has committed, so no concurrent precheck can
+     * re-cache the balance from before the change. Without a transaction it is immediate.
+     */
+    public void invalidateAfterCommit(Collection<Long> customerIds) {
+        if (cache == null || customerIds.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.synchronous().invalidateAll(customerIds);
+            return;
+        }
+        List<Long> ids = List.copyOf(customerIds);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.synchronous().invalidateAll(ids);
+            }
+        });
+    }
+}
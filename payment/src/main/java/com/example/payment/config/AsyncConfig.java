@@ -0,0 +1,24 @@
+package com.example.payment.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // One thread per lane and no queue: with several listener threads sharing the pool a
+    // lane that finds it busy runs on the listener thread instead of waiting.
+    @Bean
+    public ThreadPoolTaskExecutor debitLaneExecutor(PaymentConsumerProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getLanes());
+        executor.setMaxPoolSize(properties.getLanes());
+        executor.setQueueCapacity(0);
+        executor.setThreadNamePrefix("debit-lane-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.payment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "payment.balance-cache")
+public class BalanceCacheProperties {
+    private boolean enabled = true;
+    private long maximumSize = 100_000;
+    // Upper bound on staleness should an invalidation be missed
+    private Duration ttl = Duration.ofSeconds(30);
+    // Debezium topic of the payment_accounts table
+    private String cdcTopic = "dbserver1.public.payment_accounts";
+
+    public boolean isEnabled() { return enabled; }
+    public void setEnabled(boolean enabled) { this.enabled = enabled; }
+    public long getMaximumSize() { return maximumSize; }
+    public void setMaximumSize(long maximumSize) { this.maximumSize = maximumSize; }
+    public Duration getTtl() { return ttl; }
+    public void setTtl(Duration ttl) { this.ttl = ttl; }
+    public String getCdcTopic() { return cdcTopic; }
+    public void setCdcTopic(String cdcTopic) { this.cdcTopic = cdcTopic; }
+}
@@ -0,0 +1,23 @@
+package com.example.payment.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.JpaTransactionManager;
+
+/**
+ * With {@code spring.kafka.producer.transaction-id-prefix} set, Boot registers a
+ * KafkaTransactionManager, and the JPA transaction manager would back off. It is declared
+ * here as primary so {@code @Transactional} keeps meaning the database; the Kafka one is
+ * only used by the listener containers.
+ */
+@Configuration
+public class KafkaTransactionConfig {
+
+    @Bean
+    @Primary
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
@@ -0,0 +1,14 @@
+package com.example.payment.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "payment.consumer")
+public class PaymentConsumerProperties {
+    // Customer lanes a poll is split into; each lane is one debit transaction running in parallel
+    private int lanes = 4;
+
+    public int getLanes() { return lanes; }
+    public void setLanes(int lanes) { this.lanes = lanes; }
+}
@@ -0,0 +1,65 @@
+package com.example.payment.consumer;
+
+import com.example.payment.cache.BalanceCache;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceCacheSyncConsumer {
+
+    private final BalanceCache balanceCache;
+    private final ObjectMapper objectMapper;
+
+    // Every instance joins with its own group so all caches see every change, including
+    // top-ups and corrections written outside this service, starting from the latest offset.
+    @KafkaListener(topics = "#{@balanceCacheProperties.cdcTopic}",
+            groupId = "payment-balance-cache-${random.uuid}",
+            properties = {
+                    "auto.offset.reset=latest",
+                    "value.deserializer=org.apache.kafka.common.serialization.StringDeserializer"
+            },
+            batch = "true",
+            autoStartup = "${payment.balance-cache.enabled:true}")
+    public void onAccountChanges(List<ConsumerRecord<String, String>> records) {
+        Set<Long> customerIds = changedCustomers(records);
+        customerIds.forEach(balanceCache::invalidate);
+        log.debug("Invalidated {} cached balances from {} CDC records", customerIds.size(), records.size());
+    }
+
+    /**
+     * Customer ids touched by a batch of Debezium change events, with or without the schema
+     * envelope. Deletes only carry the primary key unless the table has REPLICA IDENTITY FULL;
+     * those entries are left to expire. Tombstones and unreadable records are skipped.
+     */
+    private Set<Long> changedCustomers(List<ConsumerRecord<String, String>> records) {
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.value() == null) {
+                continue;
+            }
+            try {
+                JsonNode root = objectMapper.readTree(record.value());
+                JsonNode payload = root.has("payload") ? root.path("payload") : root;
+                JsonNode row = "d".equals(payload.path("op").asText()) ? payload.path("before") : payload.path("after");
+                JsonNode customerId = row.path("customer_id");
+                if (customerId.canConvertToLong()) {
+                    customerIds.add(customerId.asLong());
+                }
+            } catch (Exception e) {
+                log.error("Skipping unreadable CDC record at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            }
+        }
+        return customerIds;
+    }
+}
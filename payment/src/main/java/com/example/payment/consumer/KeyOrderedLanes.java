@@ -0,0 +1,73 @@
+package com.example.payment.consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Processes a batch in parallel without reordering any key: items are split into lanes by
+ * key hash, so all items of one key land in the same lane in their original order. Lanes
+ * run concurrently and results come back in input order. This gives one partition more
+ * than one thread of work while keeping the per-key ordering Kafka provides.
+ */
+public final class KeyOrderedLanes {
+
+    private KeyOrderedLanes() {
+    }
+
+    /**
+     * Runs {@code handler} once per non-empty lane; it must return one result per item, in
+     * the order given. The first lane failure is rethrown after all lanes have finished.
+     */
+    public static <T, R> List<R> process(List<T> items, Function<T, ?> keyOf, int lanes,
+                                         Executor executor, Function<List<T>, List<R>> handler) {
+        if (lanes <= 1 || items.size() <= 1) {
+            return handler.apply(items);
+        }
+        List<List<Integer>> positions = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            positions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            positions.get(Math.floorMod(Objects.hashCode(keyOf.apply(items.get(i))), lanes)).add(i);
+        }
+
+        List<List<Integer>> used = new ArrayList<>(lanes);
+        List<CompletableFuture<List<R>>> futures = new ArrayList<>(lanes);
+        for (List<Integer> lane : positions) {
+            if (lane.isEmpty()) {
+                continue;
+            }
+            List<T> laneItems = lane.stream().map(items::get).toList();
+            used.add(lane);
+            futures.add(CompletableFuture.supplyAsync(() -> handler.apply(laneItems), executor));
+        }
+
+        List<R> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            results.add(null);
+        }
+        RuntimeException failure = null;
+        for (int l = 0; l < futures.size(); l++) {
+            try {
+                List<R> laneResults = futures.get(l).join();
+                List<Integer> lane = used.get(l);
+                for (int i = 0; i < lane.size(); i++) {
+                    results.set(lane.get(i), laneResults.get(i));
+                }
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+}
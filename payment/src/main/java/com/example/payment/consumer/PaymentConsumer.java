@@ -1,40 +1,97 @@
 package com.example.payment.consumer;
 
+import com.example.payment.config.PaymentConsumerProperties;
 import com.example.payment.config.PaymentTopicsProperties;
+import com.example.payment.dto.PaymentDtos.DebitRequest;
+import com.example.payment.dto.PaymentDtos.DebitResult;
 import com.example.payment.events.OrderEvents.OrderCreatedEvent;
 import com.example.payment.events.OrderEvents.PaymentCompletedEvent;
 import com.example.payment.events.OrderEvents.PaymentFailedEvent;
 import com.example.payment.service.PaymentAccountService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Executor;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class PaymentConsumer {
 
     private final PaymentTopicsProperties topics;
     private final KafkaTemplate<String, Object> kafkaTemplate;
     private final PaymentAccountService paymentAccountService;
+    private final PaymentConsumerProperties properties;
+    private final Executor debitLaneExecutor;
+    // One sample per poll: all lanes until the last debit transaction has committed
+    private final Timer batchTimer;
+    private final DistributionSummary batchSize;
+    private final Counter completed;
+    private final Counter failedDebits;
 
-    @KafkaListener(topics = "#{@paymentTopicsProperties.created}")
-    public void onOrderCreated(@Payload OrderCreatedEvent event) {
-        log.info("Processing payment for order={} customer={}", event.orderId(), event.customerId());
-        // Simulate lookup of amount by order or carry amount in event; here we assume a fixed amount for demo
-        // In production, include BigDecimal amount in OrderCreatedEvent and use it directly
-        boolean success = paymentAccountService.deduct(event.customerId(), java.math.BigDecimal.valueOf(1));
-        if (success) {
-            kafkaTemplate.send(topics.getPaymentCompleted(), new PaymentCompletedEvent(event.orderId(), event.customerId()));
-        } else {
-            kafkaTemplate.send(topics.getPaymentFailed(), new PaymentFailedEvent(event.orderId(), event.customerId(), "CARD_DECLINED"));
-        }
+    public PaymentConsumer(PaymentTopicsProperties topics,
+                           KafkaTemplate<String, Object> kafkaTemplate,
+                           PaymentAccountService paymentAccountService,
+                           PaymentConsumerProperties properties,
+                           @Qualifier("debitLaneExecutor") Executor debitLaneExecutor,
+                           MeterRegistry meterRegistry) {
+        this.topics = topics;
+        this.kafkaTemplate = kafkaTemplate;
+        this.paymentAccountService = paymentAccountService;
+        this.properties = properties;
+        this.debitLaneExecutor = debitLaneExecutor;
+        this.batchTimer = Timer.builder("payment.debit.batch").publishPercentileHistogram().register(meterRegistry);
+        this.batchSize = DistributionSummary.builder("payment.debit.batch.size").register(meterRegistry);
+        this.completed = Counter.builder("payment.debits").tag("result", "completed").register(meterRegistry);
+        this.failedDebits = Counter.builder("payment.debits").tag("result", "failed").register(meterRegistry);
     }
-}
 
+    /**
+     * Handles a whole poll at once. The debits are split into customer lanes that run as
+     * parallel database transactions; a customer's orders stay in one lane, in partition
+     * order, and no two lanes touch the same account. The results are then sent, in poll
+     * order and keyed by customer, inside the listener container's Kafka transaction, which
+     * also commits the consumed offsets. If that transaction aborts the poll is redelivered
+     * and the ledger replays the recorded outcomes, so results are republished without
+     * charging twice.
+     */
+    @KafkaListener(topics = "#{@paymentTopicsProperties.created}", batch = "true")
+    public void onOrdersCreated(List<OrderCreatedEvent> events) {
+        List<DebitRequest> requests = events.stream()
+                .map(e -> new DebitRequest(PaymentAccountService.orderKey(e.orderId()), e.customerId(), amountOf(e)))
+                .toList();
+        batchSize.record(requests.size());
+        List<DebitResult> results = batchTimer.record(() -> KeyOrderedLanes.process(requests, DebitRequest::customerId,
+                properties.getLanes(), debitLaneExecutor, paymentAccountService::debitAll));
 
+        int failed = 0;
+        for (int i = 0; i < events.size(); i++) {
+            OrderCreatedEvent event = events.get(i);
+            DebitResult result = results.get(i);
+            String key = String.valueOf(event.customerId());
+            if (result.debited()) {
+                kafkaTemplate.send(topics.getPaymentCompleted(), key, new PaymentCompletedEvent(event.orderId(), event.customerId()));
+            } else {
+                kafkaTemplate.send(topics.getPaymentFailed(), key, new PaymentFailedEvent(event.orderId(), event.customerId(), result.reason()));
+                failed++;
+            }
+        }
+        completed.increment(events.size() - failed);
+        failedDebits.increment(failed);
+        log.info("Processed payments for {} orders, {} failed", events.size(), failed);
+    }
+
+    // Events written before orders were priced carry no amount; they keep the flat amount
+    // they were always charged, so a redelivery replays the same debit
+    private static BigDecimal amountOf(OrderCreatedEvent event) {
+        return event.amount() != null ? event.amount() : BigDecimal.ONE;
+    }
+}
@@ -1,14 +1,25 @@
 package com.example.payment.controller;
 
+import com.example.payment.cache.BalanceCache.CachedBalance;
+import com.example.payment.dto.PaymentDtos.AccountBalanceResponse;
+import com.example.payment.dto.PaymentDtos.BalanceCheck;
 import com.example.payment.service.PaymentAccountService;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/payments")
@@ -20,10 +31,31 @@ public class PaymentController {
         this.paymentAccountService = paymentAccountService;
     }
 
+    // May be answered from cache: Age and X-Balance-As-Of tell how old the balance behind it is
     @PostMapping("/precheck")
     public ResponseEntity<Boolean> precheck(@RequestParam @NotNull Long customerId,
                                             @RequestParam @NotNull BigDecimal amount) {
-        return ResponseEntity.ok(paymentAccountService.hasSufficientBalance(customerId, amount));
+        BalanceCheck check = paymentAccountService.checkBalance(customerId, amount);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(Duration.between(check.asOf(), Instant.now()).toSeconds()))
+                .header("X-Balance-As-Of", check.asOf().toString())
+                .body(check.sufficient());
+    }
+
+    // Cached like precheck; balance is null when the customer has no account
+    @GetMapping("/balance")
+    public ResponseEntity<AccountBalanceResponse> balance(@RequestParam @NotNull Long customerId) {
+        CachedBalance cached = paymentAccountService.findBalance(customerId);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.AGE, String.valueOf(Duration.between(cached.readAt(), Instant.now()).toSeconds()))
+                .header("X-Balance-As-Of", cached.readAt().toString())
+                .body(new AccountBalanceResponse(customerId, cached.balance()));
+    }
+
+    // Balances for many customers in one call; customers without an account are omitted
+    @PostMapping("/balances")
+    public ResponseEntity<List<AccountBalanceResponse>> balances(@RequestBody @NotEmpty Set<@NotNull Long> customerIds) {
+        return ResponseEntity.ok(paymentAccountService.findBalances(customerIds));
     }
 }
 
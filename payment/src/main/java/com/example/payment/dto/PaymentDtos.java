@@ -0,0 +1,38 @@
+package com.example.payment.dto;
+
+import com.example.payment.entity.PaymentLedgerEntry;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public class PaymentDtos {
+
+    public record AccountBalanceResponse(
+            Long customerId,
+            BigDecimal balance
+    ) {}
+
+    // asOf is when the balance behind the answer was read from the database
+    public record BalanceCheck(
+            boolean sufficient,
+            Instant asOf
+    ) {}
+
+    public record DebitRequest(
+            String idempotencyKey,
+            Long customerId,
+            BigDecimal amount
+    ) {}
+
+    // replayed is true when the key was already in the ledger and nothing was debited now
+    public record DebitResult(
+            String idempotencyKey,
+            PaymentLedgerEntry.Status status,
+            String reason,
+            boolean replayed
+    ) {
+        public boolean debited() {
+            return status == PaymentLedgerEntry.Status.DEBITED;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+
+/**
+ * Append-only record of every debit attempt. The unique idempotency key makes a debit
+ * happen at most once per key; a replayed request reads the recorded outcome instead.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "payment_ledger", indexes = {
+        @Index(columnList = "customerId, createdAt")
+}, uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payment_ledger_idempotency_key", columnNames = "idempotencyKey")
+})
+public class PaymentLedgerEntry {
+
+    public enum Status { DEBITED, REJECTED }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private Long customerId;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private Status status;
+
+    private String reason;
+
+    @Column(nullable = false)
+    private OffsetDateTime createdAt;
+}
@@ -0,0 +1,85 @@
+package com.example.payment.events.codec;
+
+import com.example.payment.events.OrderEvents.OrderCreatedEvent;
+import com.example.payment.events.OrderEvents.OrderRejectedEvent;
+import com.example.payment.events.OrderEvents.PaymentCompletedEvent;
+import com.example.payment.events.OrderEvents.PaymentFailedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * Kafka deserializer for {@link OrderEventCodec}. Decodes straight from the fetched bytes.
+ * JSON events written before the switch to the binary format are still read, using their
+ * type header, so topics need not be drained before upgrading.
+ */
+public class OrderEventDeserializer implements Deserializer<Object> {
+
+    private static final String TYPE_HEADER = "__TypeId__";
+    private static final Map<String, Class<?>> JSON_TYPES = Map.of(
+            "orderCreated", OrderCreatedEvent.class,
+            "orderRejected", OrderRejectedEvent.class,
+            "paymentCompleted", PaymentCompletedEvent.class,
+            "paymentFailed", PaymentFailedEvent.class,
+            "OrderCreatedEvent", OrderCreatedEvent.class,
+            "OrderRejectedEvent", OrderRejectedEvent.class,
+            "PaymentCompletedEvent", PaymentCompletedEvent.class,
+            "PaymentFailedEvent", PaymentFailedEvent.class);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return deserialize(topic, null, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        if (data.length > 0 && data[0] == '{') {
+            return readJson(headers, data);
+        }
+        return OrderEventCodec.read(new OrderEventCodec.Reader(data, 0, data.length));
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, ByteBuffer data) {
+        if (data == null) {
+            return null;
+        }
+        if (!data.hasArray()) {
+            return Deserializer.super.deserialize(topic, headers, data);
+        }
+        int offset = data.arrayOffset() + data.position();
+        if (data.remaining() > 0 && data.array()[offset] == '{') {
+            return Deserializer.super.deserialize(topic, headers, data);
+        }
+        return OrderEventCodec.read(new OrderEventCodec.Reader(data.array(), offset, data.remaining()));
+    }
+
+    private Object readJson(Headers headers, byte[] data) {
+        Header header = headers == null ? null : headers.lastHeader(TYPE_HEADER);
+        if (header == null) {
+            throw new SerializationException("JSON event without " + TYPE_HEADER + " header");
+        }
+        String typeId = new String(header.value(), StandardCharsets.UTF_8);
+        Class<?> type = JSON_TYPES.get(typeId.substring(Math.max(typeId.lastIndexOf('$'), typeId.lastIndexOf('.')) + 1));
+        if (type == null) {
+            throw new SerializationException("Unknown JSON event type " + typeId);
+        }
+        try {
+            return objectMapper.readValue(data, type);
+        } catch (IOException e) {
+            throw new SerializationException("Unreadable JSON event of type " + typeId, e);
+        }
+    }
+}
@@ -2,11 +2,33 @@ package com.example.payment.repository;
 
 import com.example.payment.entity.PaymentAccount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface PaymentAccountRepository extends JpaRepository<PaymentAccount, Long> {
     Optional<PaymentAccount> findByCustomerId(Long customerId);
+
+    List<PaymentAccount> findByCustomerIdIn(Collection<Long> customerIds);
+
+    boolean existsByCustomerId(Long customerId);
+
+    @Query("SELECT a.balance FROM PaymentAccount a WHERE a.customerId = :customerId")
+    Optional<BigDecimal> findBalanceByCustomerId(@Param("customerId") Long customerId);
+
+    @Query("SELECT a.customerId FROM PaymentAccount a WHERE a.customerId IN :customerIds")
+    List<Long> findExistingCustomerIds(@Param("customerIds") Collection<Long> customerIds);
+
+    // Check and debit in one statement: no read-modify-write, no lost updates
+    @Modifying
+    @Query("UPDATE PaymentAccount a SET a.balance = a.balance - :amount " +
+            "WHERE a.customerId = :customerId AND a.balance >= :amount")
+    int debitIfSufficient(@Param("customerId") Long customerId, @Param("amount") BigDecimal amount);
 }
 
 
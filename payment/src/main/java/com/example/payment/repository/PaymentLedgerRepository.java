@@ -0,0 +1,37 @@
+package com.example.payment.repository;
+
+import com.example.payment.entity.PaymentLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface PaymentLedgerRepository extends JpaRepository<PaymentLedgerEntry, Long> {
+
+    /**
+     * Claims the idempotency key by recording the debit as DEBITED. Returns 0 when the key
+     * was already recorded; a concurrent insert of the same key waits for the first one
+     * to commit or roll back, so at most one caller ever gets 1.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO payment_ledger (idempotency_key, customer_id, amount, status, created_at) " +
+            "VALUES (:key, :customerId, :amount, 'DEBITED', now()) " +
+            "ON CONFLICT (idempotency_key) DO NOTHING", nativeQuery = true)
+    int claim(@Param("key") String idempotencyKey,
+              @Param("customerId") Long customerId,
+              @Param("amount") BigDecimal amount);
+
+    @Modifying
+    @Query("UPDATE PaymentLedgerEntry e SET e.status = com.example.payment.entity.PaymentLedgerEntry.Status.REJECTED, " +
+            "e.reason = :reason WHERE e.idempotencyKey = :key")
+    int markRejected(@Param("key") String idempotencyKey, @Param("reason") String reason);
+
+    Optional<PaymentLedgerEntry> findByIdempotencyKey(String idempotencyKey);
+
+    List<PaymentLedgerEntry> findByIdempotencyKeyIn(Collection<String> idempotencyKeys);
+}
@@ -1,40 +1,189 @@
 package com.example.payment.service;
 
-import com.example.payment.entity.PaymentAccount;
+import com.example.payment.cache.BalanceCache;
+import com.example.payment.cache.BalanceCache.CachedBalance;
+import com.example.payment.dto.PaymentDtos.AccountBalanceResponse;
+import com.example.payment.dto.PaymentDtos.BalanceCheck;
+import com.example.payment.dto.PaymentDtos.DebitRequest;
+import com.example.payment.dto.PaymentDtos.DebitResult;
+import com.example.payment.entity.PaymentLedgerEntry;
+import com.example.payment.entity.PaymentLedgerEntry.Status;
 import com.example.payment.repository.PaymentAccountRepository;
+import com.example.payment.repository.PaymentLedgerRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class PaymentAccountService {
 
+    public static final String INSUFFICIENT_FUNDS = "INSUFFICIENT_FUNDS";
+    public static final String ACCOUNT_NOT_FOUND = "ACCOUNT_NOT_FOUND";
+
+    private static final String CLAIM_SQL = "INSERT INTO payment_ledger (idempotency_key, customer_id, amount, status, created_at) " +
+            "VALUES (?, ?, ?, 'DEBITED', now()) ON CONFLICT (idempotency_key) DO NOTHING";
+    private static final String DEBIT_SQL = "UPDATE payment_accounts SET balance = balance - ? " +
+            "WHERE customer_id = ? AND balance >= ?";
+    private static final String REJECT_SQL = "UPDATE payment_ledger SET status = 'REJECTED', reason = ? " +
+            "WHERE idempotency_key = ?";
+
     private final PaymentAccountRepository repository;
+    private final PaymentLedgerRepository ledgerRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final BalanceCache balanceCache;
+
+    // Not transactional: a cache hit needs no connection. The answer is as of asOf and only
+    // advisory; the debit itself re-checks the balance.
+    public BalanceCheck checkBalance(Long customerId, BigDecimal amount) {
+        CachedBalance cached = balanceCache.get(customerId, repository::findBalanceByCustomerId);
+        boolean sufficient = cached.balance() != null && cached.balance().compareTo(amount) >= 0;
+        return new BalanceCheck(sufficient, cached.readAt());
+    }
+
+    // Same caching as checkBalance, for callers that compare against an amount they compute
+    public CachedBalance findBalance(Long customerId) {
+        return balanceCache.get(customerId, repository::findBalanceByCustomerId);
+    }
 
     @Transactional(readOnly = true)
-    public boolean hasSufficientBalance(Long customerId, BigDecimal amount) {
-        return repository.findByCustomerId(customerId)
-                .map(acc -> acc.getBalance().compareTo(amount) >= 0)
-                .orElse(false);
+    public List<AccountBalanceResponse> findBalances(Collection<Long> customerIds) {
+        return repository.findByCustomerIdIn(customerIds).stream()
+                .map(acc -> new AccountBalanceResponse(acc.getCustomerId(), acc.getBalance()))
+                .toList();
+    }
+
+    public static String orderKey(Long orderId) {
+        return "order-" + orderId;
     }
 
+    /**
+     * Debits the account at most once per idempotency key. The ledger row is claimed first,
+     * so a redelivered or concurrent duplicate gets the recorded outcome back; the balance
+     * is then checked and reduced in a single conditional UPDATE. The account row is locked
+     * only from that statement to commit, with no read-modify-write window in between.
+     */
     @Transactional
-    public boolean deduct(Long customerId, BigDecimal amount) {
-        PaymentAccount account = repository.findByCustomerId(customerId)
-                .orElse(null);
-        if (account == null) {
-            return false;
-        }
-        if (account.getBalance().compareTo(amount) < 0) {
-            return false;
-        }
-        account.setBalance(account.getBalance().subtract(amount));
-        repository.save(account);
-        return true;
+    public DebitResult debit(String idempotencyKey, Long customerId, BigDecimal amount) {
+        if (ledgerRepository.claim(idempotencyKey, customerId, amount) == 0) {
+            PaymentLedgerEntry recorded = ledgerRepository.findByIdempotencyKey(idempotencyKey)
+                    .orElseThrow(() -> new IllegalStateException("Ledger entry vanished: " + idempotencyKey));
+            return new DebitResult(idempotencyKey, recorded.getStatus(), recorded.getReason(), true);
+        }
+        if (repository.debitIfSufficient(customerId, amount) == 1) {
+            balanceCache.invalidateAfterCommit(List.of(customerId));
+            return new DebitResult(idempotencyKey, Status.DEBITED, null, false);
+        }
+        String reason = repository.existsByCustomerId(customerId) ? INSUFFICIENT_FUNDS : ACCOUNT_NOT_FOUND;
+        ledgerRepository.markRejected(idempotencyKey, reason);
+        return new DebitResult(idempotencyKey, Status.REJECTED, reason, false);
     }
-}
 
+    /**
+     * Batch form of {@link #debit} for one poll of events, in one transaction. Each customer's
+     * claimed debits are first tried as a single conditional UPDATE for their total; only
+     * customers who cannot cover the total fall back to per-debit updates, applied in request
+     * order so earlier debits win. Customers are updated in id order so concurrent batches
+     * lock account rows in the same order. Results are returned in request order; a key
+     * repeated within the batch is reported as replayed after its first occurrence.
+     *
+     * <p>Relies on the driver returning exact per-statement update counts, so the payment
+     * datasource must not enable {@code reWriteBatchedInserts}.
+     */
+    @Transactional
+    public List<DebitResult> debitAll(List<DebitRequest> requests) {
+        Map<String, DebitRequest> unique = new LinkedHashMap<>();
+        for (DebitRequest request : requests) {
+            unique.putIfAbsent(request.idempotencyKey(), request);
+        }
+        List<DebitRequest> candidates = new ArrayList<>(unique.values());
+        int[] claimed = jdbcTemplate.batchUpdate(CLAIM_SQL, candidates.stream()
+                .map(r -> new Object[]{r.idempotencyKey(), r.customerId(), r.amount()})
+                .toList());
 
+        Map<String, DebitResult> outcomes = new HashMap<>(candidates.size());
+        List<String> replayedKeys = new ArrayList<>();
+        Map<Long, List<DebitRequest>> byCustomer = new TreeMap<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            DebitRequest request = candidates.get(i);
+            if (claimed[i] == 1) {
+                byCustomer.computeIfAbsent(request.customerId(), id -> new ArrayList<>()).add(request);
+            } else {
+                replayedKeys.add(request.idempotencyKey());
+            }
+        }
+        if (!replayedKeys.isEmpty()) {
+            ledgerRepository.findByIdempotencyKeyIn(replayedKeys).forEach(entry -> outcomes.put(entry.getIdempotencyKey(),
+                    new DebitResult(entry.getIdempotencyKey(), entry.getStatus(), entry.getReason(), true)));
+        }
+        balanceCache.invalidateAfterCommit(applyDebits(byCustomer, outcomes));
+
+        Set<String> reported = new HashSet<>(requests.size());
+        return requests.stream()
+                .map(request -> {
+                    DebitResult outcome = outcomes.get(request.idempotencyKey());
+                    if (outcome == null) {
+                        throw new IllegalStateException("Ledger entry vanished: " + request.idempotencyKey());
+                    }
+                    return reported.add(request.idempotencyKey()) || outcome.replayed()
+                            ? outcome
+                            : new DebitResult(outcome.idempotencyKey(), outcome.status(), outcome.reason(), true);
+                })
+                .toList();
+    }
+
+    // Returns the customers whose balance changed
+    private Set<Long> applyDebits(Map<Long, List<DebitRequest>> byCustomer, Map<String, DebitResult> outcomes) {
+        Set<Long> debited = new HashSet<>();
+        if (byCustomer.isEmpty()) {
+            return debited;
+        }
+        List<Long> customerIds = new ArrayList<>(byCustomer.keySet());
+        int[] totals = jdbcTemplate.batchUpdate(DEBIT_SQL, customerIds.stream()
+                .map(id -> {
+                    BigDecimal total = byCustomer.get(id).stream().map(DebitRequest::amount).reduce(BigDecimal.ZERO, BigDecimal::add);
+                    return new Object[]{total, id, total};
+                })
+                .toList());
+
+        List<DebitRequest> oneByOne = new ArrayList<>();
+        for (int i = 0; i < customerIds.size(); i++) {
+            List<DebitRequest> debits = byCustomer.get(customerIds.get(i));
+            if (totals[i] == 1) {
+                debited.add(customerIds.get(i));
+                debits.forEach(r -> outcomes.put(r.idempotencyKey(), new DebitResult(r.idempotencyKey(), Status.DEBITED, null, false)));
+            } else {
+                oneByOne.addAll(debits);
+            }
+        }
+        if (oneByOne.isEmpty()) {
+            return debited;
+        }
+
+        int[] singles = jdbcTemplate.batchUpdate(DEBIT_SQL, oneByOne.stream()
+                .map(r -> new Object[]{r.amount(), r.customerId(), r.amount()})
+                .toList());
+        Set<Long> existing = new HashSet<>(repository.findExistingCustomerIds(
+                oneByOne.stream().map(DebitRequest::customerId).distinct().toList()));
+        List<Object[]> rejections = new ArrayList<>();
+        for (int i = 0; i < oneByOne.size(); i++) {
+            DebitRequest r = oneByOne.get(i);
+            if (singles[i] == 1) {
+                debited.add(r.customerId());
+                outcomes.put(r.idempotencyKey(), new DebitResult(r.idempotencyKey(), Status.DEBITED, null, false));
+            } else {
+                String reason = existing.contains(r.customerId()) ? INSUFFICIENT_FUNDS : ACCOUNT_NOT_FOUND;
+                outcomes.put(r.idempotencyKey(), new DebitResult(r.idempotencyKey(), Status.REJECTED, reason, false));
+                rejections.add(new Object[]{reason, r.idempotencyKey()});
+            }
+        }
+        if (!rejections.isEmpty()) {
+            jdbcTemplate.batchUpdate(REJECT_SQL, rejections);
+        }
+        return debited;
+    }
+}
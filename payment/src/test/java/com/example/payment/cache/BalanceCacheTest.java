@@ -0,0 +1,85 @@
+package com.example.payment.cache;
+
+import com.example.payment.cache.BalanceCache.CachedBalance;
+import com.example.payment.config.BalanceCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BalanceCacheTest {
+
+    private BalanceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new BalanceCache(new BalanceCacheProperties(), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void get_shouldLoadOnceForConcurrentCallers() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        CompletableFuture<CachedBalance> first = CompletableFuture.supplyAsync(() -> cache.get(1L, id -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            await(release);
+            return Optional.of(BigDecimal.TEN);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<CachedBalance> second = CompletableFuture.supplyAsync(() -> cache.get(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(BigDecimal.ONE);
+        }));
+        release.countDown();
+
+        assertEquals(BigDecimal.TEN, first.get(5, TimeUnit.SECONDS).balance());
+        assertEquals(BigDecimal.TEN, second.get(5, TimeUnit.SECONDS).balance());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_shouldNotCacheALoadThatAnInvalidationOvertook() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<CachedBalance> stale = CompletableFuture.supplyAsync(() -> cache.get(1L, id -> {
+            loading.countDown();
+            await(release);
+            return Optional.of(BigDecimal.TEN);
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+        cache.invalidate(1L);
+        release.countDown();
+
+        assertEquals(BigDecimal.TEN, stale.get(5, TimeUnit.SECONDS).balance());
+        assertEquals(BigDecimal.ONE, cache.get(1L, id -> Optional.of(BigDecimal.ONE)).balance());
+    }
+
+    @Test
+    void get_shouldCacheNothingWhenTheLoadFails() {
+        assertThrows(IllegalStateException.class, () -> cache.get(1L, id -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals(BigDecimal.ONE, cache.get(1L, id -> Optional.of(BigDecimal.ONE)).balance());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
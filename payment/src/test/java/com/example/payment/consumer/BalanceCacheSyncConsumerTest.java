@@ -0,0 +1,54 @@
+package com.example.payment.consumer;
+
+import com.example.payment.cache.BalanceCache;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+class BalanceCacheSyncConsumerTest {
+
+    @Mock
+    private BalanceCache balanceCache;
+
+    private BalanceCacheSyncConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        consumer = new BalanceCacheSyncConsumer(balanceCache, new ObjectMapper());
+    }
+
+    @Test
+    void onAccountChanges_shouldInvalidateEachChangedCustomerOnce() {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        records.add(record(0, "{\"payload\":{\"op\":\"u\",\"after\":{\"id\":1,\"customer_id\":10}}}"));
+        records.add(record(1, "{\"op\":\"c\",\"after\":{\"id\":2,\"customer_id\":20}}"));
+        records.add(record(2, "{\"op\":\"u\",\"after\":{\"id\":1,\"customer_id\":10}}"));
+        records.add(record(3, "{\"op\":\"d\",\"before\":{\"id\":3,\"customer_id\":30},\"after\":null}"));
+        records.add(record(4, "{\"op\":\"d\",\"before\":{\"id\":4},\"after\":null}"));
+        records.add(record(5, null));
+        records.add(record(6, "not json"));
+
+        consumer.onAccountChanges(records);
+
+        InOrder inOrder = inOrder(balanceCache);
+        inOrder.verify(balanceCache).invalidate(10L);
+        inOrder.verify(balanceCache).invalidate(20L);
+        inOrder.verify(balanceCache).invalidate(30L);
+        verify(balanceCache, times(3)).invalidate(anyLong());
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String value) {
+        return new ConsumerRecord<>("dbserver1.public.payment_accounts", 0, offset, null, value);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.payment.consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyOrderedLanesTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    // Items are "key:sequence"
+    @Test
+    void process_shouldKeepEachKeyInOrderAndReturnResultsInInputOrder() {
+        List<String> items = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            items.add((i % 13) + ":" + i);
+        }
+        Map<String, List<Integer>> seenPerKey = new ConcurrentHashMap<>();
+        List<String> laneThreads = Collections.synchronizedList(new ArrayList<>());
+
+        List<String> results = KeyOrderedLanes.process(items, item -> item.split(":")[0], 4, executor, lane -> {
+            laneThreads.add(Thread.currentThread().getName());
+            for (String item : lane) {
+                String[] parts = item.split(":");
+                seenPerKey.computeIfAbsent(parts[0], k -> new ArrayList<>()).add(Integer.valueOf(parts[1]));
+            }
+            return lane.stream().map(item -> "done " + item).toList();
+        });
+
+        assertEquals(items.stream().map(item -> "done " + item).toList(), results);
+        assertEquals(13, seenPerKey.size());
+        seenPerKey.values().forEach(seq -> assertEquals(seq.stream().sorted().toList(), seq));
+        assertTrue(laneThreads.size() > 1);
+    }
+
+    @Test
+    void process_shouldRethrowLaneFailureAfterAllLanesFinish() {
+        List<Integer> finished = Collections.synchronizedList(new ArrayList<>());
+
+        assertThrows(IllegalStateException.class, () -> KeyOrderedLanes.process(List.of(1, 2, 3, 4), i -> i, 4, executor, lane -> {
+            if (lane.contains(2)) {
+                throw new IllegalStateException("lane failed");
+            }
+            finished.addAll(lane);
+            return lane;
+        }));
+        assertEquals(3, finished.size());
+    }
+}
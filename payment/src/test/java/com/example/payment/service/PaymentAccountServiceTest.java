@@ -0,0 +1,168 @@
+package com.example.payment.service;
+
+import com.example.payment.cache.BalanceCache;
+import com.example.payment.config.BalanceCacheProperties;
+import com.example.payment.dto.PaymentDtos.BalanceCheck;
+import com.example.payment.dto.PaymentDtos.DebitRequest;
+import com.example.payment.dto.PaymentDtos.DebitResult;
+import com.example.payment.entity.PaymentLedgerEntry;
+import com.example.payment.entity.PaymentLedgerEntry.Status;
+import com.example.payment.repository.PaymentAccountRepository;
+import com.example.payment.repository.PaymentLedgerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class PaymentAccountServiceTest {
+
+    private static final BigDecimal AMOUNT = new BigDecimal("12.50");
+
+    @Mock
+    private PaymentAccountRepository repository;
+
+    @Mock
+    private PaymentLedgerRepository ledgerRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Spy
+    private BalanceCache balanceCache = new BalanceCache(new BalanceCacheProperties(), new SimpleMeterRegistry());
+
+    @InjectMocks
+    private PaymentAccountService paymentAccountService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+    }
+
+    @Test
+    void checkBalance_shouldServeRepeatedPrechecksFromCacheUntilADebit() {
+        when(repository.findBalanceByCustomerId(1L)).thenReturn(Optional.of(new BigDecimal("20")));
+        when(ledgerRepository.claim("order-7", 1L, AMOUNT)).thenReturn(1);
+        when(repository.debitIfSufficient(1L, AMOUNT)).thenReturn(1);
+
+        BalanceCheck first = paymentAccountService.checkBalance(1L, AMOUNT);
+        BalanceCheck second = paymentAccountService.checkBalance(1L, new BigDecimal("25"));
+        assertTrue(first.sufficient());
+        assertFalse(second.sufficient());
+        assertEquals(first.asOf(), second.asOf());
+        verify(repository, times(1)).findBalanceByCustomerId(1L);
+
+        paymentAccountService.debit("order-7", 1L, AMOUNT);
+        paymentAccountService.checkBalance(1L, AMOUNT);
+        verify(repository, times(2)).findBalanceByCustomerId(1L);
+    }
+
+    @Test
+    void checkBalance_shouldCacheMissingAccountsAsInsufficient() {
+        when(repository.findBalanceByCustomerId(9L)).thenReturn(Optional.empty());
+
+        assertFalse(paymentAccountService.checkBalance(9L, AMOUNT).sufficient());
+        assertFalse(paymentAccountService.checkBalance(9L, AMOUNT).sufficient());
+        verify(repository, times(1)).findBalanceByCustomerId(9L);
+    }
+
+    @Test
+    void findBalance_shouldShareTheCacheWithPrechecks() {
+        when(repository.findBalanceByCustomerId(1L)).thenReturn(Optional.of(new BigDecimal("20")));
+
+        paymentAccountService.checkBalance(1L, AMOUNT);
+        assertEquals(new BigDecimal("20"), paymentAccountService.findBalance(1L).balance());
+        verify(repository, times(1)).findBalanceByCustomerId(1L);
+    }
+
+    @Test
+    void debit_shouldClaimKeyThenDebitConditionally() {
+        when(ledgerRepository.claim("order-7", 1L, AMOUNT)).thenReturn(1);
+        when(repository.debitIfSufficient(1L, AMOUNT)).thenReturn(1);
+
+        DebitResult result = paymentAccountService.debit("order-7", 1L, AMOUNT);
+
+        assertTrue(result.debited());
+        assertFalse(result.replayed());
+        verify(ledgerRepository, never()).markRejected(any(), any());
+    }
+
+    @Test
+    void debit_shouldRecordRejectionWhenBalanceIsTooLow() {
+        when(ledgerRepository.claim("order-7", 1L, AMOUNT)).thenReturn(1);
+        when(repository.debitIfSufficient(1L, AMOUNT)).thenReturn(0);
+        when(repository.existsByCustomerId(1L)).thenReturn(true);
+
+        DebitResult result = paymentAccountService.debit("order-7", 1L, AMOUNT);
+
+        assertEquals(Status.REJECTED, result.status());
+        assertEquals(PaymentAccountService.INSUFFICIENT_FUNDS, result.reason());
+        verify(ledgerRepository).markRejected("order-7", PaymentAccountService.INSUFFICIENT_FUNDS);
+    }
+
+    @Test
+    void debit_shouldReplayRecordedOutcomeWithoutTouchingBalance() {
+        when(ledgerRepository.claim("order-7", 1L, AMOUNT)).thenReturn(0);
+        when(ledgerRepository.findByIdempotencyKey("order-7")).thenReturn(Optional.of(PaymentLedgerEntry.builder()
+                .idempotencyKey("order-7").status(Status.REJECTED).reason(PaymentAccountService.ACCOUNT_NOT_FOUND).build()));
+
+        DebitResult result = paymentAccountService.debit("order-7", 1L, AMOUNT);
+
+        assertTrue(result.replayed());
+        assertEquals(Status.REJECTED, result.status());
+        assertEquals(PaymentAccountService.ACCOUNT_NOT_FOUND, result.reason());
+        verify(repository, never()).debitIfSufficient(anyLong(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void debitAll_shouldDebitCustomerTotalsAndFallBackPerDebitWhenTotalIsNotCovered() {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO payment_ledger"), anyList())).thenReturn(new int[]{1, 1, 1, 0});
+        when(jdbcTemplate.batchUpdate(startsWith("UPDATE payment_accounts"), anyList()))
+                .thenReturn(new int[]{0, 1})
+                .thenReturn(new int[]{1, 0});
+        when(repository.findExistingCustomerIds(List.of(1L))).thenReturn(List.of(1L));
+        when(ledgerRepository.findByIdempotencyKeyIn(List.of("order-4"))).thenReturn(List.of(PaymentLedgerEntry.builder()
+                .idempotencyKey("order-4").status(Status.DEBITED).build()));
+
+        List<DebitResult> results = paymentAccountService.debitAll(List.of(
+                new DebitRequest("order-1", 2L, AMOUNT),
+                new DebitRequest("order-2", 1L, AMOUNT),
+                new DebitRequest("order-3", 1L, AMOUNT),
+                new DebitRequest("order-4", 1L, AMOUNT),
+                new DebitRequest("order-1", 2L, AMOUNT)));
+
+        assertEquals(List.of(Status.DEBITED, Status.DEBITED, Status.REJECTED, Status.DEBITED, Status.DEBITED),
+                results.stream().map(DebitResult::status).toList());
+        assertEquals(List.of(false, false, false, true, true), results.stream().map(DebitResult::replayed).toList());
+        assertEquals(PaymentAccountService.INSUFFICIENT_FUNDS, results.get(2).reason());
+
+        ArgumentCaptor<List<Object[]>> debits = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("UPDATE payment_accounts"), debits.capture());
+        // Customers in id order with their totals, then customer 1's debits one by one
+        assertArrayEquals(new Object[]{AMOUNT.add(AMOUNT), 1L, AMOUNT.add(AMOUNT)}, debits.getAllValues().get(0).get(0));
+        assertArrayEquals(new Object[]{AMOUNT, 2L, AMOUNT}, debits.getAllValues().get(0).get(1));
+        assertEquals(2, debits.getAllValues().get(1).size());
+
+        ArgumentCaptor<List<Object[]>> rejections = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE payment_ledger"), rejections.capture());
+        assertArrayEquals(new Object[]{PaymentAccountService.INSUFFICIENT_FUNDS, "order-3"}, rejections.getValue().get(0));
+        verify(balanceCache).invalidateAfterCommit(Set.of(1L, 2L));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.product.cache;
+
+import com.example.product.config.ProductCacheProperties;
+import com.example.product.dto.PriceSnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * In-process price snapshots, so availability checks can price a basket without a database
+ * read. Every write keeps the snapshot with the higher version: a load that read the row
+ * before a price change cannot overwrite the newer price the CDC stream already delivered,
+ * and a late CDC event cannot roll a price back. The TTL bounds staleness should a change
+ * event be missed.
+ */
+@Component
+public class ProductPriceCache {
+
+    private final Cache<Long, PriceSnapshot> cache;
+
+    public ProductPriceCache(ProductCacheProperties properties, MeterRegistry meterRegistry) {
+        ProductCacheProperties.Price priceProperties = properties.getPrice();
+        if (priceProperties.isEnabled()) {
+            this.cache = Caffeine.newBuilder()
+                    .maximumSize(priceProperties.getMaximumSize())
+                    .expireAfterWrite(priceProperties.getTtl())
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "product.price");
+        } else {
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Returns the snapshots of the given products, loading all missing ones with a single
+     * call to {@code loader}. Products the loader does not return are absent from the result.
+     */
+    public Map<Long, PriceSnapshot> getAll(Collection<Long> productIds,
+                                           Function<Collection<Long>, List<PriceSnapshot>> loader) {
+        if (productIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<Long, PriceSnapshot> result = new HashMap<>(productIds.size());
+        List<Long> missing;
+        if (cache != null) {
+            result.putAll(cache.getAllPresent(productIds));
+            if (result.size() == productIds.size()) {
+                return result;
+            }
+            missing = new ArrayList<>(productIds.size() - result.size());
+            for (Long id : productIds) {
+                if (!result.containsKey(id)) {
+                    missing.add(id);
+                }
+            }
+        } else {
+            missing = new ArrayList<>(productIds);
+        }
+        for (PriceSnapshot snapshot : loader.apply(missing)) {
+            result.put(snapshot.productId(), put(snapshot));
+        }
+        return result;
+    }
+
+    /** Applies a price seen on the CDC stream; older versions than the cached one are ignored. */
+    public void refresh(PriceSnapshot snapshot) {
+        put(snapshot);
+    }
+
+    public void invalidate(Long productId) {
+        if (cache != null) {
+            cache.invalidate(productId);
+        }
+    }
+
+    // Returns the snapshot that is cached afterwards, which may be a newer one already held
+    private PriceSnapshot put(PriceSnapshot snapshot) {
+        if (cache == null) {
+            return snapshot;
+        }
+        return cache.asMap().merge(snapshot.productId(), snapshot,
+                (held, offered) -> offered.version() >= held.version() ? offered : held);
+    }
+}
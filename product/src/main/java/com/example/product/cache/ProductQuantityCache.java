@@ -0,0 +1,258 @@
+package com.example.product.cache;
+
+import com.example.product.config.ProductCacheProperties;
+import com.example.product.dto.QuantitySnapshot;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.GenericToStringSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-tier cache for product quantities: a bounded in-process near cache in front of
+ * the shared {@code product:qty:} keys in Redis. Redis stays the shared tier written by
+ * the service and the CDC stream; the near tier only ever holds values read from or
+ * written to Redis and is refreshed by CDC on every instance. Next to each quantity
+ * written by CDC or the stock reconciler, {@code product:qtyver:} holds its
+ * {@code quantity_version}, so a delayed change cannot overwrite a newer quantity.
+ * Reservation holds ({@code product:held:}) are read and near-cached together with the
+ * quantities, so a basket served from the near tier costs no Redis call.
+ */
+@Component
+public class ProductQuantityCache {
+
+    public static final String CACHE_PREFIX = "product:qty:";
+    public static final String VERSION_PREFIX = "product:qtyver:";
+    // Units held by stock reservations, maintained by the scripts of StockReservationService
+    public static final String HELD_PREFIX = "product:held:";
+    public static final int NOT_FOUND_SENTINEL = -1;
+    public static final Duration POSITIVE_TTL = Duration.ofMinutes(10);
+    public static final Duration NEGATIVE_TTL = Duration.ofSeconds(45);
+
+    private static final RedisScript<Long> APPLY =
+            RedisScript.of(new ClassPathResource("scripts/quantity/apply.lua"), Long.class);
+    private static final RedisSerializer<String> SCRIPT_ARGS = RedisSerializer.string();
+    private static final RedisSerializer<Long> SCRIPT_RESULT = new GenericToStringSerializer<>(Long.class);
+
+    private final RedisTemplate<String, Integer> redisTemplate;
+    private final Cache<Long, Integer> near;
+    // Units held per product, read with the quantities and expiring with them
+    private final Cache<Long, Integer> nearHeld;
+
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter redisErrors;
+    private final Counter staleChanges;
+
+    public ProductQuantityCache(RedisTemplate<String, Integer> redisTemplate,
+                                ProductCacheProperties properties,
+                                MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        ProductCacheProperties.Near nearProperties = properties.getNear();
+        if (nearProperties.isEnabled()) {
+            this.near = Caffeine.newBuilder()
+                    .maximumSize(nearProperties.getMaximumSize())
+                    .expireAfterWrite(nearProperties.getTtl())
+                    .recordStats()
+                    .build();
+            this.nearHeld = Caffeine.newBuilder()
+                    .maximumSize(nearProperties.getMaximumSize())
+                    .expireAfterWrite(nearProperties.getTtl())
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, near, "product.qty.near");
+        } else {
+            this.near = null;
+            this.nearHeld = null;
+        }
+        this.redisHits = Counter.builder("product.qty.redis.gets").tag("result", "hit").register(meterRegistry);
+        this.redisMisses = Counter.builder("product.qty.redis.gets").tag("result", "miss").register(meterRegistry);
+        this.redisErrors = Counter.builder("product.qty.redis.errors").register(meterRegistry);
+        this.staleChanges = Counter.builder("product.qty.cdc.stale").register(meterRegistry);
+    }
+
+    /**
+     * What one lookup found: cached quantities, and units held by stock reservations (only
+     * products with holds are listed).
+     */
+    public record StockLevels(Map<Long, Integer> quantities, Map<Long, Integer> held) {}
+
+    /**
+     * Looks the ids up in the near tier first and only asks Redis for the rest, fetching
+     * their quantities and holds in the same multiGet. Ids whose quantity is in neither tier
+     * are left out of the quantities. A Redis failure degrades to near hits only.
+     */
+    public StockLevels getAll(Collection<Long> productIds) {
+        if (productIds.isEmpty()) {
+            return new StockLevels(Collections.emptyMap(), Collections.emptyMap());
+        }
+        Map<Long, Integer> result = new HashMap<>(productIds.size());
+        Map<Long, Integer> held = new HashMap<>();
+        List<Long> remoteIds;
+        if (near != null) {
+            // A near hit needs both values; either may have expired or been dropped alone
+            Map<Long, Integer> nearQuantities = near.getAllPresent(productIds);
+            Map<Long, Integer> nearHolds = nearHeld.getAllPresent(productIds);
+            remoteIds = new ArrayList<>();
+            for (Long id : productIds) {
+                Integer quantity = nearQuantities.get(id);
+                Integer units = nearHolds.get(id);
+                if (quantity == null || units == null) {
+                    remoteIds.add(id);
+                    continue;
+                }
+                result.put(id, quantity);
+                if (units > 0) {
+                    held.put(id, units);
+                }
+            }
+            if (remoteIds.isEmpty()) {
+                return new StockLevels(result, held);
+            }
+        } else {
+            remoteIds = new ArrayList<>(productIds);
+        }
+
+        List<String> keys = new ArrayList<>(remoteIds.size() * 2);
+        for (Long id : remoteIds) {
+            keys.add(CACHE_PREFIX + id);
+        }
+        for (Long id : remoteIds) {
+            keys.add(HELD_PREFIX + id);
+        }
+        List<Integer> values;
+        try {
+            values = redisTemplate.opsForValue().multiGet(keys);
+        } catch (RuntimeException ex) {
+            // Redis problem: serve what the near tier has and let the caller load the rest
+            redisErrors.increment();
+            return new StockLevels(result, held);
+        }
+        if (values == null) {
+            redisMisses.increment(remoteIds.size());
+            return new StockLevels(result, held);
+        }
+        int hits = 0;
+        for (int i = 0; i < remoteIds.size(); i++) {
+            Long id = remoteIds.get(i);
+            Integer value = values.get(i);
+            Integer units = values.get(remoteIds.size() + i);
+            int heldUnits = units == null ? 0 : Math.max(units, 0);
+            if (heldUnits > 0) {
+                held.put(id, heldUnits);
+            }
+            if (near != null) {
+                nearHeld.put(id, heldUnits);
+            }
+            if (value != null) {
+                result.put(id, value);
+                if (near != null) {
+                    near.put(id, value);
+                }
+                hits++;
+            }
+        }
+        redisHits.increment(hits);
+        redisMisses.increment(remoteIds.size() - hits);
+        return new StockLevels(result, held);
+    }
+
+    /**
+     * Applies a change of holds made by this instance's reservation scripts to the near tier,
+     * {@code delta} per product. Holds taken or released on other instances reach the near
+     * tier when the entry expires.
+     */
+    public void adjustHeld(Map<Long, Integer> delta) {
+        if (near == null) {
+            return;
+        }
+        delta.forEach((id, units) -> nearHeld.asMap().computeIfPresent(id, (key, current) -> Math.max(0, current + units)));
+    }
+
+    /**
+     * Writes freshly loaded quantities back in a single pipelined round trip, with the
+     * positive TTL or, for {@link #NOT_FOUND_SENTINEL}, the negative one, and seeds the
+     * near tier. Best effort: Redis errors are counted and swallowed.
+     */
+    public void putAll(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        try {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) {
+                    ValueOperations<String, Integer> ops = (ValueOperations<String, Integer>) operations.opsForValue();
+                    quantities.forEach((id, qty) ->
+                            ops.set(CACHE_PREFIX + id, qty, ttlFor(qty).toSeconds(), TimeUnit.SECONDS));
+                    return null;
+                }
+            });
+        } catch (RuntimeException ex) {
+            redisErrors.increment();
+            return;
+        }
+        if (near != null) {
+            near.putAll(quantities);
+        }
+    }
+
+    /**
+     * Applies a change observed on the CDC stream to this instance's near tier. Only
+     * entries already held are refreshed so the stream does not fill the near tier
+     * with cold products.
+     */
+    public void refreshNear(Long productId, Integer quantity) {
+        if (near == null) {
+            return;
+        }
+        if (quantity == null) {
+            near.invalidate(productId);
+        } else {
+            near.asMap().computeIfPresent(productId, (id, previous) -> quantity);
+        }
+    }
+
+    /**
+     * Applies a coalesced batch of CDC changes in one script call. CDC-maintained quantities
+     * are written without TTL, each unless the cached version is newer; a {@code null}
+     * snapshot marks a deleted product and is written as a negative-cache entry. Unlike
+     * {@link #putAll} failures propagate, so the caller can retry before committing its offsets.
+     */
+    public void applyChanges(Map<Long, QuantitySnapshot> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(4 + changes.size() * 3);
+        args.add(CACHE_PREFIX);
+        args.add(VERSION_PREFIX);
+        args.add(String.valueOf(NOT_FOUND_SENTINEL));
+        args.add(String.valueOf(NEGATIVE_TTL.toSeconds()));
+        changes.forEach((id, snapshot) -> {
+            args.add(id.toString());
+            args.add(snapshot == null ? "" : String.valueOf(snapshot.quantity()));
+            args.add(snapshot == null ? "" : String.valueOf(snapshot.version()));
+        });
+        Long skipped = redisTemplate.execute(APPLY, SCRIPT_ARGS, SCRIPT_RESULT, List.of(), args.toArray());
+        if (skipped != null && skipped > 0) {
+            staleChanges.increment(skipped);
+        }
+    }
+
+    private static Duration ttlFor(Integer quantity) {
+        return Objects.equals(quantity, NOT_FOUND_SENTINEL) ? NEGATIVE_TTL : POSITIVE_TTL;
+    }
+}
@@ -1,6 +1,5 @@
 package com.example.product.config;
 
-import org.modelmapper.ModelMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -11,11 +10,6 @@ import org.springframework.data.redis.serializer.StringRedisSerializer;
 @Configuration
 public class AppConfig {
 
-    @Bean
-    public ModelMapper modelMapper(){
-        return new ModelMapper();
-    }
-
     @Bean
   public RedisTemplate<String, Integer> redisTemplate(RedisConnectionFactory cf) {
     RedisTemplate<String, Integer> tpl = new RedisTemplate<>();
@@ -0,0 +1,35 @@
+package com.example.product.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "product.cache")
+public class ProductCacheProperties {
+    private Near near = new Near();
+    private Price price = new Price();
+
+    @Getter
+    @Setter
+    public static class Near {
+        // In-process tier in front of Redis; kept small and short-lived, CDC keeps it coherent
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofSeconds(5);
+    }
+
+    @Getter
+    @Setter
+    public static class Price {
+        // Prices change rarely and CDC refreshes every instance, so entries can live long
+        private boolean enabled = true;
+        private long maximumSize = 100_000;
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.product.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "product.reservation")
+public class StockReservationProperties {
+    private Duration defaultTtl = Duration.ofMinutes(5);
+    private Duration maxTtl = Duration.ofMinutes(30);
+    // How often expired holds are given back, and how many per pass
+    private Duration sweepInterval = Duration.ofSeconds(1);
+    private int sweepBatchSize = 500;
+    // How often confirmed units are written to Product.quantity in one batch
+    private Duration reconcileInterval = Duration.ofSeconds(2);
+}
@@ -5,15 +5,23 @@ import com.example.product.dto.request.ProductCreateRequest;
 import com.example.product.dto.request.ProductQuantityCheckRequest;
 import com.example.product.dto.request.ProductUpdateRequest;
 import com.example.product.dto.response.ProductResponse;
+import com.example.product.pagination.CursorPage;
+import com.example.product.service.ProductExportService;
 import com.example.product.service.ProductService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Optional;
@@ -23,6 +31,7 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class ProductController {
     private final ProductService productService;
+    private final ProductExportService exportService;
 
     @PostMapping
     public ResponseEntity<ProductResponse> create(@Valid @RequestBody ProductCreateRequest request) {
@@ -35,6 +44,30 @@ public class ProductController {
         return productService.findAll(pageable);
     }
 
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<ProductResponse>> scroll(@RequestParam(defaultValue = "20") @Min(1) @Max(1000) int size,
+                                                              @RequestParam(defaultValue = "id") String sort,
+                                                              @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(productService.scroll(size, sort, direction, cursor, includeTotal));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    // Streams the whole catalog (or everything after afterId) from an async thread
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(defaultValue = "NDJSON") ProductExportService.Format format,
+                                                        @RequestParam(defaultValue = "0") long afterId) {
+        StreamingResponseBody body = out -> exportService.export(format, afterId, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"products." + format.extension() + "\"")
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> findById(@PathVariable Long id) {
         Optional<ProductResponse> product = productService.findById(id);
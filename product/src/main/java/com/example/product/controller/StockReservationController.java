@@ -0,0 +1,36 @@
+package com.example.product.controller;
+
+import com.example.product.dto.request.StockReservationRequest;
+import com.example.product.dto.response.StockReservationResponse;
+import com.example.product.service.StockReservationService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/products/reservations")
+@RequiredArgsConstructor
+public class StockReservationController {
+    private final StockReservationService reservationService;
+
+    @PostMapping
+    public ResponseEntity<StockReservationResponse> reserve(@Valid @RequestBody StockReservationRequest request) {
+        StockReservationResponse reservation = reservationService.reserve(request);
+        HttpStatus status = reservation.status() == StockReservationResponse.Status.HELD ? HttpStatus.CREATED : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).body(reservation);
+    }
+
+    @PostMapping("/{id}/confirm")
+    public ResponseEntity<StockReservationResponse> confirm(@PathVariable String id) {
+        return reservationService.confirm(id).map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> release(@PathVariable String id) {
+        return reservationService.release(id).isPresent()
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.product.dto;
+
+/**
+ * A product's price as of {@code version}. The version only moves forward, once per price
+ * change, so of two snapshots of the same product the one with the higher version wins.
+ */
+public record PriceSnapshot(long productId, double price, long version) {
+}
@@ -1,4 +1,12 @@
 package com.example.product.dto;
 
-public record ProductAvailabilityResponse (long productId, boolean available, Integer availableQty){
+import java.math.BigDecimal;
+
+// price and priceVersion are the snapshot an order is priced with; null for unknown products
+public record ProductAvailabilityResponse (long productId, boolean available, Integer availableQty,
+                                           BigDecimal price, Long priceVersion){
+
+    public ProductAvailabilityResponse(long productId, boolean available, Integer availableQty) {
+        this(productId, available, availableQty, null, null);
+    }
 }
@@ -0,0 +1,8 @@
+package com.example.product.dto;
+
+/**
+ * A product's stock quantity as of {@code version}. The version moves forward with every
+ * quantity change, so a cached quantity is only ever replaced by one at least as recent.
+ */
+public record QuantitySnapshot(long productId, int quantity, long version) {
+}
@@ -0,0 +1,15 @@
+package com.example.product.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+
+import java.util.List;
+
+public record StockReservationRequest(
+        @NotEmpty(message = "Items are required")
+        List<@Valid ProductQuantityCheckRequest> items,
+
+        @Positive(message = "TTL must be positive")
+        Integer ttlSeconds
+) {}
@@ -0,0 +1,20 @@
+package com.example.product.dto.response;
+
+import com.example.product.dto.ProductAvailabilityResponse;
+
+import java.time.Instant;
+import java.util.List;
+
+public record StockReservationResponse(
+        String reservationId,
+        Status status,
+        Instant expiresAt,
+        List<ProductAvailabilityResponse> shortages
+) {
+    public enum Status {
+        HELD,
+        REJECTED,
+        CONFIRMED,
+        RELEASED
+    }
+}
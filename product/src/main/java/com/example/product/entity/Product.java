@@ -1,14 +1,16 @@
 package com.example.product.entity;
 
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
+import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
+// Keyset pagination seeks on (sort column, id); see ProductKeysetRepository
+@Table(indexes = {
+        @Index(name = "idx_product_name_id", columnList = "name, id"),
+        @Index(name = "idx_product_price_id", columnList = "price, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,7 +18,14 @@ public class Product {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
+    @Column(nullable = false)
     private String name;
     private double price;
+    // Bumped on every price change; orders record it with the price they were charged
+    @Column(name = "price_version", nullable = false)
+    private long priceVersion;
     private int quantity;
+    // Bumped on every quantity change; cached quantities are only replaced by newer ones
+    @Column(name = "quantity_version", nullable = false)
+    private long quantityVersion;
 }
@@ -0,0 +1,20 @@
+package com.example.product.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+
+// Marks a reservation batch as applied to Product.quantity so a retried batch is never applied twice
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+public class StockReconciliationBatch {
+    @Id
+    private String batchId;
+    private OffsetDateTime appliedAt;
+}
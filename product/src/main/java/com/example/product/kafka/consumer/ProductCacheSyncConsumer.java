@@ -1,44 +1,124 @@
 package com.example.product.kafka.consumer;
 
+import com.example.product.cache.ProductPriceCache;
+import com.example.product.cache.ProductQuantityCache;
+import com.example.product.dto.PriceSnapshot;
+import com.example.product.dto.QuantitySnapshot;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ProductCacheSyncConsumer {
 
-    private final RedisTemplate<String, Integer> redisTemplate;
-    private static final String CACHE_PREFIX = "product:qty:";
+    private static final String TOPIC = "dbserver1.public.product";
 
-    @KafkaListener(topics = "dbserver1.public.product", groupId = "product-cache-sync")
-    public void handleProductChange(String message) {
-        log.info("Received CDC message: {}", message);
-        try {
-            JsonNode node = new ObjectMapper().readTree(message);
-            JsonNode after = node.path("payload").path("after");
-            JsonNode op = node.path("payload").path("op");
+    private final ProductQuantityCache quantityCache;
+    private final ProductPriceCache priceCache;
+    private final ObjectMapper objectMapper;
+    // Database commit of the oldest change in a batch until that batch is in Redis
+    private final Timer cdcLag;
 
-            if (after.isMissingNode()) {
-                return;
-            }
+    public ProductCacheSyncConsumer(ProductQuantityCache quantityCache,
+                                    ProductPriceCache priceCache,
+                                    ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry) {
+        this.quantityCache = quantityCache;
+        this.priceCache = priceCache;
+        this.objectMapper = objectMapper;
+        this.cdcLag = Timer.builder("product.cdc.lag").publishPercentileHistogram().register(meterRegistry);
+    }
 
-            Long id = after.path("id").asLong();
-            Integer quantity = after.path("quantity").isMissingNode() ? null : after.path("quantity").asInt();
+    // Offsets are committed only after the listener returns, i.e. after the pipelined
+    // Redis write succeeded; a Redis failure propagates and the batch is redelivered.
+    @KafkaListener(topics = TOPIC, groupId = "product-cache-sync", batch = "true")
+    public void handleProductChanges(List<ConsumerRecord<String, String>> records) {
+        Changes changes = latestChanges(records);
+        quantityCache.applyChanges(changes.quantities());
+        if (changes.oldestCommitMillis() < Long.MAX_VALUE) {
+            cdcLag.record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - changes.oldestCommitMillis())));
+        }
+        log.debug("Applied {} CDC records as {} cache writes", records.size(), changes.quantities().size());
+    }
 
-            String operation = node.path("payload").path("op").asText();
-            if ("u".equals(operation) || "c".equals(operation)) {
-                redisTemplate.opsForValue().set(CACHE_PREFIX + id, quantity);
-                log.info("Cache updated from CDC: product {} -> quantity {}", id, quantity);
+    // Every instance joins with its own group so near-cache refreshes reach all of them,
+    // starting from the latest offset: anything older is already reflected in Redis.
+    @KafkaListener(topics = TOPIC,
+            groupId = "product-near-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest",
+            batch = "true")
+    public void refreshNearCache(List<ConsumerRecord<String, String>> records) {
+        Changes changes = latestChanges(records);
+        changes.quantities().forEach((productId, snapshot) ->
+                quantityCache.refreshNear(productId, snapshot == null ? null : snapshot.quantity()));
+        changes.prices().forEach((productId, snapshot) -> {
+            if (snapshot == null) {
+                priceCache.invalidate(productId);
+            } else {
+                priceCache.refresh(snapshot);
             }
+        });
+    }
+
+    /**
+     * Last quantity and price snapshot per product, and the source commit time of the oldest
+     * change read.
+     */
+    private record Changes(Map<Long, QuantitySnapshot> quantities, Map<Long, PriceSnapshot> prices, long oldestCommitMillis) {}
 
-        } catch (Exception e) {
-            log.error("Error processing CDC message: {}", message, e);
+    /**
+     * Coalesces a batch to the last change per product id. Debezium keys records by primary
+     * key, so all changes of one product arrive in order on one partition. Deletes map to
+     * {@code null}; tombstones and unreadable records are skipped.
+     */
+    private Changes latestChanges(List<ConsumerRecord<String, String>> records) {
+        Map<Long, QuantitySnapshot> changes = new LinkedHashMap<>(records.size());
+        Map<Long, PriceSnapshot> prices = new LinkedHashMap<>();
+        long oldestCommitMillis = Long.MAX_VALUE;
+        for (ConsumerRecord<String, String> record : records) {
+            if (record.value() == null) {
+                continue;
+            }
+            try {
+                JsonNode payload = objectMapper.readTree(record.value()).path("payload");
+                JsonNode committedAt = payload.path("source").path("ts_ms");
+                if (committedAt.canConvertToLong()) {
+                    oldestCommitMillis = Math.min(oldestCommitMillis, committedAt.asLong());
+                }
+                String operation = payload.path("op").asText();
+                if ("d".equals(operation)) {
+                    long deletedId = payload.path("before").path("id").asLong();
+                    changes.put(deletedId, null);
+                    prices.put(deletedId, null);
+                    continue;
+                }
+                JsonNode after = payload.path("after");
+                JsonNode quantity = after.path("quantity");
+                if (after.isMissingNode() || after.isNull() || quantity.isMissingNode()) {
+                    continue;
+                }
+                long productId = after.path("id").asLong();
+                changes.put(productId, new QuantitySnapshot(productId, quantity.asInt(), after.path("quantity_version").asLong()));
+                JsonNode price = after.path("price");
+                JsonNode priceVersion = after.path("price_version");
+                if (price.isNumber() && priceVersion.canConvertToLong()) {
+                    prices.put(productId, new PriceSnapshot(productId, price.asDouble(), priceVersion.asLong()));
+                }
+            } catch (Exception e) {
+                log.error("Skipping unreadable CDC record at {}-{}@{}", record.topic(), record.partition(), record.offset(), e);
+            }
         }
+        return new Changes(changes, prices, oldestCommitMillis);
     }
 }
@@ -0,0 +1,33 @@
+package com.example.product.mapper;
+
+import com.example.product.dto.request.ProductCreateRequest;
+import com.example.product.dto.request.ProductUpdateRequest;
+import com.example.product.dto.response.ProductResponse;
+import com.example.product.entity.Product;
+import org.springframework.stereotype.Component;
+
+/**
+ * Plain field-by-field mapping between product requests, the entity and the response.
+ * Read endpoints use the repository projections instead and never load the entity.
+ */
+@Component
+public class ProductMapper {
+
+    public Product toEntity(ProductCreateRequest request) {
+        Product product = new Product();
+        product.setName(request.name());
+        product.setPrice(request.price());
+        product.setQuantity(request.quantity());
+        return product;
+    }
+
+    public void updateEntity(ProductUpdateRequest request, Product product) {
+        product.setName(request.name());
+        product.setPrice(request.price());
+        product.setQuantity(request.quantity());
+    }
+
+    public ProductResponse toResponse(Product product) {
+        return new ProductResponse(product.getId(), product.getName(), product.getPrice(), product.getQuantity());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.product.pagination;
+
+import com.example.product.dto.response.ProductResponse;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/** Columns products can be scrolled by; every key is backed by a {@code (column, id)} index. */
+public enum ProductSortKey {
+    ID("id", ProductResponse::id, Long::valueOf),
+    NAME("name", ProductResponse::name, value -> value),
+    PRICE("price", ProductResponse::price, Double::valueOf);
+
+    private final String attribute;
+    private final Function<ProductResponse, Object> extractor;
+    private final Function<String, Comparable<?>> parser;
+
+    ProductSortKey(String attribute, Function<ProductResponse, Object> extractor, Function<String, Comparable<?>> parser) {
+        this.attribute = attribute;
+        this.extractor = extractor;
+        this.parser = parser;
+    }
+
+    public String attribute() {
+        return attribute;
+    }
+
+    public String valueOf(ProductResponse product) {
+        return String.valueOf(extractor.apply(product));
+    }
+
+    public Comparable<?> parse(String value) {
+        return parser.apply(value);
+    }
+
+    public static ProductSortKey from(String sort) {
+        try {
+            return valueOf(sort.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported sort key: " + sort, e);
+        }
+    }
+}
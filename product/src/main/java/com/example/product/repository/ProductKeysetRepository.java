@@ -0,0 +1,19 @@
+package com.example.product.repository;
+
+import com.example.product.dto.response.ProductResponse;
+import com.example.product.pagination.KeysetCursor;
+import com.example.product.pagination.ProductSortKey;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+public interface ProductKeysetRepository {
+
+    /**
+     * Reads up to {@code limit} products ordered by {@code (sortKey, id)} that come strictly
+     * after {@code after}, or from the start when it is {@code null}. No offset and no count:
+     * the cost of a page does not depend on how deep into the listing it is.
+     */
+    List<ProductResponse> findProductResponsesAfter(ProductSortKey sortKey, Sort.Direction direction,
+                                                    KeysetCursor after, int limit);
+}
@@ -0,0 +1,57 @@
+package com.example.product.repository;
+
+import com.example.product.dto.response.ProductResponse;
+import com.example.product.entity.Product;
+import com.example.product.pagination.KeysetCursor;
+import com.example.product.pagination.ProductSortKey;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+class ProductKeysetRepositoryImpl implements ProductKeysetRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<ProductResponse> findProductResponsesAfter(ProductSortKey sortKey, Sort.Direction direction,
+                                                           KeysetCursor after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductResponse> query = cb.createQuery(ProductResponse.class);
+        Root<Product> product = query.from(Product.class);
+        query.select(cb.construct(ProductResponse.class,
+                product.get("id"), product.get("name"), product.get("price"), product.get("quantity")));
+
+        boolean descending = direction.isDescending();
+        Path<Long> id = product.get("id");
+        Path<Comparable> key = product.get(sortKey.attribute());
+
+        if (after != null) {
+            Predicate idAfter = descending ? cb.lessThan(id, after.id()) : cb.greaterThan(id, after.id());
+            if (sortKey == ProductSortKey.ID) {
+                query.where(idAfter);
+            } else {
+                Comparable value = sortKey.parse(after.value());
+                // (key, id) > (value, lastId), with a plain range on key in front so the
+                // (key, id) index is entered at the cursor instead of scanned from the start
+                query.where(
+                        descending ? cb.lessThanOrEqualTo(key, value) : cb.greaterThanOrEqualTo(key, value),
+                        cb.or(descending ? cb.lessThan(key, value) : cb.greaterThan(key, value),
+                                cb.and(cb.equal(key, value), idAfter)));
+            }
+        }
+        if (sortKey == ProductSortKey.ID) {
+            query.orderBy(descending ? cb.desc(id) : cb.asc(id));
+        } else {
+            query.orderBy(descending ? cb.desc(key) : cb.asc(key), descending ? cb.desc(id) : cb.asc(id));
+        }
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
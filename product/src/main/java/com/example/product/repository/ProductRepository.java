@@ -1,14 +1,53 @@
 package com.example.product.repository;
 
+import com.example.product.dto.PriceSnapshot;
+import com.example.product.dto.QuantitySnapshot;
 import com.example.product.dto.request.ProductQuantityCheckRequest;
+import com.example.product.dto.response.ProductResponse;
 import com.example.product.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductKeysetRepository {
 
     @Query(value = "SELECT new com.example.product.dto.request.ProductQuantityCheckRequest(id, quantity) FROM Product WHERE id in :missingIds")
     List<ProductQuantityCheckRequest> findQuantitiesByIds(List<Long> missingIds);
+
+    @Query("SELECT NEW com.example.product.dto.QuantitySnapshot(p.id, p.quantity, p.quantityVersion) FROM Product p WHERE p.id IN :ids")
+    List<QuantitySnapshot> findQuantitySnapshotsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT NEW com.example.product.dto.PriceSnapshot(p.id, p.price, p.priceVersion) FROM Product p WHERE p.id IN :ids")
+    List<PriceSnapshot> findPriceSnapshotsByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT NEW com.example.product.dto.response.ProductResponse(p.id, p.name, p.price, p.quantity) " +
+            "FROM Product p WHERE p.id = :id")
+    Optional<ProductResponse> findProductResponseById(@Param("id") Long id);
+
+    @Query("SELECT NEW com.example.product.dto.response.ProductResponse(p.id, p.name, p.price, p.quantity) " +
+            "FROM Product p")
+    Page<ProductResponse> findAllProductResponse(Pageable pageable);
+
+    /**
+     * Streams every product after {@code afterId} in id order as read-only projections.
+     * Must be consumed inside a transaction: the PostgreSQL driver only uses a server-side
+     * cursor (fetching {@code FETCH_SIZE} rows per round trip) when autocommit is off.
+     */
+    @Query("SELECT NEW com.example.product.dto.response.ProductResponse(p.id, p.name, p.price, p.quantity) " +
+            "FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    Stream<ProductResponse> streamProductResponsesAfter(@Param("afterId") long afterId);
 }
@@ -0,0 +1,15 @@
+package com.example.product.repository;
+
+import com.example.product.entity.StockReconciliationBatch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface StockReconciliationBatchRepository extends JpaRepository<StockReconciliationBatch, String> {
+
+    // Returns 0 when the batch was already applied
+    @Modifying
+    @Query(value = "INSERT INTO StockReconciliationBatch (batchId, appliedAt) VALUES (:batchId, now()) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int markApplied(@Param("batchId") String batchId);
+}
@@ -5,8 +5,10 @@ import com.example.product.dto.request.ProductCreateRequest;
 import com.example.product.dto.request.ProductQuantityCheckRequest;
 import com.example.product.dto.response.ProductResponse;
 import com.example.product.dto.request.ProductUpdateRequest;
+import com.example.product.pagination.CursorPage;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.util.List;
 import java.util.Optional;
@@ -14,6 +16,7 @@ import java.util.Optional;
 public interface IProductService {
     ProductResponse create(ProductCreateRequest request);
     Page<ProductResponse> findAll(Pageable pageable);
+    CursorPage<ProductResponse> scroll(int size, String sort, Sort.Direction direction, String cursor, boolean includeTotal);
     Optional<ProductResponse> findById(Long id);
     ProductResponse update(Long id, ProductUpdateRequest request);
     void deleteById(Long id);
@@ -0,0 +1,12 @@
+package com.example.product.service;
+
+import com.example.product.dto.request.StockReservationRequest;
+import com.example.product.dto.response.StockReservationResponse;
+
+import java.util.Optional;
+
+public interface IStockReservationService {
+    StockReservationResponse reserve(StockReservationRequest request);
+    Optional<StockReservationResponse> confirm(String reservationId);
+    Optional<StockReservationResponse> release(String reservationId);
+}
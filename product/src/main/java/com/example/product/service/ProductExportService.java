@@ -0,0 +1,116 @@
+package com.example.product.service;
+
+import com.example.product.dto.response.ProductResponse;
+import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes the catalog to an output stream row by row. Rows come from a server-side cursor as
+ * projections (nothing is attached to the persistence context) and are written as they
+ * arrive, so memory use does not depend on the size of the catalog. An interrupted export
+ * is resumed by passing the last id received as {@code afterId}.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProductExportService {
+
+    // Push rows to the client regularly instead of only when the buffer fills
+    private static final int FLUSH_EVERY = 1000;
+    private static final String CSV_HEADER = "id,name,price,quantity";
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+
+    /** Returns the number of products written. */
+    @Transactional(readOnly = true)
+    public long export(Format format, long afterId, OutputStream out) throws IOException {
+        try (Stream<ProductResponse> products = productRepository.streamProductResponsesAfter(afterId)) {
+            return format == Format.NDJSON
+                    ? writeNdjson(products.iterator(), out)
+                    : writeCsv(products.iterator(), out);
+        }
+    }
+
+    private long writeNdjson(Iterator<ProductResponse> products, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // Leave the response stream open for the container to finish
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(new SerializedString("\n"));
+        long written = 0;
+        while (products.hasNext()) {
+            generator.writeObject(products.next());
+            if (++written % FLUSH_EVERY == 0) {
+                generator.flush();
+            }
+        }
+        if (written > 0) {
+            generator.writeRaw('\n');
+        }
+        generator.close();
+        return written;
+    }
+
+    private long writeCsv(Iterator<ProductResponse> products, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long written = 0;
+        while (products.hasNext()) {
+            ProductResponse product = products.next();
+            writer.write(String.valueOf(product.id()));
+            writer.write(',');
+            writer.write(csvField(product.name()));
+            writer.write(',');
+            writer.write(String.valueOf(product.price()));
+            writer.write(',');
+            writer.write(String.valueOf(product.quantity()));
+            writer.write('\n');
+            if (++written % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
+        return written;
+    }
+
+    private static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
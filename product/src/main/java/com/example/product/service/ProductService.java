@@ -1,55 +1,93 @@
 package com.example.product.service;
 
+import com.example.product.cache.ProductPriceCache;
+import com.example.product.cache.ProductQuantityCache;
+import com.example.product.dto.PriceSnapshot;
 import com.example.product.dto.ProductAvailabilityResponse;
 import com.example.product.dto.request.ProductCreateRequest;
 import com.example.product.dto.request.ProductQuantityCheckRequest;
 import com.example.product.dto.request.ProductUpdateRequest;
 import com.example.product.dto.response.ProductResponse;
 import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.pagination.CursorPage;
+import com.example.product.pagination.KeysetCursor;
+import com.example.product.pagination.ProductSortKey;
 import com.example.product.repository.ProductRepository;
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.*;
-import java.util.stream.Collectors;
-import java.time.Duration;
-import java.util.concurrent.TimeUnit;
+
+import static com.example.product.cache.ProductQuantityCache.NOT_FOUND_SENTINEL;
 
 @Service
-@RequiredArgsConstructor
 public class ProductService implements IProductService {
 
 
     private final ProductRepository productRepository;
-    private final ModelMapper modelMapper;
-    private final RedisTemplate<String, Integer> redisTemplate;
-    private static final String CACHE_PREFIX = "product:qty:";
-    private static final int NOT_FOUND_SENTINEL = -1;
-    private static final Duration POSITIVE_TTL = Duration.ofMinutes(10);
-    private static final Duration NEGATIVE_TTL = Duration.ofSeconds(45);
+    private final ProductMapper productMapper;
+    private final ProductQuantityCache quantityCache;
+    private final ProductPriceCache priceCache;
+    // Together with the near and Redis tier metrics this gives the hit ratio of each tier
+    private final Timer availabilityTimer;
+    private final Counter databaseLoads;
+
+    public ProductService(ProductRepository productRepository,
+                          ProductMapper productMapper,
+                          ProductQuantityCache quantityCache,
+                          ProductPriceCache priceCache,
+                          MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.productMapper = productMapper;
+        this.quantityCache = quantityCache;
+        this.priceCache = priceCache;
+        this.availabilityTimer = Timer.builder("product.availability.check").publishPercentileHistogram().register(meterRegistry);
+        this.databaseLoads = Counter.builder("product.qty.db.loads").register(meterRegistry);
+    }
 
     @Override
     public ProductResponse create(ProductCreateRequest request) {
-        Product product = modelMapper.map(request, Product.class);
+        Product product = productMapper.toEntity(request);
         Product savedProduct = productRepository.save(product);
-        return modelMapper.map(savedProduct, ProductResponse.class);
+        return productMapper.toResponse(savedProduct);
     }
 
     @Override
     public Page<ProductResponse> findAll(Pageable pageable) {
-        return productRepository.findAll(pageable)
-                .map(product -> modelMapper.map(product, ProductResponse.class));
+        return productRepository.findAllProductResponse(pageable);
+    }
+
+    @Override
+    public CursorPage<ProductResponse> scroll(int size, String sort, Sort.Direction direction, String cursor, boolean includeTotal) {
+        // A cursor pins the sort it was issued for
+        KeysetCursor after = cursor == null ? null : KeysetCursor.decode(cursor);
+        ProductSortKey sortKey = ProductSortKey.from(after == null ? sort : after.sort());
+        Sort.Direction order = after == null ? direction : after.direction();
+
+        // One extra row tells whether there is a next page without counting
+        List<ProductResponse> rows = productRepository.findProductResponsesAfter(sortKey, order, after, size + 1);
+        boolean hasNext = rows.size() > size;
+        List<ProductResponse> content = hasNext ? rows.subList(0, size) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            ProductResponse last = content.get(content.size() - 1);
+            nextCursor = new KeysetCursor(sortKey.name(), order, sortKey.valueOf(last), last.id()).encode();
+        }
+        Long total = includeTotal ? productRepository.count() : null;
+        return new CursorPage<>(List.copyOf(content), size, nextCursor, total);
     }
 
     @Override
     public Optional<ProductResponse> findById(Long id) {
-        return productRepository.findById(id)
-                .map(product -> modelMapper.map(product, ProductResponse.class));
+        return productRepository.findProductResponseById(id);
     }
 
     @Override
@@ -57,9 +95,18 @@ public class ProductService implements IProductService {
         Product existingProduct = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found with id " + id));
 
-        modelMapper.map(request, existingProduct);
+        double previousPrice = existingProduct.getPrice();
+        int previousQuantity = existingProduct.getQuantity();
+        productMapper.updateEntity(request, existingProduct);
+        // Orders keep the version they were priced at, so a new price needs a new version
+        if (Double.compare(previousPrice, existingProduct.getPrice()) != 0) {
+            existingProduct.setPriceVersion(existingProduct.getPriceVersion() + 1);
+        }
+        if (previousQuantity != existingProduct.getQuantity()) {
+            existingProduct.setQuantityVersion(existingProduct.getQuantityVersion() + 1);
+        }
         Product updatedProduct = productRepository.save(existingProduct);
-        return modelMapper.map(updatedProduct, ProductResponse.class);
+        return productMapper.toResponse(updatedProduct);
     }
 
     @Override
@@ -68,101 +115,70 @@ public class ProductService implements IProductService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<ProductAvailabilityResponse> checkQuantities(List<ProductQuantityCheckRequest> requests) {
+        Timer.Sample sample = Timer.start();
         // Step 1: Extract product IDs and deduplicate while keeping stable iteration order
         List<Long> productIds = requests.stream()
                 .map(ProductQuantityCheckRequest::productId)
                 .toList();
         Set<Long> uniqueIds = new LinkedHashSet<>(productIds);
 
-        // Step 2: Try to get quantities from Redis cache first (batched)
-        Map<Long, Integer> cacheData = new HashMap<>(uniqueIds.size());
+        // Step 2: Try to get quantities and reservation holds from the near cache, then Redis (batched)
+        ProductQuantityCache.StockLevels stock = quantityCache.getAll(uniqueIds);
+        Map<Long, Integer> cacheData = new HashMap<>(stock.quantities());
+
+        // Step 3: Identify products that are in neither cache tier
         List<Long> missingIds = new ArrayList<>();
-        try {
-            cacheData.putAll(getQuantitiesFromCache(new ArrayList<>(uniqueIds)));
-
-            // Step 3: Identify products that are not in cache
-            for (Long id : uniqueIds) {
-                if (!cacheData.containsKey(id)) {
-                    missingIds.add(id);
-                }
+        for (Long id : uniqueIds) {
+            if (!cacheData.containsKey(id)) {
+                missingIds.add(id);
             }
-        } catch (RuntimeException ex) {
-            // Redis problem: proceed without cache
-            missingIds.clear();
-            missingIds.addAll(uniqueIds);
-            cacheData.clear();
         }
 
-        // Step 4: Fetch missing data from database and update cache with TTLs and sentinel
+        // Step 4: Fetch missing data from database and write only those back, with TTLs and sentinel
         if (!missingIds.isEmpty()) {
-            List<ProductQuantityCheckRequest> dbDataList = productRepository.findQuantitiesByIds(missingIds);
-
-            // Add database data to our cache map
-            dbDataList.forEach(data -> cacheData.put(data.productId(), data.quantity()));
-
-            // Determine IDs not found in DB
-            Set<Long> foundIds = dbDataList.stream()
-                    .map(ProductQuantityCheckRequest::productId)
-                    .collect(Collectors.toSet());
+            databaseLoads.increment(missingIds.size());
+            Map<Long, Integer> loaded = new HashMap<>(missingIds.size());
+            productRepository.findQuantitiesByIds(missingIds)
+                    .forEach(data -> loaded.put(data.productId(), data.quantity()));
 
             // Negative cache for not-found
             for (Long id : missingIds) {
-                if (!foundIds.contains(id)) {
-                    cacheData.put(id, NOT_FOUND_SENTINEL);
-                }
+                loaded.putIfAbsent(id, NOT_FOUND_SENTINEL);
             }
+            cacheData.putAll(loaded);
 
-            // Best-effort cache writes with TTLs
-            try {
-                for (Map.Entry<Long, Integer> entry : cacheData.entrySet()) {
-                    Long id = entry.getKey();
-                    Integer qty = entry.getValue();
-                    if (qty == null) {
-                        continue;
-                    }
-                    if (Objects.equals(qty, NOT_FOUND_SENTINEL)) {
-                        redisTemplate.opsForValue().set(CACHE_PREFIX + id, qty, NEGATIVE_TTL.toSeconds(), TimeUnit.SECONDS);
-                    } else {
-                        redisTemplate.opsForValue().set(CACHE_PREFIX + id, qty, POSITIVE_TTL.toSeconds(), TimeUnit.SECONDS);
-                    }
-                }
-            } catch (RuntimeException ex) {
-                // Ignore cache write errors
+            // Best-effort cache write-back in one pipelined round trip
+            quantityCache.putAll(loaded);
+        }
+
+        // Step 5: Price the products that exist, from the snapshot cache and one query for its misses
+        List<Long> existingIds = new ArrayList<>(uniqueIds.size());
+        for (Long id : uniqueIds) {
+            Integer cached = cacheData.get(id);
+            if (cached != null && !Objects.equals(cached, NOT_FOUND_SENTINEL)) {
+                existingIds.add(id);
             }
         }
+        Map<Long, PriceSnapshot> prices = priceCache.getAll(existingIds, productRepository::findPriceSnapshotsByIds);
 
-        // Step 5: Build response with availability check, keeping original request order
-        return requests.stream()
+        // Step 6: Build response with availability check, keeping original request order;
+        // units held by stock reservations are not available, as in StockReservationService
+        List<ProductAvailabilityResponse> responses = requests.stream()
                 .map(req -> {
                     Integer cached = cacheData.get(req.productId());
-                    int availableQty = (cached == null || Objects.equals(cached, NOT_FOUND_SENTINEL)) ? 0 : cached;
+                    int availableQty = (cached == null || Objects.equals(cached, NOT_FOUND_SENTINEL))
+                            ? 0
+                            : Math.max(0, cached - stock.held().getOrDefault(req.productId(), 0));
                     boolean available = availableQty >= req.quantity();
-                    return new ProductAvailabilityResponse(req.productId(), available, availableQty);
+                    PriceSnapshot price = prices.get(req.productId());
+                    return price == null
+                            ? new ProductAvailabilityResponse(req.productId(), available, availableQty)
+                            : new ProductAvailabilityResponse(req.productId(), available, availableQty,
+                                    BigDecimal.valueOf(price.price()), price.version());
                 })
                 .toList();
-    }
-
-    private Map<Long, Integer> getQuantitiesFromCache(List<Long> productIds) {
-        if (productIds.isEmpty()) {
-            return Collections.emptyMap();
-        }
-        List<String> keys = productIds.stream()
-                .map(id -> CACHE_PREFIX + id)
-                .toList();
-
-        List<Integer> values = redisTemplate.opsForValue().multiGet(keys);
-        Map<Long, Integer> cacheData = new HashMap<>(productIds.size());
-        if (values == null) {
-            return cacheData;
-        }
-        for (int i = 0; i < productIds.size(); i++) {
-            Integer value = values.get(i);
-            if (value != null) {
-                cacheData.put(productIds.get(i), value);
-            }
-        }
-        return cacheData;
+        sample.stop(availabilityTimer);
+        return responses;
     }
 }
\ No newline at end of file
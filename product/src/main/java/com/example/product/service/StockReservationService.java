@@ -0,0 +1,222 @@
+package com.example.product.service;
+
+import com.example.product.cache.ProductQuantityCache;
+import com.example.product.config.StockReservationProperties;
+import com.example.product.dto.ProductAvailabilityResponse;
+import com.example.product.dto.QuantitySnapshot;
+import com.example.product.dto.request.ProductQuantityCheckRequest;
+import com.example.product.dto.request.StockReservationRequest;
+import com.example.product.dto.response.StockReservationResponse;
+import com.example.product.dto.response.StockReservationResponse.Status;
+import com.example.product.repository.ProductRepository;
+import com.example.product.repository.StockReconciliationBatchRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Holds stock for whole baskets in Redis. Available units are {@code product:qty:}
+ * (the database quantity) minus {@code product:held:} (units held by active or confirmed
+ * reservations). Confirmed units stay held until the reconciler has written them to
+ * {@code Product.quantity} in a batch, so no order ever takes a row lock in Postgres.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class StockReservationService implements IStockReservationService {
+
+    static final String HELD_PREFIX = ProductQuantityCache.HELD_PREFIX;
+    static final String RESERVATION_PREFIX = "product:resv:";
+    static final String EXPIRY_KEY = "product:resv:expiry";
+    static final String PENDING_KEY = "product:resv:pending";
+    static final String RECONCILING_KEY = "product:resv:reconciling";
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RESERVE = script("reserve", List.class);
+    private static final RedisScript<Long> CONFIRM = script("confirm", Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> RELEASE = script("release", List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> DRAIN = script("drain", List.class);
+    private static final RedisScript<Long> SETTLE = script("settle", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final ProductQuantityCache quantityCache;
+    private final ProductRepository productRepository;
+    private final StockReconciliationBatchRepository batchRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StockReservationProperties properties;
+
+    @Override
+    public StockReservationResponse reserve(StockReservationRequest request) {
+        // Merge duplicate lines so each product is checked against the basket's total
+        Map<Long, Integer> basket = new LinkedHashMap<>();
+        for (ProductQuantityCheckRequest item : request.items()) {
+            basket.merge(item.productId(), item.quantity(), Integer::sum);
+        }
+        Duration ttl = request.ttlSeconds() == null ? properties.getDefaultTtl() : Duration.ofSeconds(request.ttlSeconds());
+        if (ttl.compareTo(properties.getMaxTtl()) > 0) {
+            ttl = properties.getMaxTtl();
+        }
+        String reservationId = UUID.randomUUID().toString();
+        Instant expiresAt = Instant.now().plus(ttl);
+
+        List<String> result = runReserve(reservationId, expiresAt, basket);
+        if ("MISSING".equals(result.get(0))) {
+            // Quantities not cached yet: load them once and retry
+            loadQuantities(result.subList(1, result.size()).stream().map(Long::valueOf).toList());
+            result = runReserve(reservationId, expiresAt, basket);
+        }
+
+        switch (result.get(0)) {
+            case "OK":
+                quantityCache.adjustHeld(basket);
+                return new StockReservationResponse(reservationId, Status.HELD, expiresAt, List.of());
+            case "SHORT":
+                List<ProductAvailabilityResponse> shortages = new ArrayList<>();
+                for (int i = 1; i < result.size(); i += 2) {
+                    shortages.add(new ProductAvailabilityResponse(Long.parseLong(result.get(i)), false, Integer.valueOf(result.get(i + 1))));
+                }
+                return new StockReservationResponse(null, Status.REJECTED, null, shortages);
+            default:
+                throw new IllegalStateException("Could not reserve stock: " + result.get(0));
+        }
+    }
+
+    @Override
+    public Optional<StockReservationResponse> confirm(String reservationId) {
+        Long confirmed = redisTemplate.execute(CONFIRM,
+                List.of(RESERVATION_PREFIX + reservationId, EXPIRY_KEY, PENDING_KEY), reservationId);
+        return Long.valueOf(1).equals(confirmed)
+                ? Optional.of(new StockReservationResponse(reservationId, Status.CONFIRMED, null, List.of()))
+                : Optional.empty();
+    }
+
+    @Override
+    public Optional<StockReservationResponse> release(String reservationId) {
+        return releaseHold(reservationId)
+                ? Optional.of(new StockReservationResponse(reservationId, Status.RELEASED, null, List.of()))
+                : Optional.empty();
+    }
+
+    @Scheduled(fixedDelayString = "#{@stockReservationProperties.sweepInterval.toMillis()}")
+    public void releaseExpired() {
+        Set<String> expired = redisTemplate.opsForZSet()
+                .rangeByScore(EXPIRY_KEY, 0, System.currentTimeMillis(), 0, properties.getSweepBatchSize());
+        if (expired == null) {
+            return;
+        }
+        int released = 0;
+        for (String reservationId : expired) {
+            if (releaseHold(reservationId)) {
+                released++;
+            }
+        }
+        if (released > 0) {
+            log.debug("Released {} expired reservations", released);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "#{@stockReservationProperties.reconcileInterval.toMillis()}")
+    public void reconcile() {
+        @SuppressWarnings("unchecked")
+        List<String> drained = redisTemplate.execute(DRAIN, List.of(PENDING_KEY, RECONCILING_KEY), UUID.randomUUID().toString());
+        if (drained == null || drained.size() < 3) {
+            return;
+        }
+        String batchId = drained.get(0);
+        Map<Long, Integer> units = new LinkedHashMap<>();
+        for (int i = 1; i < drained.size(); i += 2) {
+            units.put(Long.valueOf(drained.get(i)), Integer.valueOf(drained.get(i + 1)));
+        }
+
+        Map<Long, QuantitySnapshot> quantities = transactionTemplate.execute(status -> {
+            // The marker makes a retried batch (crash before settle) a no-op in the database
+            if (batchRepository.markApplied(batchId) == 1) {
+                List<Object[]> args = new ArrayList<>(units.size());
+                units.forEach((id, n) -> args.add(new Object[]{n, id}));
+                jdbcTemplate.batchUpdate(
+                        "UPDATE product SET quantity = quantity - ?, quantity_version = quantity_version + 1 WHERE id = ?", args);
+            }
+            Map<Long, QuantitySnapshot> current = new HashMap<>(units.size());
+            productRepository.findQuantitySnapshotsByIds(units.keySet())
+                    .forEach(row -> current.put(row.productId(), row));
+            return current;
+        });
+
+        List<String> args = new ArrayList<>(5 + units.size() * 4);
+        args.add(batchId);
+        args.add(ProductQuantityCache.CACHE_PREFIX);
+        args.add(HELD_PREFIX);
+        args.add(String.valueOf(ProductQuantityCache.POSITIVE_TTL.toSeconds()));
+        args.add(ProductQuantityCache.VERSION_PREFIX);
+        units.forEach((id, n) -> {
+            QuantitySnapshot snapshot = quantities.get(id);
+            args.add(id.toString());
+            args.add(n.toString());
+            args.add(String.valueOf(snapshot == null ? ProductQuantityCache.NOT_FOUND_SENTINEL : snapshot.quantity()));
+            args.add(String.valueOf(snapshot == null ? 0 : snapshot.version()));
+        });
+        Long settled = redisTemplate.execute(SETTLE, List.of(RECONCILING_KEY), args.toArray());
+        if (Long.valueOf(1).equals(settled)) {
+            Map<Long, Integer> freed = new HashMap<>(units.size());
+            units.forEach((id, n) -> freed.put(id, -n));
+            quantityCache.adjustHeld(freed);
+        }
+        log.info("Reconciled reservation batch {} covering {} products", batchId, units.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> runReserve(String reservationId, Instant expiresAt, Map<Long, Integer> basket) {
+        List<String> args = new ArrayList<>(4 + basket.size() * 2);
+        args.add(reservationId);
+        args.add(String.valueOf(expiresAt.toEpochMilli()));
+        args.add(ProductQuantityCache.CACHE_PREFIX);
+        args.add(HELD_PREFIX);
+        basket.forEach((id, qty) -> {
+            args.add(id.toString());
+            args.add(qty.toString());
+        });
+        return redisTemplate.execute(RESERVE, List.of(RESERVATION_PREFIX + reservationId, EXPIRY_KEY), args.toArray());
+    }
+
+    private boolean releaseHold(String reservationId) {
+        @SuppressWarnings("unchecked")
+        List<String> released = redisTemplate.execute(RELEASE,
+                List.of(RESERVATION_PREFIX + reservationId, EXPIRY_KEY), reservationId, HELD_PREFIX);
+        if (released == null || released.isEmpty()) {
+            return false;
+        }
+        Map<Long, Integer> freed = new HashMap<>(released.size() / 2);
+        for (int i = 0; i < released.size(); i += 2) {
+            freed.put(Long.valueOf(released.get(i)), -Integer.parseInt(released.get(i + 1)));
+        }
+        quantityCache.adjustHeld(freed);
+        return true;
+    }
+
+    private void loadQuantities(List<Long> productIds) {
+        Map<Long, Integer> loaded = new HashMap<>(productIds.size());
+        productRepository.findQuantitiesByIds(productIds)
+                .forEach(row -> loaded.put(row.productId(), row.quantity()));
+        for (Long id : productIds) {
+            loaded.putIfAbsent(id, ProductQuantityCache.NOT_FOUND_SENTINEL);
+        }
+        quantityCache.putAll(loaded);
+    }
+
+    private static <T> RedisScript<T> script(String name, Class<T> resultType) {
+        return RedisScript.of(new ClassPathResource("scripts/reservation/" + name + ".lua"), resultType);
+    }
+}
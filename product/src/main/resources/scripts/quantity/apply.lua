@@ -0,0 +1,19 @@
+-- Writes quantities seen on the CDC stream unless the cache already holds a newer version,
+-- e.g. one written by settle before a delayed event for an older update arrived.
+-- ARGV: qtyPrefix, versionPrefix, notFoundSentinel, negativeTtlSeconds,
+--       then productId/quantity/version triples; an empty quantity marks a deleted product
+-- Returns the number of changes skipped as older than the cached version
+local skipped = 0
+for i = 5, #ARGV, 3 do
+    local id = ARGV[i]
+    if ARGV[i + 1] == '' then
+        redis.call('SET', ARGV[1] .. id, ARGV[3], 'EX', ARGV[4])
+        redis.call('DEL', ARGV[2] .. id)
+    elseif tonumber(ARGV[i + 2]) < tonumber(redis.call('GET', ARGV[2] .. id) or '-1') then
+        skipped = skipped + 1
+    else
+        redis.call('SET', ARGV[1] .. id, ARGV[i + 1])
+        redis.call('SET', ARGV[2] .. id, ARGV[i + 2])
+    end
+end
+return skipped
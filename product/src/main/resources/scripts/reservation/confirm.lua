@@ -0,0 +1,13 @@
+-- Turns an active hold into units pending reconciliation against Product.quantity.
+-- KEYS[1] reservation hash, KEYS[2] expiry zset, KEYS[3] pending hash
+-- ARGV[1] reservationId
+-- Returns 1 when confirmed, 0 when the reservation is no longer active
+if redis.call('ZREM', KEYS[2], ARGV[1]) == 0 then
+    return 0
+end
+local items = redis.call('HGETALL', KEYS[1])
+for i = 1, #items, 2 do
+    redis.call('HINCRBY', KEYS[3], items[i], items[i + 1])
+end
+redis.call('DEL', KEYS[1])
+return 1
@@ -0,0 +1,22 @@
+-- Moves confirmed units into a reconciliation batch, or hands back a batch left over
+-- from an earlier run that did not settle.
+-- KEYS[1] pending hash, KEYS[2] reconciling hash
+-- ARGV[1] id for a new batch
+-- Returns {batchId, productId, units, ...} or {} when there is nothing to reconcile
+if redis.call('EXISTS', KEYS[2]) == 0 then
+    if redis.call('EXISTS', KEYS[1]) == 0 then
+        return {}
+    end
+    redis.call('RENAME', KEYS[1], KEYS[2])
+    redis.call('HSET', KEYS[2], '_batch', ARGV[1])
+end
+local batch = redis.call('HGET', KEYS[2], '_batch')
+local result = {batch}
+local items = redis.call('HGETALL', KEYS[2])
+for i = 1, #items, 2 do
+    if items[i] ~= '_batch' then
+        result[#result + 1] = items[i]
+        result[#result + 1] = items[i + 1]
+    end
+end
+return result
@@ -0,0 +1,13 @@
+-- Gives the units of an active hold back; used for explicit release and for expiry.
+-- KEYS[1] reservation hash, KEYS[2] expiry zset
+-- ARGV[1] reservationId, ARGV[2] heldPrefix
+-- Returns the released {productId, units, ...}, or {} when the reservation is no longer active
+if redis.call('ZREM', KEYS[2], ARGV[1]) == 0 then
+    return {}
+end
+local items = redis.call('HGETALL', KEYS[1])
+for i = 1, #items, 2 do
+    redis.call('DECRBY', ARGV[2] .. items[i], items[i + 1])
+end
+redis.call('DEL', KEYS[1])
+return items
@@ -0,0 +1,47 @@
+-- Atomically holds stock for a whole basket, all-or-nothing.
+-- KEYS[1] reservation hash, KEYS[2] expiry zset
+-- ARGV: reservationId, expireAtMillis, qtyPrefix, heldPrefix, then productId/quantity pairs
+-- Returns {'OK'}, {'DUPLICATE'}, {'MISSING', id...} or {'SHORT', id, available, ...}
+if redis.call('EXISTS', KEYS[1]) == 1 then
+    return {'DUPLICATE'}
+end
+
+local qtyPrefix, heldPrefix = ARGV[3], ARGV[4]
+local missing = {'MISSING'}
+local available = {}
+for i = 5, #ARGV, 2 do
+    local id = ARGV[i]
+    local qty = redis.call('GET', qtyPrefix .. id)
+    if not qty then
+        missing[#missing + 1] = id
+    else
+        qty = tonumber(qty)
+        if qty < 0 then
+            qty = 0
+        end
+        local held = tonumber(redis.call('GET', heldPrefix .. id) or '0')
+        available[#available + 1] = qty - held
+    end
+end
+if #missing > 1 then
+    return missing
+end
+
+local short = {'SHORT'}
+for i = 5, #ARGV, 2 do
+    local free = available[(i - 3) / 2]
+    if free < tonumber(ARGV[i + 1]) then
+        short[#short + 1] = ARGV[i]
+        short[#short + 1] = tostring(math.max(free, 0))
+    end
+end
+if #short > 1 then
+    return short
+end
+
+for i = 5, #ARGV, 2 do
+    redis.call('INCRBY', heldPrefix .. ARGV[i], ARGV[i + 1])
+    redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1])
+end
+redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1])
+return {'OK'}
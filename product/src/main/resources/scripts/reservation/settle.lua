@@ -0,0 +1,21 @@
+-- Releases the holds of a reconciled batch and refreshes the cached quantities with the
+-- values just written to the database, so availability never counts the units twice.
+-- A quantity is only written if it is at least as recent as the cached one: CDC may
+-- already have delivered a later change, which must not be rolled back.
+-- KEYS[1] reconciling hash
+-- ARGV: batchId, qtyPrefix, heldPrefix, qtyTtlSeconds, versionPrefix,
+--       then productId/units/newQuantity/version quadruples
+-- Returns 1 when settled, 0 when the batch was already settled by another instance
+if redis.call('HGET', KEYS[1], '_batch') ~= ARGV[1] then
+    return 0
+end
+for i = 6, #ARGV, 4 do
+    local id = ARGV[i]
+    redis.call('DECRBY', ARGV[3] .. id, ARGV[i + 1])
+    if tonumber(ARGV[i + 3]) >= tonumber(redis.call('GET', ARGV[5] .. id) or '-1') then
+        redis.call('SET', ARGV[2] .. id, ARGV[i + 2], 'EX', ARGV[4])
+        redis.call('SET', ARGV[5] .. id, ARGV[i + 3], 'EX', ARGV[4])
+    end
+end
+redis.call('DEL', KEYS[1])
+return 1
@@ -0,0 +1,159 @@
+package com.example.product.cache;
+
+import com.example.product.cache.ProductQuantityCache.StockLevels;
+import com.example.product.config.ProductCacheProperties;
+import com.example.product.dto.QuantitySnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ProductQuantityCacheTest {
+
+    private RedisTemplate<String, Integer> redisTemplate;
+    private ValueOperations<String, Integer> valueOperations;
+    private SimpleMeterRegistry meterRegistry;
+    private ProductQuantityCache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductQuantityCache(redisTemplate, new ProductCacheProperties(), meterRegistry);
+    }
+
+    @Test
+    void getAll_shouldServeRepeatedLookupsFromNearTier() {
+        when(valueOperations.multiGet(List.of("product:qty:1", "product:qty:2", "product:held:1", "product:held:2")))
+                .thenReturn(Arrays.asList(5, null, 2, null));
+
+        assertEquals(new StockLevels(Map.of(1L, 5), Map.of(1L, 2)), cache.getAll(List.of(1L, 2L)));
+        when(valueOperations.multiGet(List.of("product:qty:2", "product:held:2"))).thenReturn(Arrays.asList(null, null));
+        assertEquals(new StockLevels(Map.of(1L, 5), Map.of(1L, 2)), cache.getAll(List.of(1L, 2L)));
+
+        verify(valueOperations).multiGet(List.of("product:qty:2", "product:held:2"));
+        assertEquals(1.0, meterRegistry.get("product.qty.redis.gets").tag("result", "hit").counter().count());
+        assertEquals(2.0, meterRegistry.get("product.qty.redis.gets").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void getAll_shouldMakeNoRedisCallForAFullyNearCachedBasket() {
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(7, 4, 1, null));
+        cache.getAll(List.of(1L, 2L));
+        clearInvocations(redisTemplate, valueOperations);
+
+        assertEquals(new StockLevels(Map.of(1L, 7, 2L, 4), Map.of(1L, 1)), cache.getAll(List.of(1L, 2L)));
+
+        verifyNoInteractions(redisTemplate, valueOperations);
+    }
+
+    @Test
+    void getAll_shouldAskRedisForQuantitiesLoadedWithoutTheirHolds() {
+        cache.putAll(Map.of(1L, 7));
+        when(valueOperations.multiGet(List.of("product:qty:1", "product:held:1"))).thenReturn(Arrays.asList(7, 3));
+
+        assertEquals(new StockLevels(Map.of(1L, 7), Map.of(1L, 3)), cache.getAll(List.of(1L)));
+    }
+
+    @Test
+    void getAll_shouldFallBackToNearHitsWhenRedisFails() {
+        when(valueOperations.multiGet(List.of("product:qty:1", "product:held:1"))).thenReturn(Arrays.asList(7, null));
+        cache.getAll(List.of(1L));
+        when(valueOperations.multiGet(anyList())).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertEquals(new StockLevels(Map.of(1L, 7), Map.of()), cache.getAll(List.of(1L, 2L)));
+        assertEquals(1.0, meterRegistry.get("product.qty.redis.errors").counter().count());
+    }
+
+    @Test
+    void adjustHeld_shouldMoveNearCachedHoldsOnly() {
+        when(valueOperations.multiGet(List.of("product:qty:1", "product:held:1"))).thenReturn(Arrays.asList(7, 2));
+        cache.getAll(List.of(1L));
+
+        cache.adjustHeld(Map.of(1L, 3, 9L, 5));
+        assertEquals(Map.of(1L, 5), cache.getAll(List.of(1L)).held());
+        cache.adjustHeld(Map.of(1L, -10));
+        assertEquals(Map.of(), cache.getAll(List.of(1L)).held());
+        verify(valueOperations, times(1)).multiGet(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void putAll_shouldWriteAllEntriesInOnePipelineWithTheirTtl() {
+        cache.putAll(Map.of(1L, 7, 2L, -1));
+
+        ArgumentCaptor<SessionCallback<Object>> callback = ArgumentCaptor.forClass(SessionCallback.class);
+        verify(redisTemplate, times(1)).executePipelined(callback.capture());
+        RedisOperations<String, Integer> operations = mock(RedisOperations.class);
+        when(operations.opsForValue()).thenReturn(valueOperations);
+        callback.getValue().execute(operations);
+
+        verify(valueOperations).set("product:qty:1", 7, 600, TimeUnit.SECONDS);
+        verify(valueOperations).set("product:qty:2", -1, 45, TimeUnit.SECONDS);
+        verifyNoMoreInteractions(valueOperations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyChanges_shouldSendVersionedUpdatesAndDeletesInOneScriptCall() {
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class), anyList(),
+                any(Object[].class))).thenReturn(1L);
+        Map<Long, QuantitySnapshot> changes = new LinkedHashMap<>();
+        changes.put(1L, new QuantitySnapshot(1L, 4, 9L));
+        changes.put(2L, null);
+        cache.applyChanges(changes);
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class),
+                eq(List.of()), args.capture());
+        assertEquals(List.of("product:qty:", "product:qtyver:", "-1", "45", "1", "4", "9", "2", "", ""), List.of(args.getValue()));
+        assertEquals(1.0, meterRegistry.get("product.qty.cdc.stale").counter().count());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyChanges_shouldPropagateRedisFailures() {
+        when(redisTemplate.execute(any(RedisScript.class), any(RedisSerializer.class), any(RedisSerializer.class), anyList(),
+                any(Object[].class))).thenThrow(new RedisConnectionFailureException("down"));
+
+        assertThrows(RedisConnectionFailureException.class,
+                () -> cache.applyChanges(Map.of(1L, new QuantitySnapshot(1L, 4, 1L))));
+    }
+
+    @Test
+    void refreshNear_shouldUpdateHeldEntriesAndInvalidateDeletes() {
+        when(valueOperations.multiGet(List.of("product:qty:1", "product:held:1"))).thenReturn(Arrays.asList(7, null));
+        cache.getAll(List.of(1L));
+        cache.refreshNear(1L, 3);
+        cache.refreshNear(2L, 9);
+
+        when(valueOperations.multiGet(List.of("product:qty:2", "product:held:2"))).thenReturn(Arrays.asList(null, null));
+        assertEquals(Map.of(1L, 3), cache.getAll(List.of(1L, 2L)).quantities());
+
+        cache.refreshNear(1L, null);
+        when(valueOperations.multiGet(List.of("product:qty:1", "product:held:1"))).thenReturn(Arrays.asList(null, null));
+        assertTrue(cache.getAll(List.of(1L)).quantities().isEmpty());
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.product.kafka.consumer;
+
+import com.example.product.cache.ProductPriceCache;
+import com.example.product.cache.ProductQuantityCache;
+import com.example.product.dto.PriceSnapshot;
+import com.example.product.dto.QuantitySnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductCacheSyncConsumerTest {
+
+    @Mock
+    private ProductQuantityCache quantityCache;
+
+    @Mock
+    private ProductPriceCache priceCache;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProductCacheSyncConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        consumer = new ProductCacheSyncConsumer(quantityCache, priceCache, new ObjectMapper(), meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleProductChanges_shouldKeepLatestChangePerProductAndMapDeletes() {
+        List<ConsumerRecord<String, String>> records = new ArrayList<>();
+        records.add(record(0, change("c", 1, 10)));
+        records.add(record(1, "{\"payload\":{\"op\":\"u\",\"after\":{\"id\":1,\"quantity\":7,\"quantity_version\":2}}}"));
+        records.add(record(2, change("u", 2, 3)));
+        records.add(record(3, "{\"payload\":{\"op\":\"d\",\"before\":{\"id\":2},\"after\":null}}"));
+        records.add(record(4, null));
+        records.add(record(5, "not json"));
+        records.add(record(6, "{\"payload\":{\"op\":\"r\",\"after\":{\"id\":3,\"quantity\":5,\"quantity_version\":3}}}"));
+
+        consumer.handleProductChanges(records);
+
+        ArgumentCaptor<Map<Long, QuantitySnapshot>> changes = ArgumentCaptor.forClass(Map.class);
+        verify(quantityCache).applyChanges(changes.capture());
+        Map<Long, QuantitySnapshot> expected = new HashMap<>();
+        expected.put(1L, new QuantitySnapshot(1L, 7, 2L));
+        expected.put(2L, null);
+        expected.put(3L, new QuantitySnapshot(3L, 5, 3L));
+        assertEquals(expected, changes.getValue());
+    }
+
+    @Test
+    void handleProductChanges_shouldRecordLagOfTheOldestCommitInTheBatch() {
+        long committedAt = System.currentTimeMillis() - 5_000;
+        consumer.handleProductChanges(List.of(
+                record(0, "{\"payload\":{\"op\":\"u\",\"source\":{\"ts_ms\":" + committedAt + "},\"after\":{\"id\":1,\"quantity\":2}}}"),
+                record(1, "{\"payload\":{\"op\":\"u\",\"source\":{\"ts_ms\":" + (committedAt + 4_000) + "},\"after\":{\"id\":2,\"quantity\":2}}}")));
+
+        Timer lag = meterRegistry.get("product.cdc.lag").timer();
+        assertEquals(1, lag.count());
+        assertTrue(lag.totalTime(TimeUnit.MILLISECONDS) >= 5_000);
+    }
+
+    @Test
+    void refreshNearCache_shouldRefreshVersionedPricesAndDropDeletedOnes() {
+        consumer.refreshNearCache(List.of(
+                record(0, "{\"payload\":{\"op\":\"u\",\"after\":{\"id\":1,\"quantity\":2,\"price\":9.5,\"price_version\":3}}}"),
+                record(1, "{\"payload\":{\"op\":\"d\",\"before\":{\"id\":2},\"after\":null}}"),
+                record(2, change("u", 3, 1))));
+
+        verify(priceCache).refresh(new PriceSnapshot(1L, 9.5, 3L));
+        verify(priceCache).invalidate(2L);
+        verifyNoMoreInteractions(priceCache);
+        verify(quantityCache).refreshNear(1L, 2);
+        verify(quantityCache).refreshNear(2L, null);
+    }
+
+    @Test
+    void handleProductChanges_shouldPropagateCacheWriteFailures() {
+        doThrow(new IllegalStateException("redis down")).when(quantityCache).applyChanges(anyMap());
+
+        assertThrows(IllegalStateException.class,
+                () -> consumer.handleProductChanges(List.of(record(0, change("u", 1, 1)))));
+    }
+
+    private static String change(String op, long id, int quantity) {
+        return "{\"payload\":{\"op\":\"" + op + "\",\"after\":{\"id\":" + id + ",\"quantity\":" + quantity + "}}}";
+    }
+
+    private static ConsumerRecord<String, String> record(long offset, String value) {
+        return new ConsumerRecord<>("dbserver1.public.product", 0, offset, null, value);
+    }
+}
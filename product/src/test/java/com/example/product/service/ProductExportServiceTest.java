@@ -0,0 +1,63 @@
+package com.example.product.service;
+
+import com.example.product.dto.response.ProductResponse;
+import com.example.product.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ProductExportServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        exportService = new ProductExportService(productRepository, new ObjectMapper());
+    }
+
+    @Test
+    void export_shouldWriteOneJsonObjectPerLineAndCloseTheStream() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(productRepository.streamProductResponsesAfter(5L)).thenReturn(Stream.of(
+                new ProductResponse(6L, "Keyboard", 89.9, 3),
+                new ProductResponse(8L, "Mouse", 19.5, 0)).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = exportService.export(ProductExportService.Format.NDJSON, 5L, out);
+
+        assertEquals(2, written);
+        assertEquals("""
+                {"id":6,"name":"Keyboard","price":89.9,"quantity":3}
+                {"id":8,"name":"Mouse","price":19.5,"quantity":0}
+                """, out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+    }
+
+    @Test
+    void export_shouldQuoteCsvFieldsWhenNeeded() throws Exception {
+        when(productRepository.streamProductResponsesAfter(0L)).thenReturn(Stream.of(
+                new ProductResponse(1L, "Cable, \"braided\"", 4.0, 10)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(ProductExportService.Format.CSV, 0L, out);
+
+        assertEquals("""
+                id,name,price,quantity
+                1,"Cable, ""braided""\",4.0,10
+                """, out.toString(StandardCharsets.UTF_8));
+    }
+}
@@ -1,28 +1,47 @@
 package com.example.product.service;
 
+import com.example.product.cache.ProductPriceCache;
+import com.example.product.cache.ProductQuantityCache;
+import com.example.product.cache.ProductQuantityCache.StockLevels;
+import com.example.product.dto.PriceSnapshot;
+import com.example.product.dto.ProductAvailabilityResponse;
 import com.example.product.dto.request.ProductCreateRequest;
 import com.example.product.dto.request.ProductQuantityCheckRequest;
 import com.example.product.dto.request.ProductUpdateRequest;
 import com.example.product.dto.response.ProductResponse;
 import com.example.product.entity.Product;
+import com.example.product.mapper.ProductMapper;
+import com.example.product.pagination.CursorPage;
+import com.example.product.pagination.KeysetCursor;
+import com.example.product.pagination.ProductSortKey;
 import com.example.product.repository.ProductRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.modelmapper.ModelMapper;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
+import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 class ProductServiceTest {
@@ -33,8 +52,17 @@ class ProductServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private ProductMapper productMapper = new ProductMapper();
+
+    @Mock
+    private ProductQuantityCache quantityCache;
+
     @Mock
-    private ModelMapper modelMapper;
+    private ProductPriceCache priceCache;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @BeforeEach
     void setUp() {
@@ -44,43 +72,75 @@ class ProductServiceTest {
     @Test
     void create_shouldCreateProduct() {
         ProductCreateRequest request = new ProductCreateRequest("Test Product", 10.0, 100);
-        Product product = new Product();
-        ProductResponse productResponse = new ProductResponse(1L, "Test Product", 10.0, 100);
 
-        when(modelMapper.map(request, Product.class)).thenReturn(product);
-        when(productRepository.save(product)).thenReturn(product);
-        when(modelMapper.map(product, ProductResponse.class)).thenReturn(productResponse);
+        when(productRepository.save(any(Product.class))).thenAnswer(inv -> {
+            Product product = inv.getArgument(0);
+            product.setId(1L);
+            return product;
+        });
 
         ProductResponse result = productService.create(request);
 
-        assertEquals(productResponse, result);
-        verify(productRepository).save(product);
+        assertEquals(new ProductResponse(1L, "Test Product", 10.0, 100), result);
+        verify(productRepository).save(any(Product.class));
     }
 
     @Test
     void findAll_shouldReturnPageOfProductResponses() {
         Pageable pageable = PageRequest.of(0, 10);
-        Product product = new Product();
         ProductResponse productResponse = new ProductResponse(1L, "Test Product", 10.0, 100);
-        Page<Product> page = new PageImpl<>(Collections.singletonList(product));
+        Page<ProductResponse> page = new PageImpl<>(Collections.singletonList(productResponse));
 
-        when(productRepository.findAll(pageable)).thenReturn(page);
-        when(modelMapper.map(product, ProductResponse.class)).thenReturn(productResponse);
+        when(productRepository.findAllProductResponse(pageable)).thenReturn(page);
 
         Page<ProductResponse> result = productService.findAll(pageable);
 
-        assertEquals(1, result.getTotalElements());
-        assertEquals(productResponse, result.getContent().get(0));
+        assertEquals(page, result);
+        verify(productRepository, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void scroll_shouldReturnNextCursorWithoutCounting() {
+        when(productRepository.findProductResponsesAfter(eq(ProductSortKey.PRICE), eq(Sort.Direction.ASC), isNull(), eq(3)))
+                .thenReturn(List.of(
+                        new ProductResponse(4L, "A", 1.0, 1),
+                        new ProductResponse(2L, "B", 2.5, 1),
+                        new ProductResponse(9L, "C", 3.0, 1)));
+
+        CursorPage<ProductResponse> result = productService.scroll(2, "price", Sort.Direction.ASC, null, false);
+
+        assertEquals(2, result.content().size());
+        assertNull(result.totalElements());
+        assertEquals(new KeysetCursor("PRICE", Sort.Direction.ASC, "2.5", 2L), KeysetCursor.decode(result.nextCursor()));
+        verify(productRepository, never()).count();
+    }
+
+    @Test
+    void scroll_shouldContinueWithTheCursorSortAndStopOnLastPage() {
+        KeysetCursor cursor = new KeysetCursor("NAME", Sort.Direction.DESC, "B", 2L);
+        when(productRepository.findProductResponsesAfter(ProductSortKey.NAME, Sort.Direction.DESC, cursor, 3))
+                .thenReturn(List.of(new ProductResponse(4L, "A", 1.0, 1)));
+        when(productRepository.count()).thenReturn(3L);
+
+        CursorPage<ProductResponse> result = productService.scroll(2, "id", Sort.Direction.ASC, cursor.encode(), true);
+
+        assertEquals(1, result.content().size());
+        assertNull(result.nextCursor());
+        assertEquals(3L, result.totalElements());
+    }
+
+    @Test
+    void scroll_shouldRejectMalformedCursor() {
+        assertThrows(IllegalArgumentException.class,
+                () -> productService.scroll(2, "id", Sort.Direction.ASC, "not a cursor", false));
     }
 
     @Test
     void findById_shouldReturnProductResponseWhenFound() {
         Long id = 1L;
-        Product product = new Product();
         ProductResponse productResponse = new ProductResponse(1L, "Test Product", 10.0, 100);
 
-        when(productRepository.findById(id)).thenReturn(Optional.of(product));
-        when(modelMapper.map(product, ProductResponse.class)).thenReturn(productResponse);
+        when(productRepository.findProductResponseById(id)).thenReturn(Optional.of(productResponse));
 
         Optional<ProductResponse> result = productService.findById(id);
 
@@ -91,7 +151,7 @@ class ProductServiceTest {
     @Test
     void findById_shouldReturnEmptyOptionalWhenNotFound() {
         Long id = 1L;
-        when(productRepository.findById(id)).thenReturn(Optional.empty());
+        when(productRepository.findProductResponseById(id)).thenReturn(Optional.empty());
 
         Optional<ProductResponse> result = productService.findById(id);
 
@@ -103,19 +163,34 @@ class ProductServiceTest {
         Long id = 1L;
         ProductUpdateRequest request = new ProductUpdateRequest("Updated Product", 20.0, 200);
         Product existingProduct = new Product();
-        ProductResponse productResponse = new ProductResponse(1L, "Updated Product", 20.0, 200);
+        existingProduct.setId(id);
 
         when(productRepository.findById(id)).thenReturn(Optional.of(existingProduct));
         when(productRepository.save(existingProduct)).thenReturn(existingProduct);
-        when(modelMapper.map(existingProduct, ProductResponse.class)).thenReturn(productResponse);
 
         ProductResponse result = productService.update(id, request);
 
-        assertEquals(productResponse, result);
-        verify(modelMapper).map(request, existingProduct);
+        assertEquals(new ProductResponse(1L, "Updated Product", 20.0, 200), result);
+        assertEquals("Updated Product", existingProduct.getName());
+        assertEquals(1L, existingProduct.getPriceVersion());
         verify(productRepository).save(existingProduct);
     }
 
+    @Test
+    void update_shouldKeepPriceVersionWhenPriceIsUnchanged() {
+        Product existingProduct = new Product();
+        existingProduct.setId(1L);
+        existingProduct.setPrice(20.0);
+        existingProduct.setPriceVersion(4L);
+
+        when(productRepository.findById(1L)).thenReturn(Optional.of(existingProduct));
+        when(productRepository.save(existingProduct)).thenReturn(existingProduct);
+
+        productService.update(1L, new ProductUpdateRequest("Renamed", 20.0, 3));
+
+        assertEquals(4L, existingProduct.getPriceVersion());
+    }
+
     @Test
     void update_shouldThrowExceptionWhenNotFound() {
         Long id = 1L;
@@ -136,6 +211,70 @@ class ProductServiceTest {
         verify(productRepository).deleteById(id);
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void checkQuantities_shouldWriteBackOnlyCacheMisses() {
+        List<ProductQuantityCheckRequest> items = Arrays.asList(
+                new ProductQuantityCheckRequest(1L, 2),
+                new ProductQuantityCheckRequest(2L, 1),
+                new ProductQuantityCheckRequest(3L, 1),
+                new ProductQuantityCheckRequest(1L, 8));
+
+        when(quantityCache.getAll(anyCollection())).thenReturn(new StockLevels(Map.of(1L, 5), Map.of()));
+        when(productRepository.findQuantitiesByIds(List.of(2L, 3L)))
+                .thenReturn(List.of(new ProductQuantityCheckRequest(2L, 4)));
+
+        List<ProductAvailabilityResponse> result = productService.checkQuantities(items);
+
+        assertEquals(List.of(
+                new ProductAvailabilityResponse(1L, true, 5),
+                new ProductAvailabilityResponse(2L, true, 4),
+                new ProductAvailabilityResponse(3L, false, 0),
+                new ProductAvailabilityResponse(1L, false, 5)), result);
+        ArgumentCaptor<Map<Long, Integer>> written = ArgumentCaptor.forClass(Map.class);
+        verify(quantityCache).putAll(written.capture());
+        assertEquals(Map.of(2L, 4, 3L, -1), written.getValue());
+    }
+
+    @Test
+    void checkQuantities_shouldSkipDatabaseAndWriteBackOnFullCacheHit() {
+        when(quantityCache.getAll(anyCollection())).thenReturn(new StockLevels(Map.of(1L, 5), Map.of()));
+
+        List<ProductAvailabilityResponse> result = productService.checkQuantities(
+                List.of(new ProductQuantityCheckRequest(1L, 5)));
+
+        assertEquals(List.of(new ProductAvailabilityResponse(1L, true, 5)), result);
+        verifyNoInteractions(productRepository);
+        verify(quantityCache, never()).putAll(any());
+    }
+
+    @Test
+    void checkQuantities_shouldNotCountHeldUnitsAsAvailable() {
+        when(quantityCache.getAll(anyCollection())).thenReturn(new StockLevels(Map.of(1L, 5, 2L, 3), Map.of(1L, 2, 2L, 4)));
+
+        List<ProductAvailabilityResponse> result = productService.checkQuantities(List.of(
+                new ProductQuantityCheckRequest(1L, 4),
+                new ProductQuantityCheckRequest(2L, 1)));
+
+        assertEquals(List.of(
+                new ProductAvailabilityResponse(1L, false, 3),
+                new ProductAvailabilityResponse(2L, false, 0)), result);
+    }
+
+    @Test
+    void checkQuantities_shouldPriceOnlyExistingProducts() {
+        when(quantityCache.getAll(anyCollection())).thenReturn(new StockLevels(Map.of(1L, 5, 2L, -1), Map.of()));
+        when(priceCache.getAll(eq(List.of(1L)), any())).thenReturn(Map.of(1L, new PriceSnapshot(1L, 12.5, 2L)));
+
+        List<ProductAvailabilityResponse> result = productService.checkQuantities(List.of(
+                new ProductQuantityCheckRequest(1L, 2),
+                new ProductQuantityCheckRequest(2L, 1)));
+
+        assertEquals(List.of(
+                new ProductAvailabilityResponse(1L, true, 5, BigDecimal.valueOf(12.5), 2L),
+                new ProductAvailabilityResponse(2L, false, 0)), result);
+    }
+
 //    @Test
 //    void isAvailable_shouldReturnTrueWhenAllProductsAreAvailable() {
 //        ProductQuantityCheckRequest item1 = new ProductQuantityCheckRequest(1L, 10);
@@ -0,0 +1,155 @@
+package com.example.product.service;
+
+import com.example.product.cache.ProductQuantityCache;
+import com.example.product.config.StockReservationProperties;
+import com.example.product.dto.ProductAvailabilityResponse;
+import com.example.product.dto.QuantitySnapshot;
+import com.example.product.dto.request.ProductQuantityCheckRequest;
+import com.example.product.dto.request.StockReservationRequest;
+import com.example.product.dto.response.StockReservationResponse;
+import com.example.product.repository.ProductRepository;
+import com.example.product.repository.StockReconciliationBatchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class StockReservationServiceTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ProductQuantityCache quantityCache;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private StockReconciliationBatchRepository batchRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private StockReservationService reservationService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        reservationService = new StockReservationService(redisTemplate, quantityCache, productRepository,
+                batchRepository, jdbcTemplate, transactionTemplate, new StockReservationProperties());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_shouldLoadMissingQuantitiesAndRetryOnce() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("MISSING", "2"))
+                .thenReturn(List.of("OK"));
+        when(productRepository.findQuantitiesByIds(List.of(2L))).thenReturn(List.of(new ProductQuantityCheckRequest(2L, 9)));
+
+        StockReservationResponse result = reservationService.reserve(new StockReservationRequest(List.of(
+                new ProductQuantityCheckRequest(1L, 1),
+                new ProductQuantityCheckRequest(2L, 3),
+                new ProductQuantityCheckRequest(1L, 2)), null));
+
+        assertEquals(StockReservationResponse.Status.HELD, result.status());
+        assertNotNull(result.reservationId());
+        verify(quantityCache).putAll(Map.of(2L, 9));
+        verify(quantityCache).adjustHeld(Map.of(1L, 3, 2L, 3));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), args.capture());
+        // Duplicate lines are merged into one hold per product
+        assertEquals(List.of("1", "3", "2", "3"), List.of(args.getValue()).subList(4, 8));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reserve_shouldReportShortagesWhenBasketCannotBeHeld() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("SHORT", "1", "0"));
+
+        StockReservationResponse result = reservationService.reserve(new StockReservationRequest(
+                List.of(new ProductQuantityCheckRequest(1L, 1)), 60));
+
+        assertEquals(StockReservationResponse.Status.REJECTED, result.status());
+        assertEquals(List.of(new ProductAvailabilityResponse(1L, false, 0)), result.shortages());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void release_shouldGiveTheReleasedUnitsBackToTheNearTier() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("1", "2", "5", "1"))
+                .thenReturn(List.of());
+
+        assertEquals(StockReservationResponse.Status.RELEASED, reservationService.release("r-1").orElseThrow().status());
+        assertEquals(Optional.empty(), reservationService.release("r-1"));
+
+        verify(quantityCache, times(1)).adjustHeld(Map.of(1L, -2, 5L, -1));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void confirm_shouldBeEmptyWhenReservationIsNoLongerActive() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(0L);
+
+        assertEquals(Optional.empty(), reservationService.confirm("gone"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_shouldApplyBatchOnceAndSettleWithNewQuantities() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("batch-1", "1", "3"))
+                .thenReturn(1L);
+        when(batchRepository.markApplied("batch-1")).thenReturn(1);
+        when(productRepository.findQuantitySnapshotsByIds(Set.of(1L))).thenReturn(List.of(new QuantitySnapshot(1L, 7, 4L)));
+
+        reservationService.reconcile();
+
+        ArgumentCaptor<List<Object[]>> updates = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq("UPDATE product SET quantity = quantity - ?, quantity_version = quantity_version + 1 WHERE id = ?"),
+                updates.capture());
+        assertArrayEquals(new Object[]{3, 1L}, updates.getValue().get(0));
+
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(), args.capture());
+        assertEquals(List.of("batch-1", "product:qty:", "product:held:", "600", "product:qtyver:", "1", "3", "7", "4"),
+                List.of(args.getValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void reconcile_shouldNotReapplyBatchAlreadyInDatabase() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenReturn(List.of("batch-1", "1", "3"))
+                .thenReturn(1L);
+        when(batchRepository.markApplied("batch-1")).thenReturn(0);
+        when(productRepository.findQuantitySnapshotsByIds(Set.of(1L))).thenReturn(List.of(new QuantitySnapshot(1L, 7, 4L)));
+
+        reservationService.reconcile();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}